@@ -4,6 +4,7 @@ import com.finale.amazon.security.CustomOAuth2SuccessHandler;
 import com.finale.amazon.security.JwtAuthenticationFilter;
 import com.finale.amazon.service.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -31,6 +32,14 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtFilter;
 
+    // Raising it makes existing hashes get rehashed on the user's next login
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // Guest carts travel in a cookie, so the frontend origin is named explicitly and credentials are allowed
+    @Value("${app.frontend.url}")
+    private String frontendUrl;
+
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, CustomOAuth2SuccessHandler customOAuth2SuccessHandler) throws Exception {
@@ -45,6 +54,7 @@ public class SecurityConfig {
                         "/swagger-ui/**",
                         "/v3/api-docs/**",
                         "/api/**",
+                        "/ws/**",
                         "/uploads/**")
                 .permitAll()
                 .anyRequest().authenticated()
@@ -69,13 +79,13 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(List.of("http://localhost:5173"));
+        configuration.setAllowedOrigins(List.of(frontendUrl));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
         configuration.setAllowCredentials(true);
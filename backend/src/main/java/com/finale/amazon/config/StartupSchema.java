@@ -0,0 +1,55 @@
+package com.finale.amazon.config;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Schema that ddl-auto=update cannot manage, applied by the owning services at startup. Objects that requests
+ * depend on are applied from {@code afterSingletonsInstantiated}, which runs before the web server starts.
+ * Every statement is idempotent, so it runs on each start; entities must not declare the same objects,
+ * or Hibernate tries to create them again under the same name.
+ */
+@Component
+public class StartupSchema {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Statements that are safe to re-run (IF NOT EXISTS and the like), applied together in one transaction
+    public void apply(List<String> statements) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> statements.forEach(jdbcTemplate::execute));
+    }
+
+    // A unique key over data that may already hold duplicates: each group of rows sharing the key is folded
+    // into its lowest id (summing summedColumns) and the rest deleted, then the unique index is built
+    public void ensureUniqueKey(String table, String indexName, List<String> keyColumns, List<String> summedColumns) {
+        String key = String.join(", ", keyColumns);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Long duplicates = jdbcTemplate.queryForObject("SELECT count(*) FROM (SELECT 1 FROM " + table
+                    + " GROUP BY " + key + " HAVING count(*) > 1) dup", Long.class);
+            if (duplicates != null && duplicates > 0) {
+                if (!summedColumns.isEmpty()) {
+                    jdbcTemplate.update("UPDATE " + table + " t SET "
+                            + summedColumns.stream().map(c -> c + " = agg." + c).collect(Collectors.joining(", "))
+                            + " FROM (SELECT min(id) AS keep_id, "
+                            + summedColumns.stream().map(c -> "sum(" + c + ") AS " + c).collect(Collectors.joining(", "))
+                            + " FROM " + table + " GROUP BY " + key + " HAVING count(*) > 1) agg"
+                            + " WHERE t.id = agg.keep_id");
+                }
+                jdbcTemplate.update("DELETE FROM " + table + " t USING " + table + " keep WHERE "
+                        + keyColumns.stream().map(c -> "keep." + c + " = t." + c).collect(Collectors.joining(" AND "))
+                        + " AND keep.id < t.id");
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + indexName + " ON " + table + " (" + key + ")");
+        });
+    }
+}
@@ -1,15 +1,85 @@
 package com.finale.amazon.config;
 
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.finale.amazon.security.AuthenticatedUser;
+import com.finale.amazon.security.AuthenticatedUserArgumentResolver;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    static {
+        // Resolved from the token, not bound from request parameters
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(AuthenticatedUser.class);
+    }
+
+    public static final String ASYNC_EXECUTOR = "mvcAsyncExecutor";
+    public static final String LOGIN_COMPLETION_EXECUTOR = "loginCompletionExecutor";
+
+    @Autowired
+    private AuthenticatedUserArgumentResolver authenticatedUserArgumentResolver;
+
+    @Value("${orders.export.max-concurrent:8}")
+    private int exportThreads;
+
+    @Value("${auth.login.completion-threads:8}")
+    private int loginCompletionThreads;
+
+    @Value("${auth.login.completion-queue-capacity:64}")
+    private int loginCompletionQueueCapacity;
+
+    // Async request work, which is only order exports: each holds its thread for as long as the client keeps
+    // reading, so the pool is sized to the export limit that OrderExportService admits and never queues. The
+    // WebSocket broker's executors keep Boot from creating applicationTaskExecutor, and Spring's fallback starts
+    // a thread per task
+    @Bean(name = ASYNC_EXECUTOR)
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportThreads);
+        executor.setMaxPoolSize(exportThreads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+
+    // Finishes a login after the password check (token, guest cart merge). When it is full the login thread
+    // finishes the work itself, which slows the login pool down until it answers new logins with 503s
+    @Bean(name = LOGIN_COMPLETION_EXECUTOR)
+    public ThreadPoolTaskExecutor loginCompletionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(loginCompletionThreads);
+        executor.setMaxPoolSize(loginCompletionThreads);
+        executor.setQueueCapacity(loginCompletionQueueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("login-complete-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("uploads/pictures/**")
                 .addResourceLocations("file:uploads/pictures/");
     }
-}
 
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authenticatedUserArgumentResolver);
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.web.bind.annotation.*;
 import com.finale.amazon.service.UserService;
 import com.finale.amazon.service.ReviewService;
 import com.finale.amazon.entity.User;
-import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.security.AuthenticatedUser;
+import com.finale.amazon.service.LoginExecutor;
 import com.finale.amazon.service.ProductService;
+import com.finale.amazon.service.StatisticsService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,26 +31,17 @@ public class AdminController {
     @Autowired
     private ProductService productService;
     @Autowired
-    private JwtUtil jwtUtil;
+    private StatisticsService statisticsService;
+    @Autowired
+    private LoginExecutor loginExecutor;
 
+    // JwtAuthenticationFilter has already checked this header and resolved its user from the principal cache
     private boolean validateAdminToken(String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return false;
         }
-        try {
-            String token = authHeader.substring(7);
-            String email = jwtUtil.extractSubject(token);
-            if (email == null) {
-                return false;
-            }
-            User user = userService.getUserByEmail(email).orElse(null);
-            if (user == null || user.isBlocked()) {
-                return false;
-            }
-            return userService.hasRole(user.getId(), "ADMIN");
-        } catch (Exception e) {
-            return false;
-        }
+        AuthenticatedUser user = AuthenticatedUser.current();
+        return user != null && !user.blocked() && user.hasRole("ADMIN");
     }
 
     @Operation(summary = "Заблокувати користувача за ID")
@@ -126,5 +119,28 @@ public class AdminController {
             return ResponseEntity.status(400).body("Error deleting product: " + e.getMessage());
         }
     }
+
+    @Operation(summary = "Огляд статистики платформи", description = "Повертає загальну кількість замовлень, виручку, користувачів за ролями, товари, категорії та відгуки")
+    @GetMapping("/statistics/overview")
+    public ResponseEntity<?> getOverview(
+            @Parameter(description = "JWT токен адміністратора", required = true)
+            @RequestHeader(value = "Authorization") String authHeader) {
+
+        if(!validateAdminToken(authHeader)) {
+            return ResponseEntity.status(401).body("Unauthorized: Admin access required");
+        }
+        return ResponseEntity.ok(statisticsService.getOverview());
+    }
+
+    @Operation(summary = "Статистика пулу входу", description = "Повертає розмір пулу перевірки паролів, глибину черги, кількість відхилених входів і середню та максимальну затримку")
+    @GetMapping("/statistics/login-pool")
+    public ResponseEntity<?> getLoginPoolStats(
+            @Parameter(description = "JWT токен адміністратора", required = true)
+            @RequestHeader(value = "Authorization") String authHeader) {
+
+        if(!validateAdminToken(authHeader)) {
+            return ResponseEntity.status(401).body("Unauthorized: Admin access required");
+        }
+        return ResponseEntity.ok(loginExecutor.getStats());
+    }
 }
- 
\ No newline at end of file
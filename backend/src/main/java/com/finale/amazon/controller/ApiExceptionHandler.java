@@ -0,0 +1,17 @@
+package com.finale.amazon.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.finale.amazon.security.InvalidTokenException;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Thrown when a handler takes an AuthenticatedUser and the request has no valid token
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<String> handleInvalidToken(InvalidTokenException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+}
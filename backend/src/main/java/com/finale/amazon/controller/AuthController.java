@@ -3,8 +3,14 @@ package com.finale.amazon.controller;
 import java.util.Optional;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -12,6 +18,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import com.finale.amazon.config.WebConfig;
 import com.finale.amazon.dto.UserDto;
 import com.finale.amazon.dto.UserLoginRequestDto;
 import com.finale.amazon.dto.UserRegistrationDto;
@@ -19,6 +26,8 @@ import com.finale.amazon.dto.UserRequestDto;
 import com.finale.amazon.entity.User;
 import com.finale.amazon.repository.UserRepository;
 import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.service.GuestCartService;
+import com.finale.amazon.service.LoginExecutor;
 import com.finale.amazon.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,7 +41,7 @@ import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/auth")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "${app.frontend.url}", allowCredentials = "true")
 @Tag(name = "Auth Controller", description = "Контролер для аутентифікації та реєстрації користувачів")
 public class AuthController {
 
@@ -42,6 +51,16 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private GuestCartService guestCartService;
+
+    @Autowired
+    private LoginExecutor loginExecutor;
+
+    @Autowired
+    @Qualifier(WebConfig.LOGIN_COMPLETION_EXECUTOR)
+    private AsyncTaskExecutor loginCompletionExecutor;
+
     // @Autowired
     // private TokenRepository tokenRepository;
 
@@ -92,21 +111,45 @@ public class AuthController {
             String email = jwtUtil.extractSubject(token);
             User user = userService.getUserByEmail(email)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            user.setEmailVerified(true);
-            userRepository.save(user);
+            userService.markEmailVerified(user);
             return ResponseEntity.ok("Email verified");
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Error verifying email: " + e.getMessage());
         }
     }
 
-    @Operation(summary = "Увійти в акаунт", description = "Аутентифікує користувача за email та паролем і повертає JWT токен разом з роллю")
+    @Operation(summary = "Увійти в акаунт", description = "Аутентифікує користувача за email та паролем і повертає JWT токен разом з роллю; якщо черга входів переповнена - 503")
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@Valid @RequestBody UserLoginRequestDto user) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> login(@Valid @RequestBody UserLoginRequestDto user,
+            @CookieValue(name = GuestCartService.COOKIE_NAME, required = false) String guestCart) {
+        // Only the BCrypt check runs on the bounded login pool, so this request thread is released right away; the
+        // token and the guest cart merge, which is database work, continue on the login completion pool
         try {
-            User u = userService.authenticateUser(user.getEmail().toLowerCase(), user.getPassword())
-                    .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+            return loginExecutor.submit(() -> verify(user))
+                    .handleAsync((u, failure) -> completeLogin(u, failure, guestCart), loginCompletionExecutor);
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> busy = new HashMap<>();
+            busy.put("error", "Too many login attempts, try again shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(busy));
+        }
+    }
+
+    private User verify(UserLoginRequestDto user) {
+        return userService.authenticateUser(user.getEmail().toLowerCase(), user.getPassword())
+                .orElseThrow(() -> new RuntimeException("Invalid email or password"));
+    }
 
+    private ResponseEntity<Map<String, Object>> completeLogin(User u, Throwable failure, String guestCart) {
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", cause.getMessage());
+            return ResponseEntity.status(400).body(error);
+        }
+        try {
             if (!u.isEmailVerified()) {
                 Map<String, Object> notVerified = new HashMap<>();
                 notVerified.put("error", "Email not verified");
@@ -121,6 +164,9 @@ public class AuthController {
             response.put("username", u.getUsername());
             response.put("role", u.getRole().getName());
 
+            if (guestCart != null) {
+                return mergeGuestCart(u, guestCart, response);
+            }
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -129,6 +175,22 @@ public class AuthController {
         }
     }
 
+    // A guest cart that cannot be merged does not fail the login: the response says so and the cookie is kept,
+    // so the next login tries again
+    private ResponseEntity<Map<String, Object>> mergeGuestCart(User u, String guestCart, Map<String, Object> response) {
+        if (!"SELLER".equalsIgnoreCase(u.getRole().getName())) {
+            try {
+                guestCartService.mergeIntoUser(u.getId(), guestCart);
+            } catch (RuntimeException e) {
+                response.put("guestCartError", "Guest cart could not be merged into your cart");
+                return ResponseEntity.ok(response);
+            }
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, guestCartService.clearCookie().toString())
+                .body(response);
+    }
+
     @Operation(summary = "Зареєструвати користувача з роллю CUSTOMER")
     @PostMapping("/register/user")
     public ResponseEntity<String> registerUser(@Valid @RequestBody UserRegistrationDto userDto,
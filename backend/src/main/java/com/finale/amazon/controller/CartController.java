@@ -1,25 +1,31 @@
 package com.finale.amazon.controller;
 
+import com.finale.amazon.dto.CartCheckoutRequestDto;
+import com.finale.amazon.dto.CartCheckoutResultDto;
 import com.finale.amazon.dto.CartItemDto;
 import com.finale.amazon.dto.CartItemResponseDto;
-import com.finale.amazon.entity.CartItem;
-import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.dto.CartTotalsDto;
+import com.finale.amazon.dto.CartViewDto;
+import com.finale.amazon.security.AuthenticatedUser;
 import com.finale.amazon.service.CartService;
+import com.finale.amazon.service.GuestCartService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cart")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "${app.frontend.url}", allowCredentials = "true")
 @Tag(name = "Cart Controller", description = "Контролер для роботи з кошиком користувача")
 public class CartController {
 
@@ -27,39 +33,53 @@ public class CartController {
     private CartService cartService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private GuestCartService guestCartService;
 
     @Operation(summary = "Отримати товари з кошика користувача", description = "Повертає всі товари, які користувач додав у кошик")
     @GetMapping("")
-    public ResponseEntity<List<CartItemResponseDto>> getCartItemsByUser(@RequestParam String token) {
-        List<CartItem> items = cartService.getCartItemsByUserId(jwtUtil.extractUserId(token));
-        List<CartItemResponseDto> dtos = items.stream()
-                                     .map(CartItemResponseDto::new)
-                                     .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<List<CartItemResponseDto>> getCartItemsByUser(AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.getCartItems(user.id()));
+    }
+
+    @Operation(summary = "Отримати кошик з актуальними цінами та наявністю", description = "Повертає рядки кошика з основним зображенням, поточною ціною, наявністю та підсумками, розрахованими на сервері")
+    @GetMapping("/view")
+    public ResponseEntity<CartViewDto> getCartView(AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.getCartView(user.id()));
+    }
+
+    @Operation(summary = "Отримати підсумки кошика", description = "Кількість товарів і сума кошика; значення кешуються до зміни кошика або цін і наявності товарів у ньому")
+    @GetMapping("/totals")
+    public ResponseEntity<CartTotalsDto> getCartTotals(AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.getCartTotals(user.id()));
     }
 
     @Operation(summary = "Додати товар до кошика або оновити кількість")
     @PostMapping("/add")
-    public ResponseEntity<?> addCartItem(@RequestParam String token, @RequestBody CartItemDto cartItemDto) {
-        if (jwtUtil.isTokenExpired(token)) {
-            return ResponseEntity.status(400).body("Token is expired");
+    public ResponseEntity<?> addCartItem(AuthenticatedUser user, @RequestBody CartItemDto cartItemDto) {
+        if (user.hasRole("SELLER")) {
+            return ResponseEntity.status(403).body("Sellers are not allowed to add items to the cart");
         }
 
-        String role = jwtUtil.extractRole(token);
-        if ("SELLER".equalsIgnoreCase(role)) {
+        cartService.Add(user.id(), cartItemDto);
+        return ResponseEntity.ok("Successfully added to cart");
+    }
+
+    @Operation(summary = "Додати кілька товарів до кошика одним запитом", description = "Кількості однакових товарів сумуються; якщо хоча б один товар не знайдено, кошик не змінюється")
+    @PostMapping("/add-many")
+    public ResponseEntity<?> addCartItems(AuthenticatedUser user, @RequestBody List<CartItemDto> cartItemDtos) {
+        if (user.hasRole("SELLER")) {
             return ResponseEntity.status(403).body("Sellers are not allowed to add items to the cart");
         }
 
-        cartService.Add(jwtUtil.extractUserId(token), cartItemDto);
+        cartService.addAll(user.id(), cartItemDtos);
         return ResponseEntity.ok("Successfully added to cart");
     }
 
     @Operation(summary = "Видалити конкретний товар з кошика користувача")
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCartItem(@RequestParam String token, @PathVariable Long id ) {
+    public ResponseEntity<?> deleteCartItem(AuthenticatedUser user, @PathVariable Long id ) {
         try {
-            cartService.removeCartItem(jwtUtil.extractUserId(token), id);
+            cartService.removeCartItem(user.id(), id);
             return ResponseEntity.noContent().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -68,8 +88,60 @@ public class CartController {
 
     @Operation(summary = "Очистити кошик користувача")
     @DeleteMapping("/clear")
-    public ResponseEntity<Void> clearCart(@RequestParam String token) {
-        cartService.clearCart(jwtUtil.extractUserId(token));
+    public ResponseEntity<Void> clearCart(AuthenticatedUser user) {
+        cartService.clearCart(user.id());
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Оформити замовлення з кошика", description = "Перетворює кошик на замовлення однією транзакцією. Якщо ціни змінились відносно expectedPrices і acceptPriceChanges не встановлено, повертає 409 зі списком розбіжностей")
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(AuthenticatedUser user,
+            @RequestBody(required = false) CartCheckoutRequestDto request) {
+        if (user.hasRole("SELLER")) {
+            return ResponseEntity.status(403).body("Sellers are not allowed to place orders");
+        }
+        try {
+            CartCheckoutResultDto result = cartService.checkout(user.id(), request);
+            return result.getOrder() == null ? ResponseEntity.status(409).body(result) : ResponseEntity.ok(result);
+        } catch (ResponseStatusException ex) {
+            return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
+        }
+    }
+
+    @Operation(summary = "Отримати кошик гостя", description = "Кошик неавторизованого користувача зберігається у підписаному cookie і не записується в базу даних")
+    @GetMapping("/guest")
+    public ResponseEntity<List<CartItemResponseDto>> getGuestCart(
+            @CookieValue(name = GuestCartService.COOKIE_NAME, required = false) String guestCart) {
+        return ResponseEntity.ok(guestCartService.view(guestCartService.decode(guestCart)));
+    }
+
+    @Operation(summary = "Додати товар до кошика гостя")
+    @PostMapping("/guest/add")
+    public ResponseEntity<List<CartItemResponseDto>> addGuestCartItem(
+            @CookieValue(name = GuestCartService.COOKIE_NAME, required = false) String guestCart,
+            @RequestBody CartItemDto cartItemDto) {
+        Map<Long, Integer> cart = guestCartService.add(guestCart, cartItemDto);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, guestCartService.cookie(cart).toString())
+                .body(guestCartService.view(cart));
+    }
+
+    @Operation(summary = "Видалити товар з кошика гостя")
+    @DeleteMapping("/guest/{productId}")
+    public ResponseEntity<List<CartItemResponseDto>> deleteGuestCartItem(
+            @CookieValue(name = GuestCartService.COOKIE_NAME, required = false) String guestCart,
+            @PathVariable Long productId) {
+        Map<Long, Integer> cart = guestCartService.remove(guestCart, productId);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, guestCartService.cookie(cart).toString())
+                .body(guestCartService.view(cart));
+    }
+
+    @Operation(summary = "Очистити кошик гостя")
+    @DeleteMapping("/guest/clear")
+    public ResponseEntity<Void> clearGuestCart() {
+        return ResponseEntity.noContent()
+                .header(HttpHeaders.SET_COOKIE, guestCartService.clearCookie().toString())
+                .build();
+    }
 }
@@ -1,18 +1,26 @@
 package com.finale.amazon.controller;
 
+import com.finale.amazon.dto.ChatEventDto;
+import com.finale.amazon.dto.ConversationSummaryDto;
 import com.finale.amazon.dto.EditMessageRequest;
 import com.finale.amazon.dto.MessageDto;
+import com.finale.amazon.dto.PresenceDto;
 import com.finale.amazon.dto.SendMessageRequest;
 import com.finale.amazon.dto.UserDto;
+import com.finale.amazon.service.ChatSearchService;
 import com.finale.amazon.service.ChatService;
-import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.service.PresenceService;
+import com.finale.amazon.security.AuthenticatedUser;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,9 +38,11 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
     @Autowired
-    private JwtUtil jwtUtil;
+    private ChatSearchService chatSearchService;
+    @Autowired
+    private PresenceService presenceService;
 
-    @Operation(summary = "Позначити повідомлення прочитаним", description = "Оновлює статус повідомлення на 'прочитане'")
+    @Operation(summary = "Позначити повідомлення прочитаним", description = "Позначає прочитаним це повідомлення та всі попередні в розмові")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Повідомлення позначене як прочитане"),
             @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний"),
@@ -41,18 +51,32 @@ public class ChatController {
     })
     @PutMapping("/read/{messageId}")
     public ResponseEntity<MessageDto> markMessageAsRead(
-            @RequestParam String token,
+            AuthenticatedUser user,
             @PathVariable Long messageId) {
 
-        if (jwtUtil.isTokenExpired(token))
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token expired");
-
-        Long userId = jwtUtil.extractUserId(token);
+        Long userId = user.id();
         MessageDto updatedMessage = chatService.markMessageAsRead(messageId, userId);
         return ResponseEntity.ok(updatedMessage);
     }
 
 
+    @Operation(summary = "Позначити розмову прочитаною", description = "Позначає прочитаними всі повідомлення розмови до вказаного (або до останнього) одним оновленням")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Розмову позначено прочитаною"),
+            @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний"),
+            @ApiResponse(responseCode = "403", description = "Користувач не є учасником розмови"),
+            @ApiResponse(responseCode = "404", description = "Розмову не знайдено")
+    })
+    @PutMapping("/conversations/{conversationId}/read")
+    public ResponseEntity<ChatEventDto> markConversationRead(
+            AuthenticatedUser user,
+            @Parameter(description = "ID розмови") @PathVariable Long conversationId,
+            @Parameter(description = "ID повідомлення, до якого включно все прочитано (без нього - до останнього)") @RequestParam(required = false) Long upTo) {
+
+        Long userId = user.id();
+        return ResponseEntity.ok(chatService.markConversationRead(conversationId, userId, upTo));
+    }
+
     @Operation(summary = "Відправити повідомлення", description = "Створює нове повідомлення від поточного користувача до іншого користувача")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Повідомлення успішно відправлено"),
@@ -61,19 +85,19 @@ public class ChatController {
             @ApiResponse(responseCode = "404", description = "Отримувач не знайдений")
     })
     @PostMapping("/send")
-    public ResponseEntity<MessageDto> sendMessage(
-            @RequestParam String token,
+    public ResponseEntity<?> sendMessage(
+            AuthenticatedUser user,
             @RequestBody SendMessageRequest request) {
 
-        if (jwtUtil.isTokenExpired(token))
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token expired");
-
-        Long senderId = jwtUtil.extractUserId(token);
+        Long senderId = user.id();
         if (senderId.equals(request.getReceiverId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot send message to yourself");
         }
-        MessageDto sentMessage = chatService.sendMessage(senderId, request.getReceiverId(), request.getContent());
-        return ResponseEntity.ok(sentMessage);
+        try {
+            return ResponseEntity.ok(chatService.sendMessage(senderId, request.getReceiverId(), request.getContent()));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
     }
 
 
@@ -85,13 +109,13 @@ public class ChatController {
             @ApiResponse(responseCode = "404", description = "Повідомлення не знайдено")
     })
    @PutMapping("/edit/{messageId}")
-    public ResponseEntity<MessageDto> editMessage(@RequestParam String token,@PathVariable Long messageId,@RequestBody EditMessageRequest request) {
-        if (jwtUtil.isTokenExpired(token))
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token expired");
-
-        Long userId = jwtUtil.extractUserId(token);
-        MessageDto updatedMessage = chatService.editMessage(messageId, userId, request.getContent());
-        return ResponseEntity.ok(updatedMessage);
+    public ResponseEntity<?> editMessage(AuthenticatedUser user,@PathVariable Long messageId,@RequestBody EditMessageRequest request) {
+        Long userId = user.id();
+        try {
+            return ResponseEntity.ok(chatService.editMessage(messageId, userId, request.getContent()));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
     }
 
 
@@ -104,31 +128,32 @@ public class ChatController {
     })
     @DeleteMapping("/delete/{messageId}")
     public ResponseEntity<String> deleteMessage(
-            @RequestParam String token,
+            AuthenticatedUser user,
             @Parameter(description = "ID повідомлення") @PathVariable Long messageId) {
 
-        if (jwtUtil.isTokenExpired(token))
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token expired");
-
-        Long userId = jwtUtil.extractUserId(token);
+        Long userId = user.id();
         chatService.deleteMessage(messageId, userId);
         return ResponseEntity.ok("Message deleted successfully");
     }
 
-    @Operation(summary = "Отримати повідомлення між двома користувачами", description = "Повертає список повідомлень між поточним користувачем та іншим користувачем")
+    @Operation(summary = "Отримати повідомлення між двома користувачами", description = "Повертає сторінку повідомлень між поточним користувачем та іншим користувачем (від старіших до новіших): останні або ті, що передують повідомленню з id before і createdAt beforeAt")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Повідомлення отримано"),
             @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний")
     })
     @GetMapping("/between/{userId}")
-    public ResponseEntity<List<MessageDto>> getMessagesWithUser(
-            @RequestParam String token,
-            @Parameter(description = "ID іншого користувача") @PathVariable Long userId) {
-
-        if (jwtUtil.isTokenExpired(token)) return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-
-        Long currentUserId = jwtUtil.extractUserId(token);
-        List<MessageDto> messages = chatService.getMessagesBetweenUsers(currentUserId, userId);
+    public ResponseEntity<?> getMessagesWithUser(
+            AuthenticatedUser user,
+            @Parameter(description = "ID іншого користувача") @PathVariable Long userId,
+            @Parameter(description = "ID найстарішого завантаженого повідомлення") @RequestParam(required = false) Long before,
+            @Parameter(description = "createdAt цього ж повідомлення") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeAt,
+            @Parameter(description = "Кількість повідомлень") @RequestParam(defaultValue = "50") int limit) {
+
+        if ((before == null) != (beforeAt == null)) {
+            return ResponseEntity.badRequest().body("before and beforeAt must be given together");
+        }
+        Long currentUserId = user.id();
+        List<MessageDto> messages = chatService.getMessagesBetweenUsers(currentUserId, userId, beforeAt, before, limit);
         return ResponseEntity.ok(messages);
     }
 
@@ -139,28 +164,72 @@ public class ChatController {
     })
     @GetMapping("/all")
     public ResponseEntity<List<MessageDto>> getAllMessages(
-            @RequestParam String token) {
-
-        if (jwtUtil.isTokenExpired(token)) return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            AuthenticatedUser user) {
 
-        Long currentUserId = jwtUtil.extractUserId(token);
+        Long currentUserId = user.id();
         List<MessageDto> messages = chatService.getAllMessagesForUser(currentUserId);
         return ResponseEntity.ok(messages);
     }
 
+    @Operation(summary = "Отримати розмови користувача", description = "Повертає розмови поточного користувача від найновіших: співрозмовник, останнє повідомлення та кількість непрочитаних")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Розмови отримано"),
+            @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний")
+    })
+    @GetMapping("/conversations")
+    public ResponseEntity<List<ConversationSummaryDto>> getConversations(
+            AuthenticatedUser user,
+            @Parameter(description = "ID розмови, після якої продовжити список") @RequestParam(required = false) Long before,
+            @Parameter(description = "Кількість розмов") @RequestParam(defaultValue = "30") int limit) {
+
+        Long currentUserId = user.id();
+        return ResponseEntity.ok(chatService.getConversations(currentUserId, before, limit));
+    }
+
+    @Operation(summary = "Пошук у повідомленнях", description = "Повнотекстовий пошук у розмовах поточного користувача, від найновіших збігів; збіги в тексті позначені тегом <mark>")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Результати пошуку отримано"),
+            @ApiResponse(responseCode = "400", description = "Токен протермінований або порожній запит")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(
+            AuthenticatedUser user,
+            @Parameter(description = "Пошуковий запит") @RequestParam String q,
+            @Parameter(description = "ID останнього отриманого результату") @RequestParam(required = false) Long before,
+            @Parameter(description = "createdAt цього ж результату") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeAt,
+            @Parameter(description = "Кількість результатів") @RequestParam(defaultValue = "20") int limit) {
+
+        if ((before == null) != (beforeAt == null)) {
+            return ResponseEntity.badRequest().body("before and beforeAt must be given together");
+        }
+        Long currentUserId = user.id();
+        return ResponseEntity.ok(chatSearchService.search(currentUserId, q, beforeAt, before, limit));
+    }
+
+    @Operation(summary = "Отримати статус чат-партнерів", description = "Повертає для чат-партнерів поточного користувача (або лише вказаних) чи вони онлайн і коли їх бачили востаннє")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статуси отримано"),
+            @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний")
+    })
+    @GetMapping("/presence")
+    public ResponseEntity<List<PresenceDto>> getPresence(
+            AuthenticatedUser user,
+            @Parameter(description = "ID користувачів зі списку чатів (без них - усі чат-партнери)") @RequestParam(required = false) List<Long> userIds) {
+
+        Long currentUserId = user.id();
+        return ResponseEntity.ok(presenceService.getPartnersPresence(currentUserId,
+                userIds != null ? new HashSet<>(userIds) : null));
+    }
+
     @Operation(summary = "Отримати всіх чат-партнерів користувача", 
-           description = "Повертає список всіх користувачів, з якими спілкувався поточний користувач")
+           description = "Повертає список всіх користувачів, з якими спілкувався поточний користувач, від останньої розмови")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список чат-партнерів успішно отримано"),
             @ApiResponse(responseCode = "400", description = "Токен протермінований або некоректний")
     })
     @GetMapping("/users")
-    public ResponseEntity<List<UserDto>> getChatUsers(@RequestParam String token) {
-        if (jwtUtil.isTokenExpired(token)) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-        }
-
-        Long currentUserId = jwtUtil.extractUserId(token);
+    public ResponseEntity<List<UserDto>> getChatUsers(AuthenticatedUser user) {
+        Long currentUserId = user.id();
         List<UserDto> chatUsers = chatService.getChatUsersForUser(currentUserId);
 
         return ResponseEntity.ok(chatUsers);
@@ -11,7 +11,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.security.AuthenticatedUser;
 import com.finale.amazon.service.FavouriteService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,19 +23,16 @@ public class FavouriteController {
     @Autowired
     private FavouriteService favouriteService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @Operation(summary = "Отримати всі товари користувача", description = "Повертає список всіх товарів, доданих користувачем у обране")
     @GetMapping("/")
-    public ResponseEntity<?> getAllByUser(@RequestParam String token){
-        return ResponseEntity.ok(favouriteService.getByUser(jwtUtil.extractUserId(token)));
+    public ResponseEntity<?> getAllByUser(AuthenticatedUser user){
+        return ResponseEntity.ok(favouriteService.getByUser(user.id()));
     }
 
     @Operation(summary = "Отримати всі товари користувача", description = "Повертає список всіх товарів, доданих користувачем у обране")
     @GetMapping("/ids/")
-    public ResponseEntity<?> getIdsByUser(@RequestParam String token){
-        return ResponseEntity.ok(favouriteService.getIdsByUser(jwtUtil.extractUserId(token)));
+    public ResponseEntity<?> getIdsByUser(AuthenticatedUser user){
+        return ResponseEntity.ok(favouriteService.getIdsByUser(user.id()));
     }
 
     @PostMapping("/add")
@@ -43,22 +40,18 @@ public class FavouriteController {
         summary = "Add favourite item",
         description = "Returns the id of the created favourite item"
     )
-    public ResponseEntity<?> add(@RequestParam String token, @RequestParam Long productId){
-        if (jwtUtil.isTokenExpired(token)) {
-            return ResponseEntity.status(400).body("Token is expired");
-        }
-
-        if ("SELLER".equalsIgnoreCase(jwtUtil.extractRole(token))) {
+    public ResponseEntity<?> add(AuthenticatedUser user, @RequestParam Long productId){
+        if ("SELLER".equalsIgnoreCase(user.role())) {
             return ResponseEntity.status(403).body("Sellers are not allowed to add favourites");
         }
 
-        return ResponseEntity.ok(favouriteService.Add(jwtUtil.extractUserId(token), productId));
+        return ResponseEntity.ok(favouriteService.Add(user.id(), productId));
     }
 
     @Operation(summary = "Видалити товар з обраного", description = "Видаляє товар із списку обраного користувача за його ID")
     @DeleteMapping("/delete/{favouriteId}")
-    public ResponseEntity<?> delete(@PathVariable Long favouriteId, @RequestParam String token){
-        favouriteService.delete(jwtUtil.extractUserId(token), favouriteId);
+    public ResponseEntity<?> delete(@PathVariable Long favouriteId, AuthenticatedUser user){
+        favouriteService.delete(user.id(), favouriteId);
         return ResponseEntity.ok("Deleted successfully");
     }
 
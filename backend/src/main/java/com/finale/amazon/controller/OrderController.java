@@ -1,12 +1,12 @@
 package com.finale.amazon.controller;
 
+import com.finale.amazon.dto.BulkOrderStatusRequestDto;
 import com.finale.amazon.dto.OrderCreationDto;
 import com.finale.amazon.dto.OrderDto;
+import com.finale.amazon.dto.OrderStatusTransitionDto;
 import com.finale.amazon.entity.Order;
-import com.finale.amazon.entity.User;
-import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.security.AuthenticatedUser;
 import com.finale.amazon.service.OrderService;
-import com.finale.amazon.service.UserService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,60 +29,42 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    @Autowired
-    private UserService userService;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @Operation(summary = "Отримати замовлення продавця", description = "Повертає список всіх замовлень для поточного продавця")
     @GetMapping("/seller/orders")
-    public ResponseEntity<?> getOrdersBySeller(@RequestParam String token) {
-        if (jwtUtil.isTokenExpired(token)) {
-                return ResponseEntity.status(400).body("Token expired");
-            }
-        User seller  = userService.getUserById(jwtUtil.extractUserId(token));
-        List<Order> orders = orderService.getOrdersBySeller(seller);
-
-        return ResponseEntity.ok(orders.stream().map(OrderDto::new).collect(Collectors.toList()));
+    public ResponseEntity<?> getOrdersBySeller(AuthenticatedUser user) {
+        return ResponseEntity.ok(orderService.getOrdersBySeller(user.id()));
     }
 
-    @Operation(summary = "Отримати замовлення користувача", description = "Повертає всі замовлення поточного користувача")
+    @Operation(summary = "Отримати замовлення користувача", description = "Повертає всі замовлення поточного користувача, включно з архівними")
     @GetMapping("/all")
-    public ResponseEntity<?> getOrdersByUser(@RequestParam String token) {
-        if (jwtUtil.isTokenExpired(token)) {
-                return ResponseEntity.status(400).body("Token expired");
-            }
-        User seller = userService.getUserById(jwtUtil.extractUserId(token));
-        //System.out.println(optionalSeller.get().getEmail());
-        List<Order> orders = orderService.getOrdersByUser(seller);
+    public ResponseEntity<?> getOrdersByUser(AuthenticatedUser user) {
+        List<OrderDto> orders = orderService.getOrderHistoryByUser(user.id());
 
         if (orders.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(orders.stream().map(OrderDto::new).collect(Collectors.toList()));
+        return ResponseEntity.ok(orders);
     }
 
     @Operation(summary = "Отримати замовлення за ID", description = "Повертає замовлення за його унікальним ID")
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(
+    public ResponseEntity<OrderDto> getOrderById(
             @Parameter(description = "ID замовлення") @PathVariable Long orderId) {
 
-        Optional<Order> orderOpt = orderService.getOrderById(orderId);
+        Optional<OrderDto> orderOpt = orderService.getOrderDtoById(orderId);
         return orderOpt.map(ResponseEntity::ok)
                        .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Створити замовлення", description = "Створює нове замовлення для користувача")
     @PutMapping("/create")
-    public ResponseEntity<?> CreateOrder(@RequestParam String token, @RequestBody OrderCreationDto order){
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        String role = jwtUtil.extractRole(token);
+    public ResponseEntity<?> CreateOrder(AuthenticatedUser user, @RequestBody OrderCreationDto order){
+        String role = user.role();
         if ("SELLER".equalsIgnoreCase(role)) {
             return ResponseEntity.status(403).body("Sellers are not allowed to place orders");
         }
         try{
-            Order o = orderService.creatOrder(order, jwtUtil.extractUserId(token));
+            Order o = orderService.creatOrder(order, user.id());
             return ResponseEntity.ok(new OrderDto(o));
         }
         catch(Exception ex){
@@ -93,43 +75,55 @@ public class OrderController {
 
     @Operation(summary = "Обробити замовлення", description = "Змінює статус замовлення на PROCESSING (тільки для ADMIN)")
     @PutMapping("/status/process")
-    public ResponseEntity<?> ProccesOrder(@RequestParam String token,@RequestParam Long orderId){
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(403).body("Token is expired");
-        if (!"ADMIN".equals(jwtUtil.extractRole(token))) return ResponseEntity.status(403).body("You are not authorized to change order status!");
+    public ResponseEntity<?> ProccesOrder(AuthenticatedUser user,@RequestParam Long orderId){
+        if (!"ADMIN".equals(user.role())) return ResponseEntity.status(403).body("You are not authorized to change order status!");
         return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, "PROCESSING")));
     }
 
     @Operation(summary = "Відправити замовлення", description = "Змінює статус замовлення на SHIPPED (тільки для ADMIN)")
     @PutMapping("/status/ship")
-    public ResponseEntity<?> ShipOrder(@RequestParam String token,@RequestParam Long orderId){
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        if(!"ADMIN".equalsIgnoreCase(jwtUtil.extractRole(token))) return ResponseEntity.status(403).body("You are not authorized to change order status!");
+    public ResponseEntity<?> ShipOrder(AuthenticatedUser user,@RequestParam Long orderId){
+        if(!"ADMIN".equalsIgnoreCase(user.role())) return ResponseEntity.status(403).body("You are not authorized to change order status!");
         return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, "SHIPPED")));
     }
 
     @Operation(summary = "Доставити замовлення", description = "Змінює статус замовлення на DELIVERED (тільки для ADMIN)")
     @PutMapping("/status/deliver")
-    public ResponseEntity<?> DeliverOrder(@RequestParam String token,@RequestParam Long orderId){
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        if(!"ADMIN".equalsIgnoreCase(jwtUtil.extractRole(token))) return ResponseEntity.status(403).body("You are not authorized to change order status!");
+    public ResponseEntity<?> DeliverOrder(AuthenticatedUser user,@RequestParam Long orderId){
+        if(!"ADMIN".equalsIgnoreCase(user.role())) return ResponseEntity.status(403).body("You are not authorized to change order status!");
         return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, "DELIVERED")));
     }
 
     @Operation(summary = "Скасувати замовлення", description = "Скасовує замовлення користувачем або адміністратором")
     @PutMapping("/status/cancel")
-    public ResponseEntity<?> CancelOrder(@RequestParam String token,@RequestParam Long orderId){
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        if("ADMIN".equalsIgnoreCase(jwtUtil.extractRole(token))) {
+    public ResponseEntity<?> CancelOrder(AuthenticatedUser user,@RequestParam Long orderId){
+        if("ADMIN".equalsIgnoreCase(user.role())) {
             return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, "CANCELLED")));
         }
-        return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, jwtUtil.extractUserId(token) , "CANCELLED")));
+        return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, user.id() , "CANCELLED")));
+    }
+
+    @Operation(summary = "Масово змінити статус замовлень", description = "Змінює статус списку замовлень однією транзакцією та повертає результат для кожного замовлення (ADMIN або SELLER для своїх замовлень)")
+    @PutMapping("/status/bulk")
+    public ResponseEntity<?> bulkUpdateStatus(AuthenticatedUser user, @RequestBody BulkOrderStatusRequestDto request) {
+        String role = user.role();
+        if (!"SELLER".equalsIgnoreCase(role) && !"ADMIN".equalsIgnoreCase(role))
+            return ResponseEntity.status(403).body("You are not authorized to change order status!");
+        if (request.getStatus() == null) return ResponseEntity.badRequest().body("Status is required");
+
+        Long sellerId = "SELLER".equalsIgnoreCase(role) ? user.id() : null;
+        try {
+            return ResponseEntity.ok(orderService.bulkUpdateOrderStatus(request.getOrderIds(),
+                    request.getStatus().toUpperCase(), sellerId));
+        } catch (RuntimeException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
     @Operation(summary = "Отримати активні замовлення", description = "Повертає замовлення зі статусом NEW, PROCESSING або SHIPPED")
     @GetMapping("/active")
-    public ResponseEntity<?> getActiveOrders(@RequestParam String token) {
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        String role = jwtUtil.extractRole(token);
+    public ResponseEntity<?> getActiveOrders(AuthenticatedUser user) {
+        String role = user.role();
 
         List<Order> activeOrders;
         if ("ADMIN".equalsIgnoreCase(role)) {
@@ -137,7 +131,7 @@ public class OrderController {
         } else {
             activeOrders = orderService.findByStatusNameInAndUserId(List.of(
                 "NEW", "PROCESSING", "SHIPPED"
-            ), jwtUtil.extractUserId(token));
+            ), user.id());
         }
 
         if (activeOrders.isEmpty()) {
@@ -149,48 +143,48 @@ public class OrderController {
 
     @Operation(summary = "Отримати завершені замовлення (DELIVERED, CANCELLED)")
     @GetMapping("/completed")
-    public ResponseEntity<?> getCompletedOrders(@RequestParam String token) {
-        if(jwtUtil.isTokenExpired(token)) return ResponseEntity.status(400).body("Token is expired");
-        String role = jwtUtil.extractRole(token);
+    public ResponseEntity<?> getCompletedOrders(AuthenticatedUser user) {
+        String role = user.role();
 
-        List<Order> completedOrders;
+        List<OrderDto> completedOrders;
         if ("ADMIN".equalsIgnoreCase(role)) {
-            completedOrders = orderService.getOrdersByStatusNames(List.of("DELIVERED", "CANCELLED"));
+            completedOrders = orderService.getOrdersByStatusNames(List.of("DELIVERED", "CANCELLED"))
+                    .stream().map(OrderDto::new).collect(Collectors.toList());
         } else {
-            completedOrders = orderService.findByStatusNameInAndUserId(List.of(
+            completedOrders = orderService.getOrderHistoryByStatusNamesAndUserId(List.of(
                 "DELIVERED", "CANCELLED"
-            ), jwtUtil.extractUserId(token));
+            ), user.id());
         }
 
         if (completedOrders.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        return ResponseEntity.ok(completedOrders.stream().map(OrderDto::new).collect(Collectors.toList()));
+        return ResponseEntity.ok(completedOrders);
     }
 
     @Operation(summary = "Підтвердити замовлення", description = "Змінює статус замовлення на CONFIRMED (для ADMIN або SELLER)")
     @PutMapping("/status/confirm")
-    public ResponseEntity<?> confirmOrder(@RequestParam String token, @RequestParam Long orderId) {
-        if (jwtUtil.isTokenExpired(token)) 
-            return ResponseEntity.status(400).body("Token is expired");
+    public ResponseEntity<?> confirmOrder(AuthenticatedUser user, @RequestParam Long orderId) {
         
-        String role = jwtUtil.extractRole(token);
+        String role = user.role();
         if (!"SELLER".equals(role) && !"ADMIN".equals(role)) 
             return ResponseEntity.status(403).body("You are not authorized to change order status!");
-        
+
+        if ("SELLER".equals(role)) {
+            Long sellerId = user.id();
+            OrderStatusTransitionDto result = orderService
+                    .bulkUpdateOrderStatus(List.of(orderId), "CONFIRMED", sellerId).get(0);
+            if (!result.isApplied()) return ResponseEntity.badRequest().body(result.getError());
+            return ResponseEntity.ok(orderService.getSellerOrderDto(orderId, sellerId));
+        }
         return ResponseEntity.ok(new OrderDto(orderService.updateOrderStatus(orderId, "CONFIRMED")));
     }
 
     @Operation(summary = "Редагувати замовлення", description = "Оновлює дані замовлення за його ID")
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateOrder(@RequestParam String token,@PathVariable Long id,@RequestBody OrderDto orderDto) {
-
-        if (jwtUtil.isTokenExpired(token)) {
-            return ResponseEntity.status(400).body("Token is expired");
-        }
-
-        String role = jwtUtil.extractRole(token);
+    public ResponseEntity<?> updateOrder(AuthenticatedUser user,@PathVariable Long id,@RequestBody OrderDto orderDto) {
+        String role = user.role();
         if (!"ADMIN".equals(role) && !"SELLER".equals(role)) {
             return ResponseEntity.status(403).body("You are not authorized to edit this order!");
         }
@@ -202,12 +196,8 @@ public class OrderController {
    @Operation(
     summary = "Отримати всі незавершені замовлення (тільки для ADMIN)", description = "Повертає всі замовлення у статусах NEW, PROCESSING або SHIPPED")
     @GetMapping("/not-completed")
-    public ResponseEntity<?> getNotCompletedOrders(@RequestParam String token) {
-        if (jwtUtil.isTokenExpired(token)) {
-            return ResponseEntity.status(400).body("Token is expired");
-        }
-
-        String role = jwtUtil.extractRole(token);
+    public ResponseEntity<?> getNotCompletedOrders(AuthenticatedUser user) {
+        String role = user.role();
         if (!"ADMIN".equals(role)) {
             return ResponseEntity.status(403).body("You are not authorized to view this resource!");
         }
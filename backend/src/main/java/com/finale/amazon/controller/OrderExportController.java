@@ -0,0 +1,80 @@
+package com.finale.amazon.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.finale.amazon.security.AuthenticatedUser;
+import com.finale.amazon.service.OrderExportService;
+import com.finale.amazon.service.OrderExportService.Format;
+import com.finale.amazon.service.OrderExportService.Scope;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/orders/export")
+@CrossOrigin(origins = "*")
+@Tag(name = "Order export", description = "Вивантаження історії замовлень у CSV або JSON")
+public class OrderExportController {
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    // Exports stream for as long as the client keeps reading, so only they get a long async timeout
+    @Value("${orders.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    @Operation(summary = "Вивантажити замовлення", description = "Потоково повертає рядки замовлень у CSV або JSON зі стисненням gzip. Покупець отримує свої замовлення, продавець - позиції зі своїми товарами, ADMIN - усі замовлення (можна відфільтрувати за статусами); якщо одночасно виконується забагато вивантажень - 503")
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportOrders(AuthenticatedUser user,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> status,
+            @Parameter(hidden = true) HttpServletRequest request) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported format: " + format);
+        }
+
+        Long userId = user.id();
+        Scope scope = user.hasRole("ADMIN") ? Scope.ALL : user.hasRole("SELLER") ? Scope.SELLER : Scope.USER;
+        List<String> statusNames = status == null ? null
+                : status.stream().map(String::toUpperCase).toList();
+
+        if (!orderExportService.tryStart()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running, try again later");
+        }
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+
+        StreamingResponseBody body = out -> {
+            try {
+                orderExportService.export(scope, userId, statusNames, exportFormat, out);
+            } finally {
+                orderExportService.finish();
+            }
+        };
+        String fileName = exportFormat == Format.JSON ? "orders.json" : "orders.csv";
+        return ResponseEntity.ok()
+                .contentType(exportFormat == Format.JSON ? MediaType.APPLICATION_JSON : MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
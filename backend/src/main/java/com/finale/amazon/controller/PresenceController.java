@@ -0,0 +1,29 @@
+package com.finale.amazon.controller;
+
+import java.security.Principal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import com.finale.amazon.service.PresenceService;
+
+// STOMP frames sent to /app/...; the principal is the user id bound on CONNECT
+@Controller
+public class PresenceController {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @MessageMapping("/presence.heartbeat")
+    public void heartbeat(Principal principal, @Header("simpSessionId") String sessionId) {
+        presenceService.heartbeat(Long.valueOf(principal.getName()), sessionId);
+    }
+
+    @MessageMapping("/conversations/{conversationId}/typing")
+    public void typing(Principal principal, @DestinationVariable Long conversationId) {
+        presenceService.typing(Long.valueOf(principal.getName()), conversationId);
+    }
+}
@@ -4,6 +4,8 @@ import com.finale.amazon.dto.ProductCreationDto;
 import com.finale.amazon.dto.ProductDto;
 import com.finale.amazon.dto.ProductFilterDto;
 import com.finale.amazon.entity.Product;
+import com.finale.amazon.security.JwtUtil;
+import com.finale.amazon.service.FavouriteService;
 import com.finale.amazon.service.ProductService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +21,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -30,18 +33,49 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
-    // Отримати сторінку продуктів (нумерація з 0)
+    @Autowired
+    private FavouriteService favouriteService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    // Listings are public; a valid token only adds the isFavourite flag to the cards
+    private Long viewerId(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return jwtUtil.isTokenExpired(token) ? null : jwtUtil.extractUserId(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Отримати сторінку продуктів (нумерація з 0); сортування також за favouriteCount, напр. ?sort=favouriteCount,desc
     @PostMapping("page/{page}")
     public ResponseEntity<Page<ProductDto>> getProductsPage(Pageable pageable,
-            @RequestBody(required = false) ProductFilterDto productFilterDto) {
+            @RequestBody(required = false) ProductFilterDto productFilterDto,
+            @RequestParam(required = false) String token) {
         Page<ProductDto> productsPage = productService.getProductsPage(
                 pageable, productFilterDto.getName(), productFilterDto.getCategoryId(),
                 productFilterDto.getSubcategoryId(), productFilterDto.getLowerPriceBound(),
                 productFilterDto.getUpperPriceBound(), productFilterDto.getSellerIds(),
                 productFilterDto.getSlugs(), productFilterDto.getCharacteristics());
+        favouriteService.markFavourites(viewerId(token), productsPage.getContent());
         return ResponseEntity.ok(productsPage);
     }
 
+    @Operation(summary = "Найбажаніші товари тижня", description = "Повертає товари, які найчастіше додавали в обране за останні 7 днів, за категорією або загалом")
+    @GetMapping("/most-wished")
+    public ResponseEntity<List<ProductDto>> getMostWished(
+            @Parameter(description = "ID категорії (без нього - усі категорії)") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Кількість товарів") @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String token) {
+        List<ProductDto> products = productService.getMostWished(categoryId, Math.max(limit, 0));
+        favouriteService.markFavourites(viewerId(token), products);
+        return ResponseEntity.ok(products);
+    }
+
     @Operation(summary = "Створити продукт", description = "Створює новий продукт для певного продавця")
     @PostMapping("/create/{sellerId}")
     public ResponseEntity<ProductDto> createProduct(
@@ -55,19 +89,21 @@ public class ProductController {
     @Operation(summary = "Отримати продукт за slug", description = "Повертає продукт за його slug")
     @GetMapping("/{slug:.+}")
     public ResponseEntity<ProductDto> getProductBySlug(
-            @Parameter(description = "Slug продукту") @PathVariable String slug) {
+            @Parameter(description = "Slug продукту") @PathVariable String slug,
+            @RequestParam(required = false) String token) {
         Optional<Product> productOpt = productService.getProductBySlug(slug);
-        return productOpt.map(product -> ResponseEntity.ok(new ProductDto(product)))
+        return productOpt.map(product -> ResponseEntity.ok(withFavourite(new ProductDto(product), token)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @Operation(summary = "Отримати продукт за ID", description = "Повертає продукт за його унікальним ID")
     @GetMapping("/id/{id}")
     public ResponseEntity<ProductDto> getProduct(
-            @Parameter(description = "ID продукту") @PathVariable Long id) {
+            @Parameter(description = "ID продукту") @PathVariable Long id,
+            @RequestParam(required = false) String token) {
 
         Optional<Product> productOpt = productService.getProductById(id);
-        return productOpt.map(product -> ResponseEntity.ok(new ProductDto(product)))
+        return productOpt.map(product -> ResponseEntity.ok(withFavourite(new ProductDto(product), token)))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
@@ -103,10 +139,18 @@ public class ProductController {
     public ResponseEntity<Page<ProductDto>> getProductsByVendor(
             @Parameter(description = "ID продавця") @PathVariable Long vendorId,
             @Parameter(description = "Номер сторінки") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Розмір сторінки") @RequestParam(defaultValue = "12") int size) {
+            @Parameter(description = "Розмір сторінки") @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String token) {
+
+        Page<ProductDto> productsPage = productService.getProductsByVendor(vendorId, PageRequest.of(page, size))
+                .map(ProductDto::new);
+        favouriteService.markFavourites(viewerId(token), productsPage.getContent());
+        return ResponseEntity.ok(productsPage);
+    }
 
-        Page<Product> productsPage = productService.getProductsByVendor(vendorId, PageRequest.of(page, size));
-        return ResponseEntity.ok(productsPage.map(ProductDto::new));
+    private ProductDto withFavourite(ProductDto dto, String token) {
+        favouriteService.markFavourites(viewerId(token), List.of(dto));
+        return dto;
     }
 
 }
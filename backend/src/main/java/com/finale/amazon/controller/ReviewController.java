@@ -9,6 +9,7 @@ import com.finale.amazon.entity.Review;
 import com.finale.amazon.entity.User;
 import com.finale.amazon.security.JwtUtil;
 import com.finale.amazon.service.ReviewService;
+import com.finale.amazon.service.ReviewVoteService;
 import com.finale.amazon.service.UserService;
 import com.finale.amazon.repository.ProductRepository;
 import com.finale.amazon.repository.ReviewRepository;
@@ -20,6 +21,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
 import java.util.List;
@@ -32,6 +34,7 @@ import java.util.List;
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final ReviewVoteService reviewVoteService;
     private final UserService userService;
     private final ProductRepository productRepository;
     private final ReviewRepository reviewRepository;
@@ -103,16 +106,63 @@ public class ReviewController {
     public ResponseEntity<?> getReviewById(
             @Parameter(description = "ID відгуку") @PathVariable Long id
     ) {
-        Optional<Review> reviewOpt = reviewService.getReviewById(id);
-        return reviewOpt.map(review -> ResponseEntity.ok(new ReviewDto(review)))
-                        .orElseGet(() -> ResponseEntity.notFound().build());
+        return reviewService.getReviewThread(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Отримати всі відгуки продукту", description = "Повертає список всіх головних відгуків продукту")
+    @Operation(summary = "Отримати відгуки продукту", description = "Повертає сторінку головних відгуків продукту з кількістю відповідей і першими відповідями. Наступна сторінка - за nextCursor")
     @GetMapping("/product/{productId}")
-    public ResponseEntity<?> getAllReviewsByProduct(@PathVariable Long productId) {
-        List<ReviewDto> reviews = reviewService.getAllReviewsByProduct(productId);
-        return ResponseEntity.ok(reviews);
+    public ResponseEntity<?> getProductReviews(
+            @PathVariable Long productId,
+            @Parameter(description = "Сортування: newest, stars або helpful") @RequestParam(defaultValue = ReviewService.SORT_NEWEST) String sort,
+            @Parameter(description = "Курсор з попередньої сторінки") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Розмір сторінки") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Скільки перших відповідей повернути для кожного відгуку") @RequestParam(defaultValue = "3") int replies) {
+        try {
+            return ResponseEntity.ok(reviewService.getProductFeed(productId, sort, cursor, size, replies));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @Operation(summary = "Найкорисніші відгуки продукту", description = "Повертає відгуки продукту з найбільшою кількістю голосів «корисно»")
+    @GetMapping("/product/{productId}/top")
+    public ResponseEntity<?> getTopReviews(
+            @PathVariable Long productId,
+            @Parameter(description = "Кількість відгуків") @RequestParam(defaultValue = "3") int limit) {
+        return ResponseEntity.ok(reviewVoteService.getTopReviews(productId, limit));
+    }
+
+    @Operation(summary = "Оцінити корисність відгуку", description = "Голос «корисно» або «не корисно»; повторний голос змінює попередній")
+    @PostMapping("/{id}/vote")
+    public ResponseEntity<?> voteReview(
+            @RequestParam String token,
+            @Parameter(description = "ID відгуку") @PathVariable Long id,
+            @Parameter(description = "true - корисно, false - не корисно") @RequestParam boolean helpful) {
+        if (jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(400).body("Token is expired");
+        }
+        try {
+            return ResponseEntity.ok(reviewVoteService.vote(jwtUtil.extractUserId(token), id, helpful));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @Operation(summary = "Скасувати голос за відгук", description = "Видаляє голос користувача за корисність відгуку")
+    @DeleteMapping("/{id}/vote")
+    public ResponseEntity<?> removeReviewVote(
+            @RequestParam String token,
+            @Parameter(description = "ID відгуку") @PathVariable Long id) {
+        if (jwtUtil.isTokenExpired(token)) {
+            return ResponseEntity.status(400).body("Token is expired");
+        }
+        try {
+            return ResponseEntity.ok(reviewVoteService.removeVote(jwtUtil.extractUserId(token), id));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
     }
 
     @Operation(summary = "Отримати відповіді на відгук", description = "Повертає список всіх відповідей на конкретний відгук")
@@ -2,10 +2,13 @@ package com.finale.amazon.controller;
 
 import com.finale.amazon.dto.ProductDto;
 import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.dto.SalesBucketDto;
 import com.finale.amazon.dto.SellerStatsDto;
 import com.finale.amazon.dto.UserDto;
+import com.finale.amazon.entity.ProductSalesBucket.Granularity;
 import com.finale.amazon.entity.User;
 import com.finale.amazon.service.ProductService;
+import com.finale.amazon.service.SalesRollupService;
 import com.finale.amazon.service.SellerService;
 import com.finale.amazon.service.UserService;
 
@@ -14,12 +17,14 @@ import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +50,9 @@ public class SellerController {
         @Autowired
         private ProductService productService;
 
+        @Autowired
+        private SalesRollupService salesRollupService;
+
         @Operation(summary = "Отримати профіль продавця", description = "Повертає профіль поточного користувача, якщо він має роль SELLER")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Профіль успішно отримано"),
@@ -82,18 +90,46 @@ public class SellerController {
                 return ResponseEntity.ok(sellerService.getSellerStats(seller));
         }
 
-        @Operation(summary = "Отримати відгуки продавця", description = "Повертає всі відгуки для поточного продавця")
+        @Operation(summary = "Отримати відгуки продавця", description = "Повертає сторінку відгуків на товари поточного продавця, найновіші першими, з фільтрами за оцінкою, відповіддю продавця та датою")
         @GetMapping("/profile/reviews")
-        public ResponseEntity<List<ReviewDto>> getSellersReviews(Authentication authentication) {
+        public ResponseEntity<Page<ReviewDto>> getSellersReviews(Authentication authentication,
+                        @Parameter(description = "Номер сторінки") @RequestParam(defaultValue = "0") int page,
+                        @Parameter(description = "Розмір сторінки") @RequestParam(defaultValue = "20") int size,
+                        @Parameter(description = "Оцінка") @RequestParam(required = false) Integer stars,
+                        @Parameter(description = "true - з відповіддю продавця, false - без відповіді") @RequestParam(required = false) Boolean replied,
+                        @Parameter(description = "Від дати (включно)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @Parameter(description = "До дати (включно)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+                String email = authentication.getName();
+                User seller = userService.getUserByEmail(email)
+                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                                "Seller not found"));
+
+                return ResponseEntity.ok(sellerService.getSellerReviews(seller, stars, replied, from, to, page, size));
+        }
+
+        @Operation(summary = "Отримати продажі продавця за періодами", description = "Повертає продажі, скасування та перегляди товарів продавця по днях, тижнях або місяцях")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Статистика успішно отримана"),
+                        @ApiResponse(responseCode = "400", description = "Некоректний період"),
+                        @ApiResponse(responseCode = "404", description = "Продавця не знайдено")
+        })
+        @GetMapping("/profile/sales")
+        public ResponseEntity<List<SalesBucketDto>> getSellerSales(
+                        Authentication authentication,
+                        @Parameter(description = "DAY, WEEK або MONTH") @RequestParam(defaultValue = "DAY") Granularity granularity,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                        @Parameter(description = "ID продукту (необов'язково)") @RequestParam(required = false) Long productId) {
                 String email = authentication.getName();
                 User seller = userService.getUserByEmail(email)
                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                                                 "Seller not found"));
 
-                return ResponseEntity.ok(
-                                sellerService.getSellersReviews(seller).stream()
-                                                .map(ReviewDto::new)
-                                                .toList());
+                if (from.isAfter(to)) {
+                        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+                }
+
+                return ResponseEntity.ok(salesRollupService.getSellerBuckets(seller.getId(), productId, granularity, from, to));
         }
 
         @Operation(summary = "Отримати публічний профіль продавця за slug", description = "Повертає публічний профіль продавця за унікальним slug")
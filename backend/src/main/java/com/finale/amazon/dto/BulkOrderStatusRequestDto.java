@@ -0,0 +1,15 @@
+package com.finale.amazon.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderStatusRequestDto {
+    private List<Long> orderIds;
+    private String status;
+}
@@ -0,0 +1,16 @@
+package com.finale.amazon.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartCheckoutRequestDto {
+    // productId -> unit price the shopper saw in the cart
+    private Map<Long, Double> expectedPrices;
+    private boolean acceptPriceChanges;
+}
@@ -0,0 +1,16 @@
+package com.finale.amazon.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartCheckoutResultDto {
+    // null when the checkout was stopped because of price changes
+    private OrderDto order;
+    private List<PriceMismatchDto> priceMismatches;
+}
@@ -1,5 +1,7 @@
 package com.finale.amazon.dto;
 
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,4 +21,22 @@ public class CartItemResponseDto {
         }
         this.quantity = cartItem.getQuantity();
     }
+
+    // From the cart read model: the product carries only what the cart shows of it, with the main picture
+    public CartItemResponseDto(CartLineDto line) {
+        this.id = line.getId();
+        ProductDto product = new ProductDto();
+        product.setId(line.getProductId());
+        product.setSlug(line.getSlug());
+        product.setName(line.getName());
+        product.setSellerName(line.getSellerName());
+        product.setPrice(line.getPrice());
+        product.setPriceWithoutDiscount(line.getPriceWithoutDiscount());
+        product.setQuantityInStock(line.getQuantityInStock());
+        if (line.getPictureUrl() != null) {
+            product.setPictures(List.of(new PictureDto(null, null, line.getPictureUrl(), null)));
+        }
+        this.product = product;
+        this.quantity = line.getQuantity();
+    }
 }
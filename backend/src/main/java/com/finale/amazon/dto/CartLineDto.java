@@ -0,0 +1,40 @@
+package com.finale.amazon.dto;
+
+import com.finale.amazon.repository.CartItemRepository.CartViewRow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartLineDto {
+    private Long id;
+    private Long productId;
+    private String slug;
+    private String name;
+    private String sellerName;
+    private double price;
+    private double priceWithoutDiscount;
+    private long quantityInStock;
+    private int quantity;
+    private boolean available;
+    private double lineTotal;
+    private String pictureUrl;
+
+    public CartLineDto(CartViewRow row) {
+        this.id = row.getId();
+        this.productId = row.getProductId();
+        this.slug = row.getSlug();
+        this.name = row.getName();
+        this.sellerName = row.getSellerName();
+        this.price = row.getPrice();
+        this.priceWithoutDiscount = row.getPriceWithoutDiscount();
+        this.quantityInStock = row.getQuantityInStock();
+        this.quantity = row.getQuantity();
+        this.available = row.getQuantityInStock() >= row.getQuantity();
+        this.lineTotal = row.getPrice() * row.getQuantity();
+        this.pictureUrl = row.getPicturePath() != null ? "uploads/pictures/" + row.getPicturePath() : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.finale.amazon.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartTotalsDto {
+    private int lineCount;
+    private long totalQuantity;
+    private double total;
+    private double totalWithoutDiscount;
+    private boolean allAvailable;
+
+    public CartTotalsDto(List<CartLineDto> lines) {
+        this.lineCount = lines.size();
+        this.allAvailable = true;
+        for (CartLineDto line : lines) {
+            this.totalQuantity += line.getQuantity();
+            this.total += line.getLineTotal();
+            this.totalWithoutDiscount += Math.max(line.getPriceWithoutDiscount(), line.getPrice()) * line.getQuantity();
+            this.allAvailable &= line.isAvailable();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.finale.amazon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pushed to both participants on /user/queue/chat; for DELETED the message is its last state, READ carries
+// the reader's new watermark instead of a message
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatEventDto {
+
+    public enum Type {
+        SENT, EDITED, DELETED, READ
+    }
+
+    private Type type;
+    private MessageDto message;
+    private Long conversationId;
+    private Long readerId;
+    private Long partnerId;
+    private Long lastReadMessageId;
+
+    public ChatEventDto(Type type, MessageDto message) {
+        this.type = type;
+        this.message = message;
+        this.conversationId = message.getConversationId();
+    }
+
+    public ChatEventDto(Long conversationId, Long readerId, Long partnerId, Long lastReadMessageId) {
+        this.type = Type.READ;
+        this.conversationId = conversationId;
+        this.readerId = readerId;
+        this.partnerId = partnerId;
+        this.lastReadMessageId = lastReadMessageId;
+    }
+}
@@ -0,0 +1,36 @@
+package com.finale.amazon.dto;
+
+import java.time.LocalDateTime;
+
+import com.finale.amazon.repository.ConversationSummaryRepository.InboxRow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationSummaryDto {
+    private Long conversationId;
+    private Long partnerId;
+    private String partnerUsername;
+    private String partnerName;
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private LocalDateTime lastActivityAt;
+    private long unreadCount;
+
+    public ConversationSummaryDto(InboxRow row) {
+        this.conversationId = row.getConversationId();
+        this.partnerId = row.getPartnerId();
+        this.partnerUsername = row.getPartnerUsername();
+        this.partnerName = row.getPartnerName();
+        this.lastMessageId = row.getLastMessageId();
+        this.lastSenderId = row.getLastSenderId();
+        this.lastMessagePreview = row.getLastMessagePreview();
+        this.lastActivityAt = row.getLastActivityAt();
+        this.unreadCount = row.getUnreadCount();
+    }
+}
@@ -0,0 +1,21 @@
+package com.finale.amazon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Latencies are from submission to the end of verification, so they include the time spent queued
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginPoolStatsDto {
+    private int threads;
+    private int activeThreads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    private double avgQueueWaitMs;
+    private double avgLatencyMs;
+    private long maxLatencyMs;
+}
@@ -3,6 +3,7 @@ package com.finale.amazon.dto;
 import java.time.LocalDateTime;
 
 import com.finale.amazon.entity.Message;
+import com.finale.amazon.repository.MessageRepository.MessageRow;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -14,6 +15,7 @@ import lombok.NoArgsConstructor;
 public class MessageDto {
 
     private Long id;
+    private Long conversationId;
     private Long senderId;
     private Long receiverId;
     private String content;
@@ -23,6 +25,9 @@ public class MessageDto {
 
     public MessageDto(Message message) {
         this.id = message.getId();
+        if (message.getConversation() != null) {
+            this.conversationId = message.getConversation().getId();
+        }
         if (message.getSender() != null) {
             this.senderId = message.getSender().getId();
         }
@@ -31,6 +36,17 @@ public class MessageDto {
         }
         this.content = message.getContent();
         this.createdAt = message.getCreatedAt();
-        this.read = message.isRead();
+        this.editedAt = message.getEditedAt();
+    }
+
+    public MessageDto(MessageRow row) {
+        this.id = row.getId();
+        this.conversationId = row.getConversationId();
+        this.senderId = row.getSenderId();
+        this.receiverId = row.getReceiverId();
+        this.content = row.getContent();
+        this.createdAt = row.getCreatedAt();
+        this.editedAt = row.getEditedAt();
+        this.read = row.getRead();
     }
 }
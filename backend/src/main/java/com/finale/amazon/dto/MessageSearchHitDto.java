@@ -0,0 +1,35 @@
+package com.finale.amazon.dto;
+
+import java.time.LocalDateTime;
+
+import com.finale.amazon.repository.MessageRepository.SearchHitRow;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// `highlight` is escaped message text with the matched words wrapped in <mark>
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageSearchHitDto {
+    private Long messageId;
+    private Long conversationId;
+    private Long senderId;
+    private Long receiverId;
+    private Long partnerId;
+    private String partnerUsername;
+    private LocalDateTime createdAt;
+    private String highlight;
+
+    public MessageSearchHitDto(SearchHitRow row) {
+        this.messageId = row.getId();
+        this.conversationId = row.getConversationId();
+        this.senderId = row.getSenderId();
+        this.receiverId = row.getReceiverId();
+        this.partnerId = row.getPartnerId();
+        this.partnerUsername = row.getPartnerUsername();
+        this.createdAt = row.getCreatedAt();
+        this.highlight = row.getHighlight();
+    }
+}
@@ -4,7 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.finale.amazon.entity.ArchivedOrder;
 import com.finale.amazon.entity.Order;
+import com.finale.amazon.repository.SellerOrderRepository.SellerOrderRow;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -43,4 +45,38 @@ public class OrderDto {
                     .collect(Collectors.toList());
         }
     }
-} 
\ No newline at end of file
+
+    public OrderDto(ArchivedOrder order) {
+        this.id = order.getId();
+        this.orderDate = order.getOrderDate();
+        this.arrivalDate = order.getArrivalDate();
+        this.shipmentDate = order.getShipmentDate();
+        this.totalPrice = order.getPrice();
+
+        if (order.getOrderStatus() != null) {
+            this.orderStatus = order.getOrderStatus().getName();
+        }
+
+        if (order.getUser() != null) {
+            this.userId = order.getUser().getId();
+        }
+
+        if (order.getOrderItems() != null) {
+            this.orderItems = order.getOrderItems().stream()
+                    .map(OrderItemDto::new)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // A seller sees their own part of the order under the parent order id
+    public OrderDto(SellerOrderRow row, List<OrderItemDto> orderItems) {
+        this.id = row.getOrderId();
+        this.orderDate = row.getOrderDate();
+        this.arrivalDate = row.getArrivalDate();
+        this.shipmentDate = row.getShipmentDate();
+        this.totalPrice = row.getPrice();
+        this.orderStatus = row.getStatus();
+        this.userId = row.getUserId();
+        this.orderItems = orderItems;
+    }
+}
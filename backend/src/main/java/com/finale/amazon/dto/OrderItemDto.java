@@ -4,7 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.finale.amazon.entity.ArchivedOrderItem;
 import com.finale.amazon.entity.OrderItem;
+import com.finale.amazon.repository.OrderItemRepository.SellerOrderItemRow;
 
 @Data
 @AllArgsConstructor
@@ -21,4 +23,18 @@ public class OrderItemDto {
         this.quantity = orderItem.getQuantity();
         this.totalPrice = orderItem.getTotalPrice();
     }
-} 
\ No newline at end of file
+
+    public OrderItemDto(SellerOrderItemRow row) {
+        this.id = row.getId();
+        this.productId = row.getProductId();
+        this.quantity = row.getQuantity();
+        this.totalPrice = row.getTotalPrice();
+    }
+
+    public OrderItemDto(ArchivedOrderItem orderItem) {
+        this.id = orderItem.getId();
+        this.productId = orderItem.getProduct().getId();
+        this.quantity = orderItem.getQuantity();
+        this.totalPrice = orderItem.getTotalPrice();
+    }
+}
@@ -0,0 +1,16 @@
+package com.finale.amazon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusTransitionDto {
+    private Long orderId;
+    private String fromStatus;
+    private String toStatus;
+    private boolean applied;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package com.finale.amazon.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlatformOverviewDto {
+    private long totalOrders;
+    private double totalRevenue;
+    private long totalUsers;
+    private Map<String, Long> usersByRole;
+    private long totalProducts;
+    private long totalCategories;
+    private long totalReviews;
+}
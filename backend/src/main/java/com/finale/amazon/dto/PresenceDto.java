@@ -0,0 +1,17 @@
+package com.finale.amazon.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceDto {
+    private Long userId;
+    private boolean online;
+    // Null when the user has not been connected since this node started
+    private LocalDateTime lastSeenAt;
+}
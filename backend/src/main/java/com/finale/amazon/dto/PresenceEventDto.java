@@ -0,0 +1,23 @@
+package com.finale.amazon.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pushed on /user/queue/presence to the user's chat partners; TYPING carries the conversation instead of a time
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceEventDto {
+
+    public enum Type {
+        ONLINE, OFFLINE, TYPING
+    }
+
+    private Type type;
+    private Long userId;
+    private LocalDateTime lastSeenAt;
+    private Long conversationId;
+}
@@ -0,0 +1,15 @@
+package com.finale.amazon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PriceMismatchDto {
+    private Long productId;
+    private String productName;
+    private double expectedPrice;
+    private double currentPrice;
+}
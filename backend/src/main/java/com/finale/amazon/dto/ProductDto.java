@@ -3,8 +3,6 @@ package com.finale.amazon.dto;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import com.finale.amazon.entity.Review;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -40,9 +38,11 @@ public class ProductDto {
     
     private List<CharacteristicDto> characteristics;
     private List<PictureDto> pictures;
-    private List<ReviewDto> reviews;
     private List<ProductVariationDto> variations;
     private long views;
+    private long favouriteCount;
+    // Set only when the request carries a user token
+    private Boolean isFavourite;
     
     public ProductDto(com.finale.amazon.entity.Product product) {
         this.id = product.getId();
@@ -57,6 +57,7 @@ public class ProductDto {
         this.quantitySold = product.getQuantitySold();
         this.sellerSlug = product.getSeller() != null ? product.getSeller().getSlug() : null;
         views = product.getViews();
+        favouriteCount = product.getFavouriteCount();
         
         
         if (this.priceWithoutDiscount > 0) {
@@ -93,15 +94,9 @@ public class ProductDto {
             this.sellerId = product.getSeller().getId();
         }
         
-        if (product.getReviews() != null) {
-            this.reviews = product.getReviews().stream()
-                    .map(ReviewDto::new)
-                    .toList();
-            this.reviewCount = product.getReviews().size();
-            avgRating = product.getAvgRating();
-        } else {
-            this.reviewCount = 0;
-        }
+        // Reviews are served by the paginated review feed, only the aggregates travel with the product
+        this.reviewCount = product.getReviewCount();
+        this.avgRating = product.getAvgRating();
         
         if (product.getPictures() != null) {
             pictures = product.getPictures().stream().map(PictureDto::new).toList();
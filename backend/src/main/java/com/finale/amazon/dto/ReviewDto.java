@@ -5,6 +5,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
+import com.finale.amazon.repository.ReviewRepository.ReviewRow;
+import com.finale.amazon.repository.ReviewRepository.SellerReviewRow;
 
 @Data
 @AllArgsConstructor
@@ -19,6 +23,14 @@ public class ReviewDto {
     private Long parentId;
     private Long productId;
     private String roleName;
+    private long helpfulCount;
+    private long unhelpfulCount;
+    // Feed only: total replies and the first few of them
+    private Long replyCount;
+    private List<ReviewDto> replies;
+    // Seller feed only
+    private String productName;
+    private Boolean replied;
     
     public ReviewDto(com.finale.amazon.entity.Review review) {
         this.id = review.getId();
@@ -42,5 +54,27 @@ public class ReviewDto {
         }
         
         stars = (long)review.getStars();
+        helpfulCount = review.getHelpfulCount();
+        unhelpfulCount = review.getUnhelpfulCount();
+    }
+
+    public ReviewDto(ReviewRow row) {
+        this.id = row.getId();
+        this.description = row.getDescription();
+        this.stars = (long) row.getStars();
+        this.date = row.getDate();
+        this.username = row.getUsername();
+        this.userId = row.getUserId();
+        this.parentId = row.getParentId();
+        this.productId = row.getProductId();
+        this.roleName = row.getRoleName();
+        this.helpfulCount = row.getHelpfulCount();
+        this.unhelpfulCount = row.getUnhelpfulCount();
+    }
+
+    public ReviewDto(SellerReviewRow row) {
+        this((ReviewRow) row);
+        this.productName = row.getProductName();
+        this.replied = row.getReplied();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.finale.amazon.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewFeedDto {
+    private List<ReviewDto> reviews;
+    // Pass back as ?cursor= for the next page; null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.finale.amazon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewVoteDto {
+    private Long reviewId;
+    // Includes votes not yet flushed to the review row
+    private long helpfulCount;
+    private long unhelpfulCount;
+    // The caller's vote; null when they have none
+    private Boolean helpful;
+}
@@ -0,0 +1,42 @@
+package com.finale.amazon.dto;
+
+import java.time.LocalDate;
+
+import com.finale.amazon.entity.ProductSalesBucket;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalesBucketDto {
+    private Long productId;
+    private String granularity;
+    private LocalDate bucketStart;
+    private long unitsSold;
+    private double revenue;
+    private long orders;
+    private long cancellations;
+    private long views;
+
+    public SalesBucketDto(ProductSalesBucket bucket) {
+        this.productId = bucket.getProductId();
+        this.granularity = bucket.getGranularity().name();
+        this.bucketStart = bucket.getBucketStart();
+        this.unitsSold = bucket.getUnitsSold();
+        this.revenue = bucket.getRevenue();
+        this.orders = bucket.getOrders();
+        this.cancellations = bucket.getCancellations();
+        this.views = bucket.getViews();
+    }
+
+    public void add(ProductSalesBucket bucket) {
+        unitsSold += bucket.getUnitsSold();
+        revenue += bucket.getRevenue();
+        orders += bucket.getOrders();
+        cancellations += bucket.getCancellations();
+        views += bucket.getViews();
+    }
+}
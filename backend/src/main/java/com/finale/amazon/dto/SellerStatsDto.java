@@ -1,7 +1,5 @@
 package com.finale.amazon.dto;
 
-import java.util.List;
-
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,5 +15,5 @@ public class SellerStatsDto {
     private long activeOrders;
     private long completedOrders;
     private long cancelledOrders;
-    private List<ReviewDto> buyersReviews;
+    private long unrepliedReviews;
 }
@@ -0,0 +1,56 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Completed order moved out of {@code orders} by the archival job. Keeps the original id so
+ * links to an order keep working after it is archived.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = @Index(name = "idx_orders_archive_user", columnList = "user_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedOrder {
+    @Id
+    private long id;
+
+    private double price;
+
+    @Column(nullable = true)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = true)
+    private LocalDateTime arrivalDate;
+
+    @Column(nullable = true)
+    private LocalDateTime shipmentDate;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    @OneToMany(mappedBy = "order")
+    private List<ArchivedOrderItem> orderItems;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "order_status_id")
+    private OrderStatus orderStatus;
+}
@@ -0,0 +1,55 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seller part of an archived order, moved out of {@code seller_orders} together with its order so
+ * seller statistics keep counting it from one indexed table.
+ */
+@Entity
+@Table(name = "seller_orders_archive",
+        uniqueConstraints = @UniqueConstraint(name = "uk_seller_orders_archive_order_seller", columnNames = { "order_id", "seller_id" }),
+        indexes = @Index(name = "idx_seller_orders_archive_seller_status", columnList = "seller_id, order_status_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivedSellerOrder {
+    @Id
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private ArchivedOrder order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seller_id", nullable = false)
+    private User seller;
+
+    @ManyToOne
+    @JoinColumn(name = "order_status_id")
+    private OrderStatus orderStatus;
+
+    private double price;
+
+    @Column(nullable = true)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = true)
+    private LocalDateTime shipmentDate;
+
+    @Column(nullable = true)
+    private LocalDateTime arrivalDate;
+}
@@ -12,6 +12,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class CartItem {
 
+    // Unique index on (user_id, product_id), built by CartItemService at startup once duplicate lines are merged
+    public static final String USER_PRODUCT_KEY = "uk_cart_items_user_product";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
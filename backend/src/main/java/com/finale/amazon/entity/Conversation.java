@@ -0,0 +1,40 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Chat between two users, stored once per pair with the lower user id first
+@Entity
+@Table(name = "conversations", uniqueConstraints = @UniqueConstraint(name = "uk_conversations_users", columnNames = { "user_low_id", "user_high_id" }))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Conversation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_low_id", nullable = false)
+    private User userLow;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_high_id", nullable = false)
+    private User userHigh;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
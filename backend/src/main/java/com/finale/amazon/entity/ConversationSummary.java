@@ -0,0 +1,68 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One inbox row per user and conversation, kept up to date by ChatService on every send, read, edit and delete
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summaries_user_conversation", columnNames = { "user_id", "conversation_id" }),
+        indexes = @Index(name = "idx_conversation_summaries_user_activity", columnList = "user_id, last_activity_at, conversation_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", nullable = false)
+    private User partner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Conversation conversation;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_preview", length = 200)
+    private String lastMessagePreview;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
+    // The user has read every message up to this id; null only until the startup backfill from read flags
+    @Column(name = "last_read_message_id")
+    private Long lastReadMessageId;
+
+    // Messages from the partner above the watermark
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+}
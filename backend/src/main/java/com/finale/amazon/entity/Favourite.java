@@ -1,5 +1,8 @@
 package com.finale.amazon.entity;
 
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import jakarta.persistence.Id;
@@ -17,6 +20,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class Favourite {
+
+    // Unique index on (user_id, product_id), built by FavouriteService at startup once duplicates are dropped
+    public static final String USER_PRODUCT_KEY = "uk_favourites_user_product";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -28,4 +35,7 @@ public class Favourite {
     @ManyToOne
     @JoinColumn(name = "product_id")
     private Product product;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
 }
@@ -7,7 +7,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_conversation_created", columnList = "conversation_id, created_at, id"),
+        // Unread counts are ranges above a read watermark
+        @Index(name = "idx_messages_conversation_id", columnList = "conversation_id, id") })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -25,6 +28,11 @@ public class Message {
     @JoinColumn(name = "receiver_id", nullable = false)
     private User receiver;
 
+    // Null only for messages written before conversations existed, until the startup backfill runs
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id")
+    private Conversation conversation;
+
     @Column(length = 4096, nullable = false)
     private String content;
 
@@ -34,6 +42,8 @@ public class Message {
     @Column
     private LocalDateTime editedAt; 
     
+    // No longer written: read state is the receiver's watermark in conversation_summaries. Kept for the
+    // one-time watermark backfill
     @Column(nullable = false)
     private boolean read = false;
 }
@@ -1,6 +1,7 @@
 package com.finale.amazon.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,7 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_seller_order", columnList = "seller_order_id"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,6 +27,11 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seller_order_id")
+    @JsonIgnore
+    private SellerOrder sellerOrder;
+
     @Column(nullable = false)
     private Long quantity;
 
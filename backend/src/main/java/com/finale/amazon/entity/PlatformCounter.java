@@ -0,0 +1,29 @@
+package com.finale.amazon.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Checkpointed value of a platform metric (see {@code PlatformMetricsService}).
+ */
+@Entity
+@Table(name = "platform_counters")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlatformCounter {
+    @Id
+    @Column(name = "name", length = 128)
+    private String name;
+
+    @Column(name = "count_value", nullable = false)
+    private long countValue;
+
+    @Column(name = "amount_value", nullable = false)
+    private double amountValue;
+}
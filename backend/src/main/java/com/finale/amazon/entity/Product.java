@@ -13,9 +13,11 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,6 +26,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = @Index(name = "idx_product_favourite_count", columnList = "favourite_count"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -56,6 +59,11 @@ public class Product {
     @Column(nullable = false)
     private long views = 0L;
 
+    // Maintained in batches by FavouritePopularityService, never written through the entity
+    @Column(name = "favourite_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private long favouriteCount;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
@@ -78,6 +86,11 @@ public class Product {
     @Column(nullable = false)
     private double avgRating = 0.0;
 
+    // Top-level reviews only; kept by ProductService.updateAvgRating, never written through the entity
+    @Column(name = "review_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "integer default 0 not null")
+    private int reviewCount;
+
     @ManyToOne
     @JoinColumn(name = "seller_id", referencedColumnName = "id")
     private User seller;
@@ -0,0 +1,68 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pre-aggregated sales and traffic of one product for one day, week or month.
+ * Seller and product are stored as plain ids so dashboard reads never join the catalogue.
+ */
+@Entity
+@Table(name = "product_sales_buckets",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_bucket_product_period",
+                columnNames = { "product_id", "granularity", "bucket_start" }),
+        indexes = @Index(name = "idx_sales_bucket_seller_period", columnList = "seller_id, granularity, bucket_start"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSalesBucket {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "seller_id", nullable = false)
+    private long sellerId;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8, nullable = false)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "revenue", nullable = false)
+    private double revenue;
+
+    @Column(name = "orders", nullable = false)
+    private long orders;
+
+    @Column(name = "cancellations", nullable = false)
+    private long cancellations;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+}
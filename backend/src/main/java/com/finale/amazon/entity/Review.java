@@ -10,9 +10,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
@@ -23,6 +25,13 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_review_product_id", columnList = "product_id, id"),
+        @Index(name = "idx_review_product_stars", columnList = "product_id, stars, id"),
+        @Index(name = "idx_review_product_helpful", columnList = "product_id, helpful_count, id"),
+        @Index(name = "idx_review_parent", columnList = "parent_id, id"),
+        @Index(name = "idx_review_seller_date", columnList = "seller_id, date, id")
+})
 public class Review {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,9 +47,22 @@ public class Review {
 
     private LocalDateTime date;
 
+    // Vote counters, flushed in batches by ReviewVoteService and never written through the entity
+    @Column(name = "helpful_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private long helpfulCount;
+
+    @Column(name = "unhelpful_count", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint default 0 not null")
+    private long unhelpfulCount;
+
     @ManyToOne
     private Product product;
 
+    // Copy of product.seller_id so a seller's reviews can be read from one index
+    @Column(name = "seller_id")
+    private Long sellerId;
+
     @ManyToOne
     @JoinColumn(name = "parent_id") 
     private Review parent = null;
@@ -0,0 +1,66 @@
+package com.finale.amazon.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The part of an order fulfilled by one seller. Carries its own status and a denormalized
+ * seller id, so seller-side queries never have to join through order items and products.
+ */
+@Entity
+@Table(name = "seller_orders",
+        uniqueConstraints = @UniqueConstraint(name = "uk_seller_orders_order_seller", columnNames = { "order_id", "seller_id" }),
+        indexes = @Index(name = "idx_seller_orders_seller_status", columnList = "seller_id, order_status_id"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SellerOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    @JsonIgnore
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seller_id", nullable = false)
+    private User seller;
+
+    @ManyToOne
+    @JoinColumn(name = "order_status_id")
+    private OrderStatus orderStatus;
+
+    private double price;
+
+    @Column(nullable = true)
+    private LocalDateTime orderDate;
+
+    @Column(nullable = true)
+    private LocalDateTime shipmentDate;
+
+    @Column(nullable = true)
+    private LocalDateTime arrivalDate;
+
+    @OneToMany(mappedBy = "sellerOrder")
+    private List<OrderItem> orderItems;
+}
@@ -0,0 +1,31 @@
+package com.finale.amazon.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Review aggregates per seller, over top-level reviews only; updated in the same transaction as the reviews
+@Entity
+@Table(name = "seller_review_stats")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SellerReviewStats {
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "stars_sum", nullable = false)
+    private double starsSum;
+
+    // Reviews the seller has not replied to yet
+    @Column(name = "unreplied_count", nullable = false)
+    private long unrepliedCount;
+}
@@ -0,0 +1,50 @@
+package com.finale.amazon.repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ArchivedOrderItem;
+import com.finale.amazon.repository.OrderItemRepository.OrderExportRow;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface ArchivedOrderItemRepository extends JpaRepository<ArchivedOrderItem, Long> {
+
+    String EXPORT_SELECT = """
+                SELECT o.id AS orderId, o.orderDate AS orderDate, s.name AS status,
+                       o.shipmentDate AS shipmentDate, o.arrivalDate AS arrivalDate, o.price AS orderTotal,
+                       u.id AS userId, oi.id AS itemId, p.id AS productId, p.name AS productName,
+                       seller.id AS sellerId, oi.quantity AS quantity, oi.unitPrice AS unitPrice,
+                       oi.totalPrice AS itemTotal
+                FROM ArchivedOrderItem oi JOIN oi.order o JOIN oi.product p
+                     LEFT JOIN o.orderStatus s LEFT JOIN o.user u LEFT JOIN p.seller seller
+            """;
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE u.id = :userId ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportByUserId(@Param("userId") Long userId);
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE seller.id = :sellerId ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportBySellerId(@Param("sellerId") Long sellerId);
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportAll();
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE s.name IN :statusNames ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportByStatusNames(@Param("statusNames") List<String> statusNames);
+}
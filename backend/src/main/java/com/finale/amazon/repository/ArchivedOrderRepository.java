@@ -0,0 +1,50 @@
+package com.finale.amazon.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ArchivedOrder;
+import com.finale.amazon.entity.User;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    List<ArchivedOrder> findByUser(User user);
+
+    List<ArchivedOrder> findByUserId(Long userId);
+
+    List<ArchivedOrder> findByOrderStatus_NameInAndUserId(List<String> statusNames, Long userId);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO orders_archive
+                    (id, price, order_date, arrival_date, shipment_date, archived_at, user_id, order_status_id)
+                SELECT id, price, order_date, arrival_date, shipment_date, :now, user_id, order_status_id
+                FROM orders WHERE id IN :ids
+            """, nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO order_items_archive (id, order_id, product_id, quantity, unit_price, total_price)
+                SELECT id, order_id, product_id, quantity, unit_price, total_price
+                FROM order_items WHERE order_id IN :ids
+            """, nativeQuery = true)
+    int copyOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO seller_orders_archive
+                    (id, order_id, seller_id, order_status_id, price, order_date, shipment_date, arrival_date)
+                SELECT id, order_id, seller_id, order_status_id, price, order_date, shipment_date, arrival_date
+                FROM seller_orders WHERE order_id IN :ids
+            """, nativeQuery = true)
+    int copySellerOrders(@Param("ids") Collection<Long> ids);
+}
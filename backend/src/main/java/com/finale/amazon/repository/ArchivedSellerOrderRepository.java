@@ -0,0 +1,51 @@
+package com.finale.amazon.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ArchivedSellerOrder;
+
+@Repository
+public interface ArchivedSellerOrderRepository extends JpaRepository<ArchivedSellerOrder, Long> {
+
+    long countBySeller_Id(Long sellerId);
+
+    long countBySeller_IdAndOrderStatus_NameIn(Long sellerId, List<String> statusNames);
+
+    @Query("SELECT COALESCE(SUM(so.price), 0) FROM ArchivedSellerOrder so WHERE so.seller.id = :sellerId AND so.orderStatus.name = :statusName")
+    double sumPriceBySellerIdAndStatusName(@Param("sellerId") Long sellerId, @Param("statusName") String statusName);
+
+    // Backfill for orders archived before their seller orders were archived with them
+
+    @Query(value = """
+                SELECT o.id FROM orders_archive o
+                WHERE o.id > :afterId
+                  AND NOT EXISTS (SELECT 1 FROM seller_orders_archive so WHERE so.order_id = o.id)
+                  AND EXISTS (SELECT 1 FROM order_items_archive oi JOIN product p ON p.id = oi.product_id
+                              WHERE oi.order_id = o.id AND p.seller_id IS NOT NULL)
+                ORDER BY o.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findUnsplitOrderIds(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Ids come from the live table's sequence so they never collide with seller orders archived later
+    @Modifying
+    @Query(value = """
+                INSERT INTO seller_orders_archive (id, order_id, seller_id, order_status_id, price, order_date, shipment_date, arrival_date)
+                SELECT nextval(pg_get_serial_sequence('seller_orders', 'id')), x.*
+                FROM (
+                    SELECT o.id, p.seller_id, o.order_status_id, SUM(oi.total_price), o.order_date, o.shipment_date, o.arrival_date
+                    FROM orders_archive o JOIN order_items_archive oi ON oi.order_id = o.id JOIN product p ON p.id = oi.product_id
+                    WHERE o.id IN :orderIds AND p.seller_id IS NOT NULL
+                    GROUP BY o.id, p.seller_id, o.order_status_id, o.order_date, o.shipment_date, o.arrival_date
+                ) x
+                ON CONFLICT (order_id, seller_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertSplitsForOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -3,6 +3,7 @@ package com.finale.amazon.repository;
 import com.finale.amazon.entity.CartItem;
 import com.finale.amazon.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,16 +12,82 @@ import java.util.List;
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
-    @Query("""
-                SELECT ci
-                FROM CartItem ci
-                JOIN FETCH ci.product p
-                LEFT JOIN FETCH p.pictures pic
-                WHERE ci.user = :user AND (pic.name LIKE '1.%' OR pic IS NULL)
-            """)
-    List<CartItem> findByUserWithMainPicture(@Param("user") User user);
+    interface CartLine {
+        Long getProductId();
+
+        int getQuantity();
+    }
+
+    interface CartViewRow {
+        Long getId();
+
+        Long getProductId();
+
+        String getSlug();
+
+        String getName();
+
+        String getSellerName();
+
+        double getPrice();
+
+        double getPriceWithoutDiscount();
+
+        long getQuantityInStock();
+
+        int getQuantity();
+
+        String getPicturePath();
+    }
 
     List<CartItem> findByUser(User user);
 
-    void deleteByUser(User user);
+    // Main picture is the PRIMARY one, falling back to the first uploaded so products without it keep an image
+    @Query(value = """
+                SELECT ci.id AS id, p.id AS productId, p.slug AS slug, p.name AS name, u.username AS sellerName,
+                       p.price AS price, p.price_without_discount AS priceWithoutDiscount,
+                       p.quantity_in_stock AS quantityInStock, ci.quantity AS quantity,
+                       (SELECT pic.path FROM picture pic
+                        LEFT JOIN picture_type pt ON pt.id = pic.picture_type_id
+                        WHERE pic.product_id = p.id
+                        ORDER BY CASE WHEN pt.name = 'PRIMARY' THEN 0 ELSE 1 END, pic.id
+                        LIMIT 1) AS picturePath
+                FROM cart_items ci
+                JOIN product p ON p.id = ci.product_id
+                LEFT JOIN users u ON u.id = p.seller_id
+                WHERE ci.user_id = :userId
+                ORDER BY ci.id
+            """, nativeQuery = true)
+    List<CartViewRow> findViewByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT ci.product.id AS productId, ci.quantity AS quantity FROM CartItem ci WHERE ci.user.id = :userId")
+    List<CartLine> findLinesByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    // Inserts the line or adds to its quantity; selecting from product makes an unknown id a no-op (0 rows)
+    @Modifying
+    @Query(value = """
+                INSERT INTO cart_items (user_id, product_id, quantity)
+                SELECT :userId, p.id, :quantity FROM product p WHERE p.id = :productId
+                ON CONFLICT (user_id, product_id)
+                DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity
+            """, nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Product ids must be distinct, ON CONFLICT cannot touch the same row twice in one statement
+    @Modifying
+    @Query(value = """
+                INSERT INTO cart_items (user_id, product_id, quantity)
+                SELECT :userId, p.id, v.quantity
+                FROM unnest(:productIds, :quantities) AS v(product_id, quantity)
+                JOIN product p ON p.id = v.product_id
+                ORDER BY p.id
+                ON CONFLICT (user_id, product_id)
+                DO UPDATE SET quantity = cart_items.quantity + EXCLUDED.quantity
+            """, nativeQuery = true)
+    int upsertAll(@Param("userId") Long userId, @Param("productIds") Long[] productIds,
+            @Param("quantities") Integer[] quantities);
 }
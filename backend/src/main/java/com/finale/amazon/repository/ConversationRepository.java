@@ -0,0 +1,39 @@
+package com.finale.amazon.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.Conversation;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    @Query("SELECT c.id FROM Conversation c WHERE c.userLow.id = :lowId AND c.userHigh.id = :highId")
+    Optional<Long> findIdByUsers(@Param("lowId") Long lowId, @Param("highId") Long highId);
+
+    // Empty when the pair already had a conversation
+    @Query(value = """
+            INSERT INTO conversations (user_low_id, user_high_id, created_at)
+            VALUES (:lowId, :highId, now())
+            ON CONFLICT (user_low_id, user_high_id) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("lowId") Long lowId, @Param("highId") Long highId);
+
+    // One conversation per user pair that has messages, dated by its first message
+    @Modifying
+    @Query(value = """
+            INSERT INTO conversations (user_low_id, user_high_id, created_at)
+            SELECT least(m.sender_id, m.receiver_id), greatest(m.sender_id, m.receiver_id), min(m.created_at)
+            FROM messages m
+            WHERE m.conversation_id IS NULL
+            GROUP BY 1, 2
+            ON CONFLICT (user_low_id, user_high_id) DO NOTHING
+            """, nativeQuery = true)
+    int backfillFromMessages();
+}
@@ -0,0 +1,195 @@
+package com.finale.amazon.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ConversationSummary;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    interface InboxRow {
+        Long getConversationId();
+
+        Long getPartnerId();
+
+        String getPartnerUsername();
+
+        String getPartnerName();
+
+        Long getLastMessageId();
+
+        Long getLastSenderId();
+
+        String getLastMessagePreview();
+
+        LocalDateTime getLastActivityAt();
+
+        long getUnreadCount();
+    }
+
+    String INBOX_SELECT = """
+            SELECT s.conversation_id AS conversationId, s.partner_id AS partnerId, p.username AS partnerUsername,
+                   p.name AS partnerName, s.last_message_id AS lastMessageId, s.last_sender_id AS lastSenderId,
+                   s.last_message_preview AS lastMessagePreview, s.last_activity_at AS lastActivityAt,
+                   s.unread_count AS unreadCount
+            FROM conversation_summaries s
+            JOIN users p ON p.id = s.partner_id
+            WHERE s.user_id = :userId
+            """;
+
+    // Both sides of every conversation, built from its messages: the latest one and the ones above the
+    // user's read watermark
+    String REBUILD_SELECT = """
+            SELECT u.user_id, u.partner_id, c.id, last.id, last.sender_id, left(last.content, 200), last.created_at,
+                   (SELECT count(*) FROM messages m
+                    WHERE m.conversation_id = c.id AND m.receiver_id = u.user_id
+                      AND m.id > coalesce((SELECT w.last_read_message_id FROM conversation_summaries w
+                                           WHERE w.conversation_id = c.id AND w.user_id = u.user_id), 0)),
+                   CAST(NULL AS bigint)
+            FROM conversations c
+            CROSS JOIN LATERAL (VALUES (c.user_low_id, c.user_high_id), (c.user_high_id, c.user_low_id)) AS u(user_id, partner_id)
+            JOIN LATERAL (
+                SELECT m.id, m.sender_id, m.content, m.created_at FROM messages m
+                WHERE m.conversation_id = c.id
+                ORDER BY m.created_at DESC, m.id DESC
+                LIMIT 1
+            ) last ON true
+            """;
+
+    String SUMMARY_COLUMNS = """
+            INSERT INTO conversation_summaries AS s (user_id, partner_id, conversation_id, last_message_id,
+                last_sender_id, last_message_preview, last_activity_at, unread_count, last_read_message_id)
+            """;
+
+    @Query(value = INBOX_SELECT + """
+            ORDER BY s.last_activity_at DESC, s.conversation_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<InboxRow> findInbox(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = INBOX_SELECT + """
+              AND (s.last_activity_at, s.conversation_id) < (
+                  SELECT b.last_activity_at, b.conversation_id FROM conversation_summaries b
+                  WHERE b.user_id = :userId AND b.conversation_id = :beforeConversationId)
+            ORDER BY s.last_activity_at DESC, s.conversation_id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<InboxRow> findInboxBefore(@Param("userId") Long userId,
+            @Param("beforeConversationId") Long beforeConversationId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT s.partner_id FROM conversation_summaries s
+            WHERE s.user_id = :userId
+            ORDER BY s.last_activity_at DESC, s.conversation_id DESC
+            """, nativeQuery = true)
+    List<Long> findPartnerIdsByRecency(@Param("userId") Long userId);
+
+    // Both participants' rows in one statement, lower user id first so concurrent senders lock in the same
+    // order; a message that lost a race to a newer one only adds to the unread count
+    @Modifying
+    @Query(value = SUMMARY_COLUMNS + """
+            SELECT v.user_id, v.partner_id, :conversationId, :messageId, :senderId, left(:content, 200), :createdAt, v.unread, 0
+            FROM (VALUES (:senderId, :receiverId, 0), (:receiverId, :senderId, 1)) AS v(user_id, partner_id, unread)
+            ORDER BY v.user_id
+            ON CONFLICT (user_id, conversation_id) DO UPDATE SET
+                unread_count = s.unread_count + excluded.unread_count,
+                last_message_id = CASE WHEN excluded.last_message_id > s.last_message_id
+                    THEN excluded.last_message_id ELSE s.last_message_id END,
+                last_sender_id = CASE WHEN excluded.last_message_id > s.last_message_id
+                    THEN excluded.last_sender_id ELSE s.last_sender_id END,
+                last_message_preview = CASE WHEN excluded.last_message_id > s.last_message_id
+                    THEN excluded.last_message_preview ELSE s.last_message_preview END,
+                last_activity_at = CASE WHEN excluded.last_message_id > s.last_message_id
+                    THEN excluded.last_activity_at ELSE s.last_activity_at END
+            """, nativeQuery = true)
+    int recordSent(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+            @Param("content") String content, @Param("createdAt") LocalDateTime createdAt);
+
+    @Query(value = """
+            SELECT s.last_read_message_id FROM conversation_summaries s
+            WHERE s.conversation_id = :conversationId AND s.user_id = :userId
+            """, nativeQuery = true)
+    Optional<Long> findLastReadMessageId(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    // Moves the watermark forward, never past the conversation's last message, and recounts what is left
+    // above it; empty when the watermark was already there
+    @Query(value = """
+            UPDATE conversation_summaries s
+            SET last_read_message_id = t.up_to,
+                unread_count = (SELECT count(*) FROM messages m
+                                WHERE m.conversation_id = s.conversation_id AND m.receiver_id = s.user_id
+                                  AND m.id > t.up_to)
+            FROM (SELECT least(:upTo, coalesce(max(m.id), 0)) AS up_to FROM messages m WHERE m.conversation_id = :conversationId) t
+            WHERE s.conversation_id = :conversationId AND s.user_id = :userId
+              AND coalesce(s.last_read_message_id, 0) < t.up_to
+            RETURNING s.last_read_message_id
+            """, nativeQuery = true)
+    Optional<Long> advanceReadWatermark(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("upTo") Long upTo);
+
+    // Watermarks from the old per-message flags: everything before the first unread message counts as read,
+    // so a message that was unread never shows as read
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_summaries s
+            SET last_read_message_id = w.last_read,
+                unread_count = (SELECT count(*) FROM messages m
+                                WHERE m.conversation_id = s.conversation_id AND m.receiver_id = s.user_id
+                                  AND m.id > w.last_read)
+            FROM (
+                SELECT x.id, coalesce(
+                    (SELECT min(m.id) - 1 FROM messages m
+                     WHERE m.conversation_id = x.conversation_id AND m.receiver_id = x.user_id AND NOT m.read),
+                    (SELECT max(m.id) FROM messages m WHERE m.conversation_id = x.conversation_id),
+                    0) AS last_read
+                FROM conversation_summaries x
+                WHERE x.last_read_message_id IS NULL
+            ) w
+            WHERE s.id = w.id
+            """, nativeQuery = true)
+    int backfillReadWatermarks();
+
+    // Only matters when the edited message is the one shown in the inbox
+    @Modifying
+    @Query(value = """
+            UPDATE conversation_summaries SET last_message_preview = left(:content, 200)
+            WHERE conversation_id = :conversationId AND last_message_id = :messageId
+            """, nativeQuery = true)
+    int updatePreview(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId,
+            @Param("content") String content);
+
+    @Modifying
+    @Query(value = SUMMARY_COLUMNS + REBUILD_SELECT + """
+            WHERE c.id = :conversationId
+            ON CONFLICT (user_id, conversation_id) DO UPDATE SET
+                last_message_id = excluded.last_message_id,
+                last_sender_id = excluded.last_sender_id,
+                last_message_preview = excluded.last_message_preview,
+                last_activity_at = excluded.last_activity_at,
+                unread_count = excluded.unread_count
+            """, nativeQuery = true)
+    int rebuild(@Param("conversationId") Long conversationId);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM conversation_summaries s
+            WHERE s.conversation_id = :conversationId
+              AND NOT EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = :conversationId)
+            """, nativeQuery = true)
+    int deleteIfEmpty(@Param("conversationId") Long conversationId);
+
+    @Modifying
+    @Query(value = SUMMARY_COLUMNS + REBUILD_SELECT + """
+            ON CONFLICT (user_id, conversation_id) DO NOTHING
+            """, nativeQuery = true)
+    int seedAll();
+}
@@ -1,8 +1,14 @@
 package com.finale.amazon.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.finale.amazon.entity.Favourite;
@@ -13,5 +19,47 @@ public interface FavouriteRepository extends JpaRepository<Favourite, Long> {
 
     List<Favourite> findByUser(User userById);
 
-    
+    @Query("SELECT f.product.id FROM Favourite f WHERE f.user.id = :userId")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+    interface InsertedFavourite {
+        Long getId();
+
+        Long getCategoryId();
+    }
+
+    interface WeeklyFavourites {
+        Long getCategoryId();
+
+        Long getProductId();
+
+        LocalDate getDay();
+
+        long getFavourites();
+    }
+
+    // Empty when the product is unknown or already a favourite; category is returned for the popularity shelves
+    @Query(value = """
+            WITH inserted AS (
+                INSERT INTO favourites (user_id, product_id, created_at)
+                SELECT :userId, p.id, now() FROM product p WHERE p.id = :productId
+                ON CONFLICT (user_id, product_id) DO NOTHING
+                RETURNING id, product_id
+            )
+            SELECT i.id AS id, p.category_id AS categoryId
+            FROM inserted i JOIN product p ON p.id = i.product_id
+            """, nativeQuery = true)
+    Optional<InsertedFavourite> insertIfAbsent(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Query("SELECT f.id FROM Favourite f WHERE f.user.id = :userId AND f.product.id = :productId")
+    Optional<Long> findIdByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+
+    @Query(value = """
+            SELECT p.category_id AS categoryId, f.product_id AS productId, CAST(f.created_at AS date) AS day,
+                   count(*) AS favourites
+            FROM favourites f JOIN product p ON p.id = f.product_id
+            WHERE f.created_at >= :since
+            GROUP BY 1, 2, 3
+            """, nativeQuery = true)
+    List<WeeklyFavourites> countCreatedSince(@Param("since") LocalDateTime since);
 }
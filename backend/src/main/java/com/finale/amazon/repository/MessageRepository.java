@@ -1,7 +1,10 @@
 package com.finale.amazon.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.finale.amazon.entity.Message;
@@ -10,8 +13,129 @@ import com.finale.amazon.entity.User;
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
-    List<Message> findBySenderAndReceiverOrderByCreatedAtAsc(User sender, User receiver);
+    interface MessageRow {
+        Long getId();
+
+        Long getConversationId();
+
+        Long getSenderId();
+
+        Long getReceiverId();
+
+        String getContent();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getEditedAt();
+
+        boolean getRead();
+    }
+
+    interface SearchHitRow {
+        Long getId();
+
+        Long getConversationId();
+
+        Long getSenderId();
+
+        Long getReceiverId();
+
+        Long getPartnerId();
+
+        String getPartnerUsername();
+
+        LocalDateTime getCreatedAt();
+
+        String getHighlight();
+    }
+
+    // Matches inside the user's own conversations, newest first; the headline is built only for the page and from
+    // HTML-escaped content, so the <mark> tags are the only markup in it
+    String SEARCH_SELECT = """
+            SELECT x.id AS id, x.conversation_id AS conversationId, x.sender_id AS senderId,
+                   x.receiver_id AS receiverId, x.partner_id AS partnerId, p.username AS partnerUsername,
+                   x.created_at AS createdAt,
+                   ts_headline('simple',
+                       replace(replace(replace(x.content, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'),
+                       websearch_to_tsquery('simple', :query),
+                       'StartSel=<mark>, StopSel=</mark>, MaxWords=30, MinWords=10, MaxFragments=2') AS highlight
+            FROM (
+                SELECT m.id, m.conversation_id, m.sender_id, m.receiver_id, m.content, m.created_at, s.partner_id
+                FROM messages m
+                JOIN conversation_summaries s ON s.conversation_id = m.conversation_id AND s.user_id = :userId
+                WHERE m.search_vector @@ websearch_to_tsquery('simple', :query)
+            """;
+
+    String SEARCH_PAGE = """
+                ORDER BY m.created_at DESC, m.id DESC
+                LIMIT :limit
+            ) x
+            JOIN users p ON p.id = x.partner_id
+            ORDER BY x.created_at DESC, x.id DESC
+            """;
+
+    // Read means the receiver's watermark has reached the message
+    String ROW_SELECT = """
+            SELECT m.id AS id, m.conversation_id AS conversationId, m.sender_id AS senderId,
+                   m.receiver_id AS receiverId, m.content AS content, m.created_at AS createdAt,
+                   m.edited_at AS editedAt, m.id <= coalesce(rs.last_read_message_id, 0) AS read
+            FROM messages m
+            LEFT JOIN conversation_summaries rs ON rs.user_id = m.receiver_id AND rs.conversation_id = m.conversation_id
+            """;
+
     List<Message> findBySenderOrReceiverOrderByCreatedAtAsc(User sender, User receiver);
 
+    // Newest messages first, one range scan of idx_messages_conversation_created
+    @Query(value = ROW_SELECT + """
+            WHERE m.conversation_id = :conversationId
+            ORDER BY m.created_at DESC, m.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<MessageRow> findLatest(@Param("conversationId") Long conversationId, @Param("limit") int limit);
+
+    // The messages right before (:beforeAt, :beforeId) in the same conversation, newest first. The cursor
+    // carries both keys, so paging goes on when the message it points at has been deleted
+    @Query(value = ROW_SELECT + """
+            WHERE m.conversation_id = :conversationId
+              AND (m.created_at, m.id) < (:beforeAt, :beforeId)
+            ORDER BY m.created_at DESC, m.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<MessageRow> findBefore(@Param("conversationId") Long conversationId,
+            @Param("beforeAt") LocalDateTime beforeAt, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    @Query(value = SEARCH_SELECT + SEARCH_PAGE, nativeQuery = true)
+    List<SearchHitRow> search(@Param("userId") Long userId, @Param("query") String query, @Param("limit") int limit);
+
+    // Continues after the hit (:beforeAt, :beforeId), which need not exist any more
+    @Query(value = SEARCH_SELECT + """
+                  AND (m.created_at, m.id) < (:beforeAt, :beforeId)
+            """ + SEARCH_PAGE, nativeQuery = true)
+    List<SearchHitRow> searchBefore(@Param("userId") Long userId, @Param("query") String query,
+            @Param("beforeAt") LocalDateTime beforeAt, @Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    // Messages are indexed by ChatSearchService after they are written, never on the send path; an edit
+    // clears the vector so the message is indexed again. Every picked row must get a non-null vector, or it
+    // would be picked again on every run
+    @Modifying
+    @Query(value = """
+            UPDATE messages m SET search_vector = to_tsvector('simple', coalesce(m.content, ''))
+            WHERE m.id IN (SELECT p.id FROM messages p WHERE p.search_vector IS NULL
+                           ORDER BY p.id LIMIT :batchSize FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int indexPending(@Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query(value = "UPDATE messages SET search_vector = NULL WHERE id = :messageId", nativeQuery = true)
+    int clearSearchVector(@Param("messageId") Long messageId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE messages m SET conversation_id = c.id
+            FROM conversations c
+            WHERE m.conversation_id IS NULL
+              AND c.user_low_id = least(m.sender_id, m.receiver_id)
+              AND c.user_high_id = greatest(m.sender_id, m.receiver_id)
+            """, nativeQuery = true)
+    int backfillConversationIds();
 }
- 
\ No newline at end of file
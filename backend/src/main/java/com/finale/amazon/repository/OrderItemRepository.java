@@ -0,0 +1,113 @@
+package com.finale.amazon.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.OrderItem;
+
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // One flat row per order line; exports read these through a cursor instead of loading Order graphs
+    interface OrderExportRow {
+        Long getOrderId();
+
+        LocalDateTime getOrderDate();
+
+        String getStatus();
+
+        LocalDateTime getShipmentDate();
+
+        LocalDateTime getArrivalDate();
+
+        Double getOrderTotal();
+
+        Long getUserId();
+
+        Long getItemId();
+
+        Long getProductId();
+
+        String getProductName();
+
+        Long getSellerId();
+
+        Long getQuantity();
+
+        Double getUnitPrice();
+
+        Double getItemTotal();
+    }
+
+    interface SellerOrderItemRow {
+        Long getId();
+
+        Long getSellerOrderId();
+
+        Long getProductId();
+
+        Long getQuantity();
+
+        double getTotalPrice();
+    }
+
+    String SELLER_ITEM_SELECT = """
+                SELECT oi.id AS id, oi.seller_order_id AS sellerOrderId, oi.product_id AS productId,
+                       oi.quantity AS quantity, oi.total_price AS totalPrice
+                FROM order_items oi
+                JOIN seller_orders so ON so.id = oi.seller_order_id
+            """;
+
+    // Every line of every seller order of the seller, in one query
+    @Query(value = SELLER_ITEM_SELECT + """
+                WHERE so.seller_id = :sellerId
+                ORDER BY oi.id
+            """, nativeQuery = true)
+    List<SellerOrderItemRow> findSellerOrderItems(@Param("sellerId") Long sellerId);
+
+    @Query(value = SELLER_ITEM_SELECT + """
+                WHERE so.order_id = :orderId AND so.seller_id = :sellerId
+                ORDER BY oi.id
+            """, nativeQuery = true)
+    List<SellerOrderItemRow> findSellerOrderItems(@Param("orderId") Long orderId, @Param("sellerId") Long sellerId);
+
+    String EXPORT_SELECT = """
+                SELECT o.id AS orderId, o.orderDate AS orderDate, s.name AS status,
+                       o.shipmentDate AS shipmentDate, o.arrivalDate AS arrivalDate, o.price AS orderTotal,
+                       u.id AS userId, oi.id AS itemId, p.id AS productId, p.name AS productName,
+                       seller.id AS sellerId, oi.quantity AS quantity, oi.unitPrice AS unitPrice,
+                       oi.totalPrice AS itemTotal
+                FROM OrderItem oi JOIN oi.order o JOIN oi.product p
+                     LEFT JOIN o.orderStatus s LEFT JOIN o.user u LEFT JOIN p.seller seller
+            """;
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE u.id = :userId ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportByUserId(@Param("userId") Long userId);
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE seller.id = :sellerId ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportBySellerId(@Param("sellerId") Long sellerId);
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportAll();
+
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(EXPORT_SELECT + " WHERE s.name IN :statusNames ORDER BY o.id, oi.id")
+    Stream<OrderExportRow> streamExportByStatusNames(@Param("statusNames") List<String> statusNames);
+}
@@ -1,8 +1,11 @@
 package com.finale.amazon.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,22 +17,85 @@ import com.finale.amazon.entity.User;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findDistinctByOrderItemsProductSeller(User seller);
+    List<Order> findByOrderStatus_NameIn(List<String> statusNames);
 
-    @Query("SELECT COUNT(DISTINCT o) FROM Order o JOIN o.orderItems oi JOIN oi.product p WHERE p.seller = :seller")
-    long countByProductSeller(@Param("seller") User seller);
+    List<Order> findByUser(User user);
 
-    @Query("SELECT COUNT(DISTINCT o) FROM Order o JOIN o.orderItems oi JOIN oi.product p WHERE p.seller = :seller AND o.orderStatus.name IN :statusNames")
-    long countByProductSellerAndOrderStatusNameIn(@Param("seller") User seller,
-            @Param("statusNames") List<String> statusNames);
+    List<Order> findByUserId(Long userId);
 
-    @Query("SELECT DISTINCT o FROM Order o JOIN o.orderItems oi JOIN oi.product p WHERE p.seller = :seller AND o.orderStatus.name = :statusName")
-    List<Order> findByProductSellerAndOrderStatusName(@Param("seller") User seller,
-            @Param("statusName") String statusName);
+    List<Order> findByOrderStatus_NameInAndUserId(List<String> statusNames, Long userId);
 
-    List<Order> findByOrderStatus_NameIn(List<String> statusNames);
+    interface OrderStatusRow {
+        Long getId();
 
-    List<Order> findByUser(User user);
+        String getStatus();
+    }
 
-    List<Order> findByOrderStatus_NameInAndUserId(List<String> statusNames, Long userId);
+    @Query(value = """
+                SELECT o.id AS id, s.name AS status
+                FROM orders o JOIN order_status s ON s.id = o.order_status_id
+                WHERE o.id IN :ids
+                ORDER BY o.id
+                FOR UPDATE OF o
+            """, nativeQuery = true)
+    List<OrderStatusRow> lockStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Only the orders holding a part of this seller, so a seller never locks orders of other sellers
+    @Query(value = """
+                SELECT o.id AS id, s.name AS status
+                FROM orders o JOIN order_status s ON s.id = o.order_status_id
+                WHERE o.id IN :ids
+                  AND EXISTS (SELECT 1 FROM seller_orders so WHERE so.order_id = o.id AND so.seller_id = :sellerId)
+                ORDER BY o.id
+                FOR UPDATE OF o
+            """, nativeQuery = true)
+    List<OrderStatusRow> lockStatusesByIdInAndSellerId(@Param("ids") Collection<Long> ids,
+            @Param("sellerId") Long sellerId);
+
+    // Shipment/arrival dates are stamped in the same statement when the target status calls for it
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+                UPDATE orders SET
+                    order_status_id = :statusId,
+                    shipment_date = CASE WHEN :stampShipment THEN :now ELSE shipment_date END,
+                    arrival_date = CASE WHEN :stampArrival THEN :now ELSE arrival_date END
+                WHERE id IN :ids
+            """, nativeQuery = true)
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("statusId") long statusId,
+            @Param("stampShipment") boolean stampShipment, @Param("stampArrival") boolean stampArrival,
+            @Param("now") LocalDateTime now);
+
+    // Moves an order to the status once every seller's part of it has reached that status
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+                UPDATE orders o SET
+                    order_status_id = :statusId,
+                    shipment_date = CASE WHEN :stampShipment THEN :now ELSE o.shipment_date END,
+                    arrival_date = CASE WHEN :stampArrival THEN :now ELSE o.arrival_date END
+                WHERE o.id IN :ids
+                  AND NOT EXISTS (SELECT 1 FROM seller_orders so WHERE so.order_id = o.id AND so.order_status_id <> :statusId)
+            """, nativeQuery = true)
+    int rollUpStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("statusId") long statusId,
+            @Param("stampShipment") boolean stampShipment, @Param("stampArrival") boolean stampArrival,
+            @Param("now") LocalDateTime now);
+
+    // Completed orders whose last activity is older than the cutoff; rows locked by live updates are left for the next run
+    @Query(value = """
+                SELECT o.id FROM orders o JOIN order_status s ON s.id = o.order_status_id
+                WHERE s.name IN :statusNames
+                  AND COALESCE(o.arrival_date, o.shipment_date, o.order_date) < :cutoff
+                ORDER BY o.id
+                LIMIT :limit
+                FOR UPDATE OF o SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("statusNames") List<String> statusNames,
+            @Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN :ids", nativeQuery = true)
+    int deleteItemsByOrderIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN :ids", nativeQuery = true)
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
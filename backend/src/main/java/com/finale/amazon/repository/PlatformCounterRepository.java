@@ -0,0 +1,59 @@
+package com.finale.amazon.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.PlatformCounter;
+
+@Repository
+public interface PlatformCounterRepository extends JpaRepository<PlatformCounter, String> {
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO platform_counters (name, count_value, amount_value)
+                VALUES (:name, :count, :amount)
+                ON CONFLICT (name) DO UPDATE SET
+                    count_value = platform_counters.count_value + EXCLUDED.count_value,
+                    amount_value = platform_counters.amount_value + EXCLUDED.amount_value
+            """, nativeQuery = true)
+    void increment(@Param("name") String name, @Param("count") long count, @Param("amount") double amount);
+
+    // Seed queries, used once when the counters table is empty
+
+    @Query(value = """
+                SELECT COUNT(*), COALESCE(SUM(o.price), 0) FROM (
+                    SELECT price, order_status_id FROM orders
+                    UNION ALL SELECT price, order_status_id FROM orders_archive
+                ) o LEFT JOIN order_status s ON s.id = o.order_status_id
+                WHERE s.name IS NULL OR s.name <> 'CANCELLED'
+            """, nativeQuery = true)
+    List<Object[]> seedOrderTotals();
+
+    @Query(value = """
+                SELECT i.product_id, COUNT(DISTINCT i.order_id), COALESCE(SUM(i.total_price), 0) FROM (
+                    SELECT oi.product_id, oi.order_id, oi.total_price, o.order_status_id
+                    FROM order_items oi JOIN orders o ON o.id = oi.order_id
+                    UNION ALL
+                    SELECT oi.product_id, oi.order_id, oi.total_price, o.order_status_id
+                    FROM order_items_archive oi JOIN orders_archive o ON o.id = oi.order_id
+                ) i LEFT JOIN order_status s ON s.id = i.order_status_id
+                WHERE s.name IS NULL OR s.name <> 'CANCELLED'
+                GROUP BY i.product_id
+            """, nativeQuery = true)
+    List<Object[]> seedProductOrderTotals();
+
+    @Query(value = """
+                SELECT r.name, COUNT(*) FROM users u
+                JOIN user_role ur ON ur.id = u.id JOIN role r ON r.id = ur.role_id
+                GROUP BY r.name
+            """, nativeQuery = true)
+    List<Object[]> seedUsersByRole();
+
+    @Query(value = "SELECT product_id, COUNT(*) FROM review WHERE product_id IS NOT NULL GROUP BY product_id", nativeQuery = true)
+    List<Object[]> seedProductReviews();
+}
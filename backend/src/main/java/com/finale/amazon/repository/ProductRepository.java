@@ -8,13 +8,16 @@ import com.finale.amazon.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +72,64 @@ public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpec
        "AND (:categoryId IS NULL OR p.category.id = :categoryId)")
     List<Product> findFilteredProducts(@Param("sellerId") Long sellerId, @Param("name") String name, @Param("categoryId") Long categoryId, Sort sort);
 
+    @EntityGraph(attributePaths = "seller")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findWithSellerByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Locks rows in id order so concurrent checkouts can't deadlock, then takes stock only where enough is left;
+    // the returned ids are the lines that were reserved
+    @Query(value = """
+            WITH locked AS (
+                SELECT p.id FROM product p WHERE p.id = ANY(:ids) ORDER BY p.id FOR UPDATE
+            ), reserved AS (
+                UPDATE product p
+                SET quantity_in_stock = p.quantity_in_stock - v.quantity,
+                    quantity_sold = p.quantity_sold + v.quantity
+                FROM unnest(:ids, :quantities) AS v(id, quantity)
+                JOIN locked l ON l.id = v.id
+                WHERE p.id = v.id AND p.quantity_in_stock >= v.quantity
+                RETURNING p.id
+            )
+            SELECT id FROM reserved
+            """, nativeQuery = true)
+    List<Long> reserveStock(@Param("ids") Long[] ids, @Param("quantities") Long[] quantities);
+
+    @Modifying
+    @Query(value = """
+            UPDATE product p SET favourite_count = p.favourite_count + v.delta
+            FROM unnest(:ids, :deltas) AS v(id, delta)
+            WHERE p.id = v.id
+            """, nativeQuery = true)
+    int addFavouriteCounts(@Param("ids") Long[] ids, @Param("deltas") Long[] deltas);
+
+    boolean existsByFavouriteCountGreaterThan(long favouriteCount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE product p SET favourite_count = c.favourites
+            FROM (SELECT product_id, count(*) AS favourites FROM favourites GROUP BY product_id) c
+            WHERE p.id = c.product_id
+            """, nativeQuery = true)
+    int seedFavouriteCounts();
+
+    // Rating and count of top-level reviews from one aggregate, without loading the reviews
+    @Modifying
+    @Query(value = """
+            UPDATE product p SET avg_rating = coalesce(s.avg_stars, 0), review_count = s.reviews
+            FROM (SELECT avg(r.stars) AS avg_stars, count(r.id) AS reviews
+                  FROM review r WHERE r.product_id = :productId AND r.parent_id IS NULL) s
+            WHERE p.id = :productId
+            """, nativeQuery = true)
+    int refreshReviewStats(@Param("productId") Long productId);
+
+    boolean existsByReviewCountGreaterThan(int reviewCount);
+
+    @Modifying
+    @Query(value = """
+            UPDATE product p SET review_count = c.reviews
+            FROM (SELECT product_id, count(*) AS reviews FROM review WHERE parent_id IS NULL GROUP BY product_id) c
+            WHERE p.id = c.product_id
+            """, nativeQuery = true)
+    int seedReviewCounts();
+
 }
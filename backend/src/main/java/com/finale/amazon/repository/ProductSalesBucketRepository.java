@@ -0,0 +1,66 @@
+package com.finale.amazon.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ProductSalesBucket;
+import com.finale.amazon.entity.ProductSalesBucket.Granularity;
+
+@Repository
+public interface ProductSalesBucketRepository extends JpaRepository<ProductSalesBucket, Long> {
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO product_sales_buckets
+                    (seller_id, product_id, granularity, bucket_start, units_sold, revenue, orders, cancellations, views)
+                VALUES (:sellerId, :productId, :granularity, :bucketStart, :unitsSold, :revenue, :orders, :cancellations, :views)
+                ON CONFLICT (product_id, granularity, bucket_start) DO UPDATE SET
+                    seller_id = EXCLUDED.seller_id,
+                    units_sold = product_sales_buckets.units_sold + EXCLUDED.units_sold,
+                    revenue = product_sales_buckets.revenue + EXCLUDED.revenue,
+                    orders = product_sales_buckets.orders + EXCLUDED.orders,
+                    cancellations = product_sales_buckets.cancellations + EXCLUDED.cancellations,
+                    views = product_sales_buckets.views + EXCLUDED.views
+            """, nativeQuery = true)
+    void increment(@Param("sellerId") long sellerId, @Param("productId") long productId,
+            @Param("granularity") String granularity, @Param("bucketStart") LocalDate bucketStart,
+            @Param("unitsSold") long unitsSold, @Param("revenue") double revenue, @Param("orders") long orders,
+            @Param("cancellations") long cancellations, @Param("views") long views);
+
+    // Folds day buckets older than the cutoff into week/month buckets; each day is folded once and then deleted
+    @Modifying
+    @Query(value = """
+                INSERT INTO product_sales_buckets
+                    (seller_id, product_id, granularity, bucket_start, units_sold, revenue, orders, cancellations, views)
+                SELECT MAX(seller_id), product_id, :granularity, CAST(date_trunc(:field, bucket_start) AS date),
+                       SUM(units_sold), SUM(revenue), SUM(orders), SUM(cancellations), SUM(views)
+                FROM product_sales_buckets
+                WHERE granularity = 'DAY' AND bucket_start < :cutoff
+                GROUP BY product_id, 4
+                ON CONFLICT (product_id, granularity, bucket_start) DO UPDATE SET
+                    seller_id = EXCLUDED.seller_id,
+                    units_sold = product_sales_buckets.units_sold + EXCLUDED.units_sold,
+                    revenue = product_sales_buckets.revenue + EXCLUDED.revenue,
+                    orders = product_sales_buckets.orders + EXCLUDED.orders,
+                    cancellations = product_sales_buckets.cancellations + EXCLUDED.cancellations,
+                    views = product_sales_buckets.views + EXCLUDED.views
+            """, nativeQuery = true)
+    int foldDaysInto(@Param("granularity") String granularity, @Param("field") String field,
+            @Param("cutoff") LocalDate cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ProductSalesBucket b WHERE b.granularity = com.finale.amazon.entity.ProductSalesBucket.Granularity.DAY AND b.bucketStart < :cutoff")
+    int deleteDaysBefore(@Param("cutoff") LocalDate cutoff);
+
+    List<ProductSalesBucket> findBySellerIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(long sellerId,
+            Granularity granularity, LocalDate from, LocalDate to);
+
+    List<ProductSalesBucket> findBySellerIdAndProductIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+            long sellerId, long productId, Granularity granularity, LocalDate from, LocalDate to);
+}
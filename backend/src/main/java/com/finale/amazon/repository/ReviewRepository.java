@@ -1,23 +1,212 @@
 package com.finale.amazon.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.finale.amazon.entity.Review;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    Optional<List<Review>> findByProduct_seller_Username(String seller);
-    
-    // Find all reviews for a product
-    List<Review> findByProductId(Long productId);
-    
-    // Find top-level reviews (where parent is null)
-    List<Review> findByProductIdAndParentIsNull(Long productId);
-    
-    // Find all replies for a specific review
-    List<Review> findByParentId(Long parentId);
-}
\ No newline at end of file
+    // Flat row of the review feed: author and role come from the same query instead of eager entity loads
+    interface ReviewRow {
+        Long getId();
+
+        String getDescription();
+
+        double getStars();
+
+        LocalDateTime getDate();
+
+        Long getParentId();
+
+        Long getProductId();
+
+        long getHelpfulCount();
+
+        long getUnhelpfulCount();
+
+        Long getUserId();
+
+        String getUsername();
+
+        String getRoleName();
+    }
+
+    interface ReplyRow extends ReviewRow {
+        // 1-based position of the reply under its parent, oldest first
+        long getPosition();
+
+        long getReplyCount();
+    }
+
+    interface SellerReviewRow extends ReviewRow {
+        String getProductName();
+
+        boolean getReplied();
+    }
+
+    // What replying needs to know about the parent, without loading it
+    interface ReplyTarget {
+        Long getProductId();
+
+        Long getParentId();
+
+        Long getSellerId();
+    }
+
+    interface VoteTarget {
+        Long getAuthorId();
+
+        Long getParentId();
+
+        long getHelpfulCount();
+
+        long getUnhelpfulCount();
+    }
+
+    String ROW_SELECT = """
+            SELECT r.id AS id, r.description AS description, r.stars AS stars, r.date AS date,
+                   r.parent_id AS parentId, r.product_id AS productId, r.helpful_count AS helpfulCount,
+                   r.unhelpful_count AS unhelpfulCount, u.id AS userId, u.username AS username, ro.name AS roleName
+            FROM review r
+            LEFT JOIN users u ON u.id = r.user_id
+            LEFT JOIN user_role ur ON ur.id = u.id
+            LEFT JOIN role ro ON ro.id = ur.role_id
+            """;
+
+    String FEED_SELECT = ROW_SELECT + """
+            WHERE r.product_id = :productId AND r.parent_id IS NULL
+            """;
+
+    @Query(value = ROW_SELECT + "WHERE r.id = :id", nativeQuery = true)
+    Optional<ReviewRow> findRowById(@Param("id") Long id);
+
+    @Query("""
+            SELECT p.id AS productId, r.parent.id AS parentId, s.id AS sellerId
+            FROM Review r LEFT JOIN r.product p LEFT JOIN p.seller s
+            WHERE r.id = :id
+            """)
+    Optional<ReplyTarget> findReplyTarget(@Param("id") Long id);
+
+    @Query("""
+            SELECT r.user.id AS authorId, r.parent.id AS parentId,
+                   r.helpfulCount AS helpfulCount, r.unhelpfulCount AS unhelpfulCount
+            FROM Review r WHERE r.id = :id
+            """)
+    Optional<VoteTarget> findVoteTarget(@Param("id") Long id);
+
+    // Applies drained vote deltas in one statement; returns the product of every updated review
+    @Query(value = """
+            UPDATE review r
+            SET helpful_count = r.helpful_count + v.helpful, unhelpful_count = r.unhelpful_count + v.unhelpful
+            FROM unnest(:ids, :helpful, :unhelpful) AS v(id, helpful, unhelpful)
+            WHERE r.id = v.id
+            RETURNING r.product_id
+            """, nativeQuery = true)
+    List<Long> addVoteCounts(@Param("ids") Long[] ids, @Param("helpful") Long[] helpful,
+            @Param("unhelpful") Long[] unhelpful);
+
+    boolean existsByParent_IdAndUser_Id(Long parentId, Long userId);
+
+    // Row lock on a review until commit; serializes the seller's replies to it
+    @Query(value = "SELECT id FROM review WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    long countByParent_Id(Long parentId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE review r SET seller_id = p.seller_id
+            FROM product p
+            WHERE p.id = r.product_id AND r.seller_id IS NULL AND p.seller_id IS NOT NULL
+            """, nativeQuery = true)
+    int backfillSellerIds();
+
+    // Top-level reviews of the seller's products, newest first; replied means the seller answered it.
+    // Null filters are skipped; the casts give Postgres a type for null date parameters
+    @Query(value = """
+            SELECT r.id AS id, r.description AS description, r.stars AS stars, r.date AS date,
+                   r.parent.id AS parentId, p.id AS productId, r.helpfulCount AS helpfulCount,
+                   r.unhelpfulCount AS unhelpfulCount, u.id AS userId, u.username AS username,
+                   ro.name AS roleName, p.name AS productName,
+                   CASE WHEN EXISTS (SELECT 1 FROM Review rep WHERE rep.parent = r AND rep.user.id = r.sellerId)
+                        THEN true ELSE false END AS replied
+            FROM Review r JOIN r.product p LEFT JOIN r.user u LEFT JOIN u.role ro
+            WHERE r.sellerId = :sellerId AND r.parent IS NULL
+              AND (:stars IS NULL OR r.stars = :stars)
+              AND (cast(:from AS LocalDateTime) IS NULL OR r.date >= :from)
+              AND (cast(:to AS LocalDateTime) IS NULL OR r.date < :to)
+              AND (:replied IS NULL
+                   OR (:replied = true AND EXISTS (SELECT 1 FROM Review rep WHERE rep.parent = r AND rep.user.id = r.sellerId))
+                   OR (:replied = false AND NOT EXISTS (SELECT 1 FROM Review rep WHERE rep.parent = r AND rep.user.id = r.sellerId)))
+            ORDER BY r.date DESC NULLS LAST, r.id DESC
+            """, countQuery = """
+            SELECT count(r) FROM Review r
+            WHERE r.sellerId = :sellerId AND r.parent IS NULL
+              AND (:stars IS NULL OR r.stars = :stars)
+              AND (cast(:from AS LocalDateTime) IS NULL OR r.date >= :from)
+              AND (cast(:to AS LocalDateTime) IS NULL OR r.date < :to)
+              AND (:replied IS NULL
+                   OR (:replied = true AND EXISTS (SELECT 1 FROM Review rep WHERE rep.parent = r AND rep.user.id = r.sellerId))
+                   OR (:replied = false AND NOT EXISTS (SELECT 1 FROM Review rep WHERE rep.parent = r AND rep.user.id = r.sellerId)))
+            """)
+    Page<SellerReviewRow> findSellerFeed(@Param("sellerId") Long sellerId, @Param("stars") Double stars,
+            @Param("replied") Boolean replied, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    // Keyset pages: each query continues strictly after the (sort key, id) of the previous page's last row
+    @Query(value = FEED_SELECT + """
+            AND r.id < :beforeId
+            ORDER BY r.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ReviewRow> findFeedNewest(@Param("productId") Long productId, @Param("beforeId") long beforeId,
+            @Param("limit") int limit);
+
+    @Query(value = FEED_SELECT + """
+            AND (r.stars, r.id) < (:stars, :beforeId)
+            ORDER BY r.stars DESC, r.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ReviewRow> findFeedByStars(@Param("productId") Long productId, @Param("stars") double stars,
+            @Param("beforeId") long beforeId, @Param("limit") int limit);
+
+    @Query(value = FEED_SELECT + """
+            AND (r.helpful_count, r.id) < (:helpful, :beforeId)
+            ORDER BY r.helpful_count DESC, r.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ReviewRow> findFeedByHelpful(@Param("productId") Long productId, @Param("helpful") long helpful,
+            @Param("beforeId") long beforeId, @Param("limit") int limit);
+
+    // First replies of every parent plus its reply count in one pass; the first reply is always returned
+    // so the count is known even when no replies are wanted
+    @Query(value = """
+            SELECT x.id AS id, x.description AS description, x.stars AS stars, x.date AS date,
+                   x.parent_id AS parentId, x.product_id AS productId, x.helpful_count AS helpfulCount,
+                   x.unhelpful_count AS unhelpfulCount, u.id AS userId, u.username AS username, ro.name AS roleName,
+                   x.position AS position, x.reply_count AS replyCount
+            FROM (
+                SELECT r.*, row_number() OVER (PARTITION BY r.parent_id ORDER BY r.id) AS position,
+                       count(*) OVER (PARTITION BY r.parent_id) AS reply_count
+                FROM review r WHERE r.parent_id IN (:parentIds)
+            ) x
+            LEFT JOIN users u ON u.id = x.user_id
+            LEFT JOIN user_role ur ON ur.id = u.id
+            LEFT JOIN role ro ON ro.id = ur.role_id
+            WHERE x.position <= greatest(:perParent, 1)
+            ORDER BY x.parent_id, x.position
+            """, nativeQuery = true)
+    List<ReplyRow> findFirstReplies(@Param("parentIds") Collection<Long> parentIds,
+            @Param("perParent") int perParent);
+}
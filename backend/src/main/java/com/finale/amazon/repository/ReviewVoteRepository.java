@@ -0,0 +1,40 @@
+package com.finale.amazon.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.ReviewVote;
+
+@Repository
+public interface ReviewVoteRepository extends JpaRepository<ReviewVote, Long> {
+
+    // Empty when the user already voted on the review
+    @Query(value = """
+            INSERT INTO review_votes (review_id, user_id, helpful, created_at)
+            VALUES (:reviewId, :userId, :helpful, now())
+            ON CONFLICT (review_id, user_id) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("reviewId") Long reviewId, @Param("userId") Long userId,
+            @Param("helpful") boolean helpful);
+
+    // Empty when there is no vote or it already has this value
+    @Query(value = """
+            UPDATE review_votes SET helpful = :helpful
+            WHERE review_id = :reviewId AND user_id = :userId AND helpful <> :helpful
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Long> changeVote(@Param("reviewId") Long reviewId, @Param("userId") Long userId,
+            @Param("helpful") boolean helpful);
+
+    // Returns the removed vote's value
+    @Query(value = """
+            DELETE FROM review_votes WHERE review_id = :reviewId AND user_id = :userId
+            RETURNING helpful
+            """, nativeQuery = true)
+    Optional<Boolean> deleteVote(@Param("reviewId") Long reviewId, @Param("userId") Long userId);
+}
@@ -0,0 +1,143 @@
+package com.finale.amazon.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.SellerOrder;
+
+@Repository
+public interface SellerOrderRepository extends JpaRepository<SellerOrder, Long> {
+
+    interface SellerOrderStatusRow {
+        Long getId();
+
+        Long getOrderId();
+
+        String getStatus();
+    }
+
+    interface SellerOrderRow {
+        Long getId();
+
+        Long getOrderId();
+
+        Long getUserId();
+
+        String getStatus();
+
+        double getPrice();
+
+        LocalDateTime getOrderDate();
+
+        LocalDateTime getShipmentDate();
+
+        LocalDateTime getArrivalDate();
+    }
+
+    // Seller order lists are read as flat rows; loading SellerOrder entities pulls in the eager order,
+    // user and product graphs one row at a time
+    String ROW_SELECT = """
+                SELECT so.id AS id, so.order_id AS orderId, o.user_id AS userId, s.name AS status, so.price AS price,
+                       so.order_date AS orderDate, so.shipment_date AS shipmentDate, so.arrival_date AS arrivalDate
+                FROM seller_orders so
+                JOIN orders o ON o.id = so.order_id
+                LEFT JOIN order_status s ON s.id = so.order_status_id
+            """;
+
+    @Query(value = ROW_SELECT + """
+                WHERE so.seller_id = :sellerId
+                ORDER BY so.id DESC
+            """, nativeQuery = true)
+    List<SellerOrderRow> findRowsBySellerId(@Param("sellerId") Long sellerId);
+
+    @Query(value = ROW_SELECT + """
+                WHERE so.order_id = :orderId AND so.seller_id = :sellerId
+            """, nativeQuery = true)
+    Optional<SellerOrderRow> findRowByOrderIdAndSellerId(@Param("orderId") Long orderId,
+            @Param("sellerId") Long sellerId);
+
+    long countBySeller_Id(Long sellerId);
+
+    long countBySeller_IdAndOrderStatus_NameIn(Long sellerId, List<String> statusNames);
+
+    @Query("SELECT COALESCE(SUM(so.price), 0) FROM SellerOrder so WHERE so.seller.id = :sellerId AND so.orderStatus.name = :statusName")
+    double sumPriceBySellerIdAndStatusName(@Param("sellerId") Long sellerId, @Param("statusName") String statusName);
+
+    @Query(value = """
+                SELECT so.id AS id, so.order_id AS orderId, s.name AS status
+                FROM seller_orders so JOIN order_status s ON s.id = so.order_status_id
+                WHERE so.order_id IN :orderIds AND so.seller_id = :sellerId
+                ORDER BY so.id
+                FOR UPDATE OF so
+            """, nativeQuery = true)
+    List<SellerOrderStatusRow> lockStatusesByOrderIdInAndSellerId(@Param("orderIds") Collection<Long> orderIds,
+            @Param("sellerId") Long sellerId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+                UPDATE seller_orders SET
+                    order_status_id = :statusId,
+                    shipment_date = CASE WHEN :stampShipment THEN :now ELSE shipment_date END,
+                    arrival_date = CASE WHEN :stampArrival THEN :now ELSE arrival_date END
+                WHERE id IN :ids
+            """, nativeQuery = true)
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("statusId") long statusId,
+            @Param("stampShipment") boolean stampShipment, @Param("stampArrival") boolean stampArrival,
+            @Param("now") LocalDateTime now);
+
+    // Order-level transitions (admin, customer cancellation) apply to every seller's part
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+                UPDATE seller_orders SET
+                    order_status_id = :statusId,
+                    shipment_date = CASE WHEN :stampShipment THEN :now ELSE shipment_date END,
+                    arrival_date = CASE WHEN :stampArrival THEN :now ELSE arrival_date END
+                WHERE order_id IN :orderIds
+            """, nativeQuery = true)
+    int updateStatusByOrderIdIn(@Param("orderIds") Collection<Long> orderIds, @Param("statusId") long statusId,
+            @Param("stampShipment") boolean stampShipment, @Param("stampArrival") boolean stampArrival,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM seller_orders WHERE order_id IN :orderIds", nativeQuery = true)
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Backfill for orders placed before checkout split them per seller
+
+    @Query(value = """
+                SELECT DISTINCT oi.order_id FROM order_items oi JOIN product p ON p.id = oi.product_id
+                WHERE oi.seller_order_id IS NULL AND p.seller_id IS NOT NULL AND oi.order_id > :afterId
+                ORDER BY oi.order_id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findUnsplitOrderIds(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO seller_orders (order_id, seller_id, order_status_id, price, order_date, shipment_date, arrival_date)
+                SELECT o.id, p.seller_id, o.order_status_id, SUM(oi.total_price), o.order_date, o.shipment_date, o.arrival_date
+                FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN product p ON p.id = oi.product_id
+                WHERE o.id IN :orderIds AND oi.seller_order_id IS NULL AND p.seller_id IS NOT NULL
+                GROUP BY o.id, p.seller_id, o.order_status_id, o.order_date, o.shipment_date, o.arrival_date
+                ON CONFLICT (order_id, seller_id) DO NOTHING
+            """, nativeQuery = true)
+    int insertSplitsForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query(value = """
+                UPDATE order_items oi SET seller_order_id = so.id
+                FROM product p, seller_orders so
+                WHERE oi.order_id IN :orderIds AND oi.seller_order_id IS NULL
+                  AND p.id = oi.product_id AND so.order_id = oi.order_id
+                  AND so.seller_id = p.seller_id
+            """, nativeQuery = true)
+    int linkItemsForOrders(@Param("orderIds") Collection<Long> orderIds);
+}
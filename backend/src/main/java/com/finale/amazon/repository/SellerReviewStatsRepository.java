@@ -0,0 +1,62 @@
+package com.finale.amazon.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.finale.amazon.entity.SellerReviewStats;
+
+@Repository
+public interface SellerReviewStatsRepository extends JpaRepository<SellerReviewStats, Long> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO seller_review_stats (seller_id, review_count, stars_sum, unreplied_count)
+            VALUES (:sellerId, :reviews, :stars, :unreplied)
+            ON CONFLICT (seller_id) DO UPDATE SET
+                review_count = seller_review_stats.review_count + excluded.review_count,
+                stars_sum = seller_review_stats.stars_sum + excluded.stars_sum,
+                unreplied_count = seller_review_stats.unreplied_count + excluded.unreplied_count
+            """, nativeQuery = true)
+    void addDelta(@Param("sellerId") Long sellerId, @Param("reviews") long reviews, @Param("stars") double stars,
+            @Param("unreplied") long unreplied);
+
+    // The seller answered a review for the first time; never below zero should the count have drifted
+    @Modifying
+    @Query(value = """
+            UPDATE seller_review_stats SET unreplied_count = GREATEST(unreplied_count - 1, 0)
+            WHERE seller_id = :sellerId
+            """, nativeQuery = true)
+    void markReplied(@Param("sellerId") Long sellerId);
+
+    // For bulk removals (deleted reviews and products), where a delta is not known up front
+    @Modifying
+    @Query(value = """
+            INSERT INTO seller_review_stats (seller_id, review_count, stars_sum, unreplied_count)
+            SELECT :sellerId, count(*), coalesce(sum(r.stars), 0),
+                   count(*) FILTER (WHERE NOT EXISTS (
+                       SELECT 1 FROM review rep WHERE rep.parent_id = r.id AND rep.user_id = r.seller_id))
+            FROM review r
+            WHERE r.seller_id = :sellerId AND r.parent_id IS NULL
+            ON CONFLICT (seller_id) DO UPDATE SET
+                review_count = excluded.review_count,
+                stars_sum = excluded.stars_sum,
+                unreplied_count = excluded.unreplied_count
+            """, nativeQuery = true)
+    void recompute(@Param("sellerId") Long sellerId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO seller_review_stats (seller_id, review_count, stars_sum, unreplied_count)
+            SELECT r.seller_id, count(*), sum(r.stars),
+                   count(*) FILTER (WHERE NOT EXISTS (
+                       SELECT 1 FROM review rep WHERE rep.parent_id = r.id AND rep.user_id = r.seller_id))
+            FROM review r
+            WHERE r.seller_id IS NOT NULL AND r.parent_id IS NULL
+            GROUP BY r.seller_id
+            ON CONFLICT (seller_id) DO NOTHING
+            """, nativeQuery = true)
+    int seedAll();
+}
@@ -0,0 +1,52 @@
+package com.finale.amazon.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.finale.amazon.entity.User;
+
+/**
+ * What a request needs to know about its user, resolved once from the principal cache by
+ * {@link JwtAuthenticationFilter} (kept in the security context for the rest of the request) or, for handlers
+ * given the token as a parameter, by {@link AuthenticatedUserArgumentResolver}. The username is the email,
+ * so {@code authentication.getName()} keeps returning it.
+ */
+public record AuthenticatedUser(Long id, String email, String role, boolean blocked, boolean emailVerified)
+        implements UserDetails {
+
+    public AuthenticatedUser(User user) {
+        this(user.getId(), user.getEmail(), user.getRole() != null ? user.getRole().getName() : null,
+                user.isBlocked(), user.isEmailVerified());
+    }
+
+    // The principal the filter resolved for this request, or null when the request carried no valid bearer token
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user ? user : null;
+    }
+
+    public boolean hasRole(String roleName) {
+        return roleName.equalsIgnoreCase(role);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role != null ? List.of(new SimpleGrantedAuthority("ROLE_" + role)) : List.of();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
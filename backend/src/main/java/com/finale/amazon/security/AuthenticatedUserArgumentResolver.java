@@ -0,0 +1,41 @@
+package com.finale.amazon.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Fills controller parameters of type {@link AuthenticatedUser} with the principal {@link JwtAuthenticationFilter}
+ * resolved from the bearer header or, failing that, from the request's {@code token} parameter, so a handler never
+ * parses the token itself. A request without a valid token fails with {@link InvalidTokenException}, answered with
+ * a 400 by {@code ApiExceptionHandler}.
+ */
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private TokenAuthenticator tokenAuthenticator;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        AuthenticatedUser user = AuthenticatedUser.current();
+        if (user == null) {
+            String token = webRequest.getParameter("token");
+            user = token != null ? tokenAuthenticator.authenticate(token) : null;
+        }
+        if (user == null) {
+            throw new InvalidTokenException();
+        }
+        return user;
+    }
+}
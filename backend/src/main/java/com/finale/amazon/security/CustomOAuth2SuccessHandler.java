@@ -2,20 +2,26 @@ package com.finale.amazon.security;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
 
 import com.finale.amazon.entity.User;
+import com.finale.amazon.service.GuestCartService;
 import com.finale.amazon.service.UserService;
 
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 @Component
@@ -27,6 +33,8 @@ public class CustomOAuth2SuccessHandler implements AuthenticationSuccessHandler
     private JwtUtil jwtUtil;
     @Autowired
     private UserService userService;
+    @Autowired
+    private GuestCartService guestCartService;
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
@@ -40,6 +48,25 @@ public class CustomOAuth2SuccessHandler implements AuthenticationSuccessHandler
         User user = userService.getUserByEmail(email).orElse(userService.createByEmail(email));
         String token = jwtUtil.generateToken(user);
         String redirectUrl = frontendUrl + "/oauth2/success?token=" + token;
+        Cookie guestCart = WebUtils.getCookie(request, GuestCartService.COOKIE_NAME);
+        if (guestCart != null) {
+            redirectUrl += mergeGuestCart(user, guestCart.getValue(), response);
+        }
         response.sendRedirect(redirectUrl);
     }
+
+    // Same as a password login: a guest cart that cannot be merged does not fail the login, the redirect says so
+    // and the cookie is kept, so the next login tries again
+    private String mergeGuestCart(User user, String guestCart, HttpServletResponse response) {
+        if (!"SELLER".equalsIgnoreCase(user.getRole().getName())) {
+            try {
+                guestCartService.mergeIntoUser(user.getId(), guestCart);
+            } catch (RuntimeException e) {
+                return "&guestCartError=" + URLEncoder.encode("Guest cart could not be merged into your cart",
+                        StandardCharsets.UTF_8);
+            }
+        }
+        response.addHeader(HttpHeaders.SET_COOKIE, guestCartService.clearCookie().toString());
+        return "";
+    }
 }
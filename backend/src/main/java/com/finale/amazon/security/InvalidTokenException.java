@@ -0,0 +1,8 @@
+package com.finale.amazon.security;
+
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException() {
+        super("Token is expired or invalid");
+    }
+}
@@ -1,11 +1,11 @@
 package com.finale.amazon.security;
 
-import com.finale.amazon.service.CustomUserDetailsService;
+import com.finale.amazon.config.WebSocketConfig;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -19,10 +19,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private TokenAuthenticator tokenAuthenticator;
 
     @Value("spring.security.oauth2.client.registration.google.client-id")
     private String jwtSecret;
@@ -39,24 +36,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Browsers cannot set headers on the WebSocket handshake, so only that path may carry the token as a
+        // parameter; REST handlers read their "token" parameter themselves or through AuthenticatedUser
         final String authHeader = request.getHeader("Authorization");
-        String email = null;
-        String token = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            try {
-                email = jwtUtil.extractSubject(token);
-            } catch (Exception e) {
-                // invalid token
-            }
-        }
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            if (jwtUtil.validateToken(token, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
-                        null, userDetails.getAuthorities());
+        String token = authHeader != null && authHeader.startsWith("Bearer ")
+                ? authHeader.substring(7)
+                : path.startsWith(WebSocketConfig.ENDPOINT) ? request.getParameter("token") : null;
+
+        // Parsed once here; the principal comes from the cache and controllers get the same instance through
+        // AuthenticatedUser.current() or an AuthenticatedUser parameter
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser user = tokenAuthenticator.authenticate(token);
+            if (user != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(user,
+                        null, user.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
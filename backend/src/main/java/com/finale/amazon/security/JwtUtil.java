@@ -1,21 +1,32 @@
 package com.finale.amazon.security;
 
 import com.finale.amazon.entity.User;
+import com.finale.amazon.service.LruCache;
 import com.finale.amazon.service.UserService;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 @Component
 public class JwtUtil {
 
@@ -31,6 +42,17 @@ public class JwtUtil {
     @Value("${jwt.long-expiration:604800000}") // 7 days default
     private long longExpiration;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheSize;
+
+    // Built once: the parser is immutable and thread-safe, and the key is the same base64-decoded secret
+    // the tokens are signed with
+    private volatile JwtParser parser;
+
+    // Claims of tokens whose signature was already checked, keyed by the token's SHA-256 and kept until the
+    // token expires; least recently used entries go first
+    private volatile LruCache<String, Claims> verified;
+
 
     public String extractSubject(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -57,8 +79,54 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+    // Throws like the parser does for a bad signature, a malformed or an expired token; TokenAuthenticator
+    // reads all claims once per request, everything else goes through the typed getters
+    Claims extractAllClaims(String token) {
+        String key = hash(token);
+        LruCache<String, Claims> cache = verifiedCache();
+        Claims claims = cache.get(key);
+        if (claims != null && claims.getExpiration() != null && claims.getExpiration().after(new Date())) {
+            return claims;
+        }
+        if (claims != null) {
+            cache.remove(key);
+        }
+        claims = parser().parseClaimsJws(token).getBody();
+        cache.put(key, claims);
+        return claims;
+    }
+
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder()
+                    .setSigningKey(new SecretKeySpec(Decoders.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName()))
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
+    private LruCache<String, Claims> verifiedCache() {
+        LruCache<String, Claims> current = verified;
+        if (current == null) {
+            synchronized (this) {
+                if (verified == null) {
+                    verified = new LruCache<>(verifiedCacheSize);
+                }
+                current = verified;
+            }
+        }
+        return current;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     public Boolean isTokenExpired(String token) {
@@ -96,8 +164,21 @@ public class JwtUtil {
                 .compact();
     }
 
+    // HMAC-SHA256 under the JWT secret for non-JWT values; the purpose is mixed in so one signed value can't pass as another
+    public byte[] sign(String purpose, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update(purpose.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
     public Boolean validateToken(String token, String email) {
-        final String username = extractSubject(token);
-        return (username.equals(email) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(email) && !claims.getExpiration().before(new Date()));
     }
 }
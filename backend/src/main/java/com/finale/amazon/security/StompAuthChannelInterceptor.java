@@ -0,0 +1,75 @@
+package com.finale.amazon.security;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the JWT once, on the STOMP CONNECT frame, and binds the user id as the session principal.
+ * Later frames are only checked against that principal: subscriptions are limited to the user's own
+ * {@code /user/...} destinations and sends to {@code /app/...}, so nobody can read or inject into
+ * another user's queue.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(message, accessor));
+            case SUBSCRIBE -> requireDestination(message, accessor, "/user/");
+            case SEND -> requireDestination(message, accessor, "/app/");
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    // Token comes as "Authorization: Bearer ..." or, like the REST endpoints, as a plain "token" header
+    private UsernamePasswordAuthenticationToken authenticate(Message<?> message, StompHeaderAccessor accessor) {
+        String token = accessor.getFirstNativeHeader("token");
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (token == null && authHeader != null && authHeader.startsWith("Bearer ")) {
+            token = authHeader.substring(7);
+        }
+        if (token == null) {
+            throw new MessageDeliveryException(message, "Token is missing");
+        }
+        try {
+            if (jwtUtil.isTokenExpired(token)) {
+                throw new MessageDeliveryException(message, "Token expired");
+            }
+            Long userId = jwtUtil.extractUserId(token);
+            String role = jwtUtil.extractRole(token);
+            return new UsernamePasswordAuthenticationToken(String.valueOf(userId), null,
+                    role != null ? List.of(new SimpleGrantedAuthority("ROLE_" + role)) : List.of());
+        } catch (MessageDeliveryException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new MessageDeliveryException(message, "Invalid token");
+        }
+    }
+
+    private void requireDestination(Message<?> message, StompHeaderAccessor accessor, String prefix) {
+        String destination = accessor.getDestination();
+        if (accessor.getUser() == null || destination == null || !destination.startsWith(prefix)) {
+            throw new MessageDeliveryException(message, "Destination not allowed: " + destination);
+        }
+    }
+}
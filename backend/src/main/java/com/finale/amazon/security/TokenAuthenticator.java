@@ -0,0 +1,39 @@
+package com.finale.amazon.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.finale.amazon.service.CustomUserDetailsService;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Turns a JWT into the {@link AuthenticatedUser} it belongs to, through the principal cache. Shared by
+ * {@link JwtAuthenticationFilter} (bearer header) and {@link AuthenticatedUserArgumentResolver}
+ * ({@code token} parameter), so both accept exactly the same tokens.
+ */
+@Component
+class TokenAuthenticator {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    // Null when the token is invalid, expired or no longer matches its user
+    AuthenticatedUser authenticate(String token) {
+        Claims claims;
+        try {
+            claims = jwtUtil.extractAllClaims(token);
+        } catch (Exception e) {
+            return null;
+        }
+        Long userId = claims.get("userId", Long.class);
+        if (userId == null) {
+            return null;
+        }
+        AuthenticatedUser user = userDetailsService.loadAuthenticatedUser(userId);
+        return user != null && user.email().equals(claims.getSubject()) ? user : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.finale.amazon.service;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.finale.amazon.security.AuthenticatedUser;
+
+/**
+ * Authenticated principals by user id, so the JWT filter does not select the user on every request.
+ * Entries live for {@code auth.principal-cache.ttl-ms} at most, the least recently used are evicted past
+ * {@code auth.principal-cache.max-users}, and they are dropped after commit whenever the email, role,
+ * blocked or verified flag changes. An invalidation during a load bumps the stamp, so the load is not kept.
+ */
+@Service
+public class AuthenticatedUserCache {
+
+    private final LruCache<Long, AuthenticatedUser> entries;
+
+    public AuthenticatedUserCache(@Value("${auth.principal-cache.max-users:100000}") int maxUsers,
+            @Value("${auth.principal-cache.ttl-ms:30000}") long ttlMs) {
+        this.entries = new LruCache<>(maxUsers, ttlMs);
+    }
+
+    // Null when the loader finds no such user; misses are not cached
+    public AuthenticatedUser get(Long userId, Function<Long, AuthenticatedUser> loader) {
+        AuthenticatedUser user = entries.get(userId);
+        if (user != null) {
+            return user;
+        }
+        long stamp = entries.stamp(userId);
+        AuthenticatedUser loaded = loader.apply(userId);
+        if (loaded == null) {
+            return null;
+        }
+        AuthenticatedUser cached = entries.putIfCurrent(userId, stamp, loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> entries.remove(userId));
+    }
+}
@@ -1,66 +1,95 @@
 package com.finale.amazon.service;
 
+import com.finale.amazon.config.StartupSchema;
 import com.finale.amazon.dto.CartItemDto;
 import com.finale.amazon.entity.CartItem;
-import com.finale.amazon.entity.Product;
-import com.finale.amazon.entity.User;
 import com.finale.amazon.repository.CartItemRepository;
-import com.finale.amazon.repository.ProductRepository;
-import com.finale.amazon.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
-public class CartItemService {
+public class CartItemService implements SmartInitializingSingleton {
 
     @Autowired
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private StartupSchema startupSchema;
 
     @Autowired
-    private ProductRepository productRepository;
+    private CartTotalsCache cartTotalsCache;
+
+    @Value("${cart.add-many.max-batch:200}")
+    private int maxBatch;
 
 
     private void Authorize(Long userId, Long cartItemUserId){
         if(userId != cartItemUserId) throw new RuntimeException("Unauthorized");
     }
 
-    @Transactional(readOnly = true)
-    public List<CartItem> getCartItemsByUserId(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        List<CartItem> items = cartItemRepository.findByUserWithMainPicture(user);
-        return items;
+    // Duplicate lines from before the unique key existed would block it, so their quantities are folded into one first.
+    // The cart upserts need the key, so it is built once every bean exists and before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupSchema.ensureUniqueKey("cart_items", CartItem.USER_PRODUCT_KEY, List.of("user_id", "product_id"),
+                List.of("quantity"));
     }
 
-    public CartItem addCartItem(Long userId,CartItemDto cartItemDto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        Product product = productRepository.findById(cartItemDto.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-
-        Optional<CartItem> existingItem = cartItemRepository.findByUser(user).stream()
-                .filter(item -> item.getProduct().getId() == product.getId())
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + cartItemDto.getQuantity());
-            return cartItemRepository.save(item);
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setUser(user);
-            newItem.setProduct(product);
-            newItem.setQuantity(cartItemDto.getQuantity());
-            return cartItemRepository.save(newItem);
+    @Transactional
+    public void addCartItem(Long userId, CartItemDto cartItemDto) {
+        if (cartItemDto.getProductId() == null || cartItemDto.getQuantity() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cart item");
+        }
+        if (cartItemRepository.upsert(userId, cartItemDto.getProductId(), cartItemDto.getQuantity()) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        cartTotalsCache.invalidateUser(userId);
+    }
+
+    @Transactional
+    public void addCartItems(Long userId, List<CartItemDto> cartItemDtos) {
+        if (cartItemDtos == null || cartItemDtos.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (CartItemDto dto : cartItemDtos) {
+            if (dto.getProductId() == null || dto.getQuantity() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cart item");
+            }
+            quantities.merge(dto.getProductId(), dto.getQuantity(), Integer::sum);
+        }
+        if (quantities.size() > maxBatch) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Too many cart items, max " + maxBatch);
+        }
+        if (upsertAll(userId, quantities) != quantities.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
         }
+        cartTotalsCache.invalidateUser(userId);
+    }
+
+    // Lenient variant for carts built elsewhere (guest carts): products deleted in the meantime are dropped
+    @Transactional
+    public int mergeCartItems(Long userId, Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        cartTotalsCache.invalidateUser(userId);
+        return upsertAll(userId, new TreeMap<>(quantities));
+    }
+
+    private int upsertAll(Long userId, Map<Long, Integer> quantities) {
+        return cartItemRepository.upsertAll(userId, quantities.keySet().toArray(Long[]::new),
+                quantities.values().toArray(Integer[]::new));
     }
 
     public CartItem updateQuantity(Long userId, Long id, int quantity) {
@@ -68,6 +97,7 @@ public class CartItemService {
         if (itemOpt.isPresent()) {
             CartItem item = itemOpt.get();
             Authorize(userId, item.getUser().getId());
+            cartTotalsCache.invalidateUser(userId);
             if (quantity <= 0) {
                 cartItemRepository.delete(item);
                 return null;
@@ -83,6 +113,7 @@ public class CartItemService {
         if (itemOpt.isPresent()) {
             Authorize(userId, itemOpt.get().getUser().getId());
             cartItemRepository.delete(itemOpt.get());
+            cartTotalsCache.invalidateUser(userId);
             return true;
         }
         return false;
@@ -90,6 +121,7 @@ public class CartItemService {
 
     @Transactional
     public void deleteAllItemsByUserId(Long userId){
-        cartItemRepository.deleteByUser(userRepository.findById(userId).get());
+        cartItemRepository.deleteAllByUserId(userId);
+        cartTotalsCache.invalidateUser(userId);
     }
 } 
\ No newline at end of file
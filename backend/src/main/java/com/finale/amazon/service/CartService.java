@@ -1,30 +1,76 @@
 package com.finale.amazon.service;
 
+import com.finale.amazon.dto.CartCheckoutRequestDto;
+import com.finale.amazon.dto.CartCheckoutResultDto;
 import com.finale.amazon.dto.CartItemDto;
+import com.finale.amazon.dto.CartItemResponseDto;
+import com.finale.amazon.dto.CartLineDto;
+import com.finale.amazon.dto.CartTotalsDto;
+import com.finale.amazon.dto.CartViewDto;
 import com.finale.amazon.dto.MessageDto;
-import com.finale.amazon.entity.CartItem;
+import com.finale.amazon.dto.OrderDto;
+import com.finale.amazon.dto.PriceMismatchDto;
+import com.finale.amazon.entity.Order;
+import com.finale.amazon.entity.Product;
+import com.finale.amazon.repository.CartItemRepository;
+import com.finale.amazon.repository.CartItemRepository.CartLine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class CartService {
     @Autowired
     private CartItemService cartItemService;
 
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartTotalsCache cartTotalsCache;
+
     @Transactional(readOnly = true)    
-    public List<CartItem> getCartItemsByUserId(Long userId) {
-        return cartItemService.getCartItemsByUserId(userId);
+    public List<CartItemResponseDto> getCartItems(Long userId) {
+        return cartItemRepository.findViewByUserId(userId).stream()
+                .map(CartLineDto::new)
+                .map(CartItemResponseDto::new)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public CartViewDto getCartView(Long userId) {
+        CartTotalsCache.Stamp stamp = cartTotalsCache.stamp(userId);
+        List<CartLineDto> lines = cartItemRepository.findViewByUserId(userId).stream()
+                .map(CartLineDto::new)
+                .toList();
+        CartTotalsDto totals = new CartTotalsDto(lines);
+        cartTotalsCache.put(userId, stamp, totals, lines.stream().map(CartLineDto::getProductId).toList());
+        return new CartViewDto(lines, totals);
+    }
+
+    public CartTotalsDto getCartTotals(Long userId) {
+        CartTotalsDto cached = cartTotalsCache.get(userId);
+        return cached != null ? cached : getCartView(userId).getTotals();
     }
 
     public void Add(Long userId, CartItemDto item) {
         cartItemService.addCartItem(userId, item);
     }
 
+    public void addAll(Long userId, List<CartItemDto> items) {
+        cartItemService.addCartItems(userId, items);
+    }
+
     public void removeCartItem(Long userId, Long cartItemId) {
         cartItemService.deleteCartItem(userId, cartItemId);
     }
@@ -33,4 +79,36 @@ public class CartService {
         cartItemService.deleteAllItemsByUserId(userId);
     }
 
+    // Cart -> order in one transaction; stops without side effects when prices moved and the shopper didn't accept it
+    @Transactional
+    public CartCheckoutResultDto checkout(Long userId, CartCheckoutRequestDto request) {
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (CartLine line : cartItemRepository.findLinesByUserId(userId)) {
+            quantities.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+        }
+        if (quantities.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cart is empty");
+        }
+        Map<Long, Product> products = orderService.loadProducts(quantities.keySet());
+
+        List<PriceMismatchDto> mismatches = new ArrayList<>();
+        if (request != null && request.getExpectedPrices() != null) {
+            for (Map.Entry<Long, Double> expected : request.getExpectedPrices().entrySet()) {
+                Product product = products.get(expected.getKey());
+                if (product != null && expected.getValue() != null
+                        && Math.abs(product.getPrice() - expected.getValue()) >= 0.005) {
+                    mismatches.add(new PriceMismatchDto(product.getId(), product.getName(), expected.getValue(),
+                            product.getPrice()));
+                }
+            }
+        }
+        if (!mismatches.isEmpty() && !request.isAcceptPriceChanges()) {
+            return new CartCheckoutResultDto(null, mismatches);
+        }
+
+        Order order = orderService.placeOrder(userId, quantities, products);
+        cartItemRepository.deleteAllByUserId(userId);
+        cartTotalsCache.invalidateUser(userId);
+        return new CartCheckoutResultDto(new OrderDto(order), mismatches);
+    }
 }
@@ -0,0 +1,102 @@
+package com.finale.amazon.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.finale.amazon.dto.CartTotalsDto;
+
+/**
+ * Per-user cart totals, dropped when the user's cart changes or when price/stock of a product in it
+ * changes. Invalidations run after commit and bump an epoch, so a read that started before the change
+ * can't put its stale result back: {@link #put} only stores when the epochs it read are still current.
+ * The least recently used users are evicted past {@code cart.totals-cache.max-users}, and entries expire
+ * after {@code cart.totals-cache.ttl-ms} in case a price changes without going through ProductService.
+ */
+@Service
+public class CartTotalsCache {
+
+    public record Stamp(long user, long products) {
+    }
+
+    private record Entry(CartTotalsDto totals, Collection<Long> productIds) {
+    }
+
+    private static final int STRIPES = 64;
+
+    private final LruCache<Long, Entry> entries;
+    // productId -> users whose cached totals include it
+    private final Map<Long, Set<Long>> usersByProduct = new ConcurrentHashMap<>();
+    private final AtomicLongArray userEpochs = new AtomicLongArray(STRIPES);
+    private final AtomicLong productEpoch = new AtomicLong();
+
+    public CartTotalsCache(@Value("${cart.totals-cache.max-users:50000}") int maxUsers,
+            @Value("${cart.totals-cache.ttl-ms:300000}") long ttlMs) {
+        this.entries = new LruCache<>(maxUsers, ttlMs, (userId, entry) -> unlink(userId, entry));
+    }
+
+    public CartTotalsDto get(Long userId) {
+        Entry entry = entries.get(userId);
+        return entry != null ? entry.totals() : null;
+    }
+
+    // Taken before reading the cart from the database
+    public Stamp stamp(Long userId) {
+        return new Stamp(userEpochs.get(stripe(userId)), productEpoch.get());
+    }
+
+    public void put(Long userId, Stamp stamp, CartTotalsDto totals, Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            usersByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+        entries.put(userId, new Entry(totals, productIds));
+        if (!stamp.equals(stamp(userId))) {
+            evict(userId);
+        }
+    }
+
+    public void invalidateUser(Long userId) {
+        AfterCommit.run(() -> {
+            userEpochs.incrementAndGet(stripe(userId));
+            evict(userId);
+        });
+    }
+
+    public void invalidateProducts(Collection<Long> productIds) {
+        AfterCommit.run(() -> {
+            productEpoch.incrementAndGet();
+            for (Long productId : productIds) {
+                Set<Long> users = usersByProduct.remove(productId);
+                if (users != null) {
+                    users.forEach(this::evict);
+                }
+            }
+        });
+    }
+
+    private void evict(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            unlink(userId, entry);
+        }
+    }
+
+    private void unlink(Long userId, Entry entry) {
+        for (Long productId : entry.productIds()) {
+            usersByProduct.computeIfPresent(productId, (id, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId & (STRIPES - 1));
+    }
+}
@@ -0,0 +1,32 @@
+package com.finale.amazon.service;
+
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.finale.amazon.dto.ChatEventDto;
+import com.finale.amazon.dto.MessageDto;
+
+@Service
+public class ChatPushService {
+
+    public static final String CHAT_QUEUE = "/queue/chat";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // After commit, so a client never sees a message that was rolled back; sessions are keyed by user id
+    @TransactionalEventListener(fallbackExecution = true)
+    public void push(ChatEventDto event) {
+        MessageDto message = event.getMessage();
+        Long first = message != null ? message.getSenderId() : event.getReaderId();
+        Long second = message != null ? message.getReceiverId() : event.getPartnerId();
+        messagingTemplate.convertAndSendToUser(String.valueOf(first), CHAT_QUEUE, event);
+        if (second != null && !Objects.equals(first, second)) {
+            messagingTemplate.convertAndSendToUser(String.valueOf(second), CHAT_QUEUE, event);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.finale.amazon.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.finale.amazon.config.StartupSchema;
+import com.finale.amazon.dto.MessageSearchHitDto;
+import com.finale.amazon.repository.MessageRepository;
+
+/**
+ * Full-text search over a user's chat history, backed by the {@code messages.search_vector} tsvector column
+ * and its GIN index. Vectors are filled in batches by {@link #indexPending()}, so a new or edited message
+ * becomes searchable a moment after it is sent rather than slowing the send down.
+ */
+@Service
+public class ChatSearchService {
+
+    // ddl-auto can't create these: search_vector is not mapped on Message, and @Index can't declare GIN or
+    // partial indexes. They are applied through StartupSchema on every start, so each must be re-runnable
+    private static final List<String> SEARCH_SCHEMA = List.of(
+            "ALTER TABLE messages ADD COLUMN IF NOT EXISTS search_vector tsvector",
+            "CREATE INDEX IF NOT EXISTS idx_messages_search_vector ON messages USING gin (search_vector)",
+            // Keeps finding the not yet indexed messages cheap once the backlog is done
+            "CREATE INDEX IF NOT EXISTS idx_messages_search_pending ON messages (id) WHERE search_vector IS NULL");
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private StartupSchema startupSchema;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${chat.search.index-batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.search.max-page-size:50}")
+    private int maxPageSize;
+
+    // The scheduler starts before ApplicationReadyEvent, so indexing waits for the column to exist
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndex() {
+        startupSchema.apply(SEARCH_SCHEMA);
+        ready = true;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.index-ms:2000}")
+    public void indexPending() {
+        if (!ready) {
+            return;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int indexed;
+        do {
+            indexed = tx.execute(status -> messageRepository.indexPending(batchSize));
+        } while (indexed == batchSize);
+    }
+
+    // Newest matches first; continues after the hit (`beforeAt`, `beforeId`), its createdAt and id, when given
+    public List<MessageSearchHitDto> search(Long userId, String query, LocalDateTime beforeAt, Long beforeId,
+            int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query is empty");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+        String trimmed = query.trim();
+        return (beforeId == null || beforeAt == null
+                ? messageRepository.search(userId, trimmed, pageSize)
+                : messageRepository.searchBefore(userId, trimmed, beforeAt, beforeId, pageSize))
+                .stream()
+                .map(MessageSearchHitDto::new)
+                .toList();
+    }
+}
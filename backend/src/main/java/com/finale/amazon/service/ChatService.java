@@ -1,21 +1,37 @@
 package com.finale.amazon.service;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.finale.amazon.dto.ChatEventDto;
+import com.finale.amazon.dto.ConversationSummaryDto;
 import com.finale.amazon.dto.MessageDto;
 import com.finale.amazon.dto.UserDto;
+import com.finale.amazon.entity.Conversation;
 import com.finale.amazon.entity.Message;
 import com.finale.amazon.entity.User;
+import com.finale.amazon.repository.ConversationRepository;
+import com.finale.amazon.repository.ConversationSummaryRepository;
 import com.finale.amazon.repository.MessageRepository;
+import com.finale.amazon.repository.MessageRepository.MessageRow;
 import com.finale.amazon.repository.UserRepository;
 
 import jakarta.transaction.Transactional;
@@ -27,7 +43,33 @@ public class ChatService {
     private MessageRepository messageRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ConversationRepository conversationRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxHistoryPageSize;
+
+    // Messages from before conversations existed are grouped into them once, the inbox rows are built once
+    // and rows without a read watermark get one from the old per-message flags
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversations() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            conversationRepository.backfillFromMessages();
+            messageRepository.backfillConversationIds();
+            if (conversationSummaryRepository.count() == 0) {
+                conversationSummaryRepository.seedAll();
+            }
+            conversationSummaryRepository.backfillReadWatermarks();
+        });
+    }
 
+    // Reading a message reads everything before it in the conversation
     @Transactional
     public MessageDto markMessageAsRead(Long messageId, Long userId) {
         Message message = messageRepository.findById(messageId)
@@ -37,14 +79,39 @@ public class ChatService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You are not allowed to mark this message as read");
         }
 
+        markConversationRead(message.getConversation().getId(), userId, messageId);
+        MessageDto dto = new MessageDto(message);
+        dto.setRead(true);
+        return dto;
+    }
 
-        message.setRead(true);
-        messageRepository.save(message);
-        return new MessageDto(message);
+    // Moves the user's read watermark up to the message `upToMessageId` (the latest message when null) in one
+    // UPDATE; the receipt is pushed to both participants only when the watermark moved
+    @Transactional
+    public ChatEventDto markConversationRead(Long conversationId, Long userId, Long upToMessageId) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conversation not found"));
+        Long lowId = conversation.getUserLow().getId();
+        Long highId = conversation.getUserHigh().getId();
+        if (!userId.equals(lowId) && !userId.equals(highId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You are not a participant of this conversation");
+        }
+        Long partnerId = userId.equals(lowId) ? highId : lowId;
+
+        Optional<Long> moved = conversationSummaryRepository.advanceReadWatermark(conversationId, userId,
+                upToMessageId != null ? upToMessageId : Long.MAX_VALUE);
+        Long lastRead = moved.or(() -> conversationSummaryRepository.findLastReadMessageId(conversationId, userId))
+                .orElse(0L);
+        ChatEventDto receipt = new ChatEventDto(conversationId, userId, partnerId, lastRead);
+        if (moved.isPresent()) {
+            eventPublisher.publishEvent(receipt);
+        }
+        return receipt;
     }
 
     @Transactional
     public MessageDto sendMessage(Long senderId, Long receiverId, String content) {
+        requireContent(content);
         User sender = userRepository.findById(senderId)
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
         User receiver = userRepository.findById(receiverId)
@@ -53,25 +120,35 @@ public class ChatService {
         Message message = new Message();
         message.setSender(sender);
         message.setReceiver(receiver);
+        message.setConversation(conversationRepository.getReferenceById(conversationIdFor(senderId, receiverId)));
         message.setContent(content);
         message.setCreatedAt(LocalDateTime.now());
 
         Message saved = messageRepository.save(message);
-        return new MessageDto(saved);
+        conversationSummaryRepository.recordSent(saved.getConversation().getId(), saved.getId(), senderId, receiverId,
+                content, saved.getCreatedAt());
+        MessageDto dto = new MessageDto(saved);
+        eventPublisher.publishEvent(new ChatEventDto(ChatEventDto.Type.SENT, dto));
+        return dto;
     }
 
-    public List<MessageDto> getMessagesBetweenUsers(Long userId1, Long userId2) {
-        User user1 = userRepository.findById(userId1).orElseThrow();
-        User user2 = userRepository.findById(userId2).orElseThrow();
-
-        List<Message> messages = messageRepository.findBySenderAndReceiverOrderByCreatedAtAsc(user1, user2);
-        messages.addAll(messageRepository.findBySenderAndReceiverOrderByCreatedAtAsc(user2, user1));
-
-        messages.sort((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()));
-
-        return messages.stream()
-                .map(MessageDto::new)
-                .collect(Collectors.toList());
+    // Up to `limit` messages before the message (`beforeAt`, `beforeId`), i.e. the createdAt and id of the oldest
+    // message already shown (the latest ones when null), oldest first
+    public List<MessageDto> getMessagesBetweenUsers(Long userId1, Long userId2, LocalDateTime beforeAt, Long beforeId,
+            int limit) {
+        Long conversationId = conversationRepository
+                .findIdByUsers(Math.min(userId1, userId2), Math.max(userId1, userId2))
+                .orElse(null);
+        if (conversationId == null) {
+            return List.of();
+        }
+        int pageSize = Math.min(Math.max(limit, 1), maxHistoryPageSize);
+        List<MessageRow> rows = beforeId == null || beforeAt == null
+                ? messageRepository.findLatest(conversationId, pageSize)
+                : messageRepository.findBefore(conversationId, beforeAt, beforeId, pageSize);
+        List<MessageDto> messages = new ArrayList<>(rows.stream().map(MessageDto::new).toList());
+        Collections.reverse(messages);
+        return messages;
     }
 
     public List<MessageDto> getAllMessagesForUser(Long userId) {
@@ -84,6 +161,7 @@ public class ChatService {
 
     @Transactional
     public MessageDto editMessage(Long messageId, Long userId, String newContent) {
+        requireContent(newContent);
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
 
@@ -94,7 +172,14 @@ public class ChatService {
         message.setContent(newContent);
         message.setEditedAt(LocalDateTime.now());
         Message updated = messageRepository.save(message);
-        return new MessageDto(updated);
+        messageRepository.clearSearchVector(updated.getId());
+        if (updated.getConversation() != null) {
+            conversationSummaryRepository.updatePreview(updated.getConversation().getId(), updated.getId(), newContent);
+        }
+        MessageDto dto = new MessageDto(updated);
+        dto.setRead(isReadByReceiver(updated));
+        eventPublisher.publishEvent(new ChatEventDto(ChatEventDto.Type.EDITED, dto));
+        return dto;
     }
     @Transactional
     public void deleteMessage(Long messageId, Long userId) {
@@ -105,26 +190,62 @@ public class ChatService {
             throw new RuntimeException("You are not authorized to delete this message");
         }
 
+        MessageDto dto = new MessageDto(message);
+        dto.setRead(isReadByReceiver(message));
         messageRepository.delete(message);
+        if (dto.getConversationId() != null) {
+            // The deleted message may have been the latest or an unread one, so both rows are rebuilt
+            messageRepository.flush();
+            conversationSummaryRepository.deleteIfEmpty(dto.getConversationId());
+            conversationSummaryRepository.rebuild(dto.getConversationId());
+        }
+        eventPublisher.publishEvent(new ChatEventDto(ChatEventDto.Type.DELETED, dto));
     }
 
-    public List<UserDto> getChatUsersForUser(Long userId) {
-        User currentUser = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Message> messages = messageRepository.findBySenderOrReceiverOrderByCreatedAtAsc(currentUser, currentUser);
+    private boolean isReadByReceiver(Message message) {
+        return message.getConversation() != null && conversationSummaryRepository
+                .findLastReadMessageId(message.getConversation().getId(), message.getReceiver().getId())
+                .map(lastRead -> message.getId() <= lastRead)
+                .orElse(false);
+    }
 
-        Set<UserDto> chatUsers = new HashSet<>();
-        for (Message m : messages) {
-            if (m.getSender().getId() != userId) {
-                chatUsers.add(new UserDto(m.getSender()));
-            }
-            if (m.getReceiver().getId() != userId) {
-                chatUsers.add(new UserDto(m.getReceiver()));
-            }
+    // Concurrent first messages of a pair both end up in the one conversation the unique key lets through
+    private static void requireContent(String content) {
+        if (content == null || content.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Message content is empty");
         }
+    }
+
+    private Long conversationIdFor(Long userId1, Long userId2) {
+        Long lowId = Math.min(userId1, userId2);
+        Long highId = Math.max(userId1, userId2);
+        return conversationRepository.findIdByUsers(lowId, highId)
+                .or(() -> conversationRepository.insertIfAbsent(lowId, highId))
+                .or(() -> conversationRepository.findIdByUsers(lowId, highId))
+                .orElseThrow(() -> new IllegalStateException("Conversation could not be created"));
+    }
+
+    // Chat partners, most recent conversation first
+    public List<UserDto> getChatUsersForUser(Long userId) {
+        List<Long> partnerIds = conversationSummaryRepository.findPartnerIdsByRecency(userId);
+        Map<Long, User> partners = userRepository.findAllById(partnerIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return partnerIds.stream()
+                .map(partners::get)
+                .filter(Objects::nonNull)
+                .map(UserDto::new)
+                .toList();
+    }
 
-        return List.copyOf(chatUsers);
+    // Inbox page, most recent first; continues after the conversation `beforeConversationId` when given
+    public List<ConversationSummaryDto> getConversations(Long userId, Long beforeConversationId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), maxHistoryPageSize);
+        return (beforeConversationId == null
+                ? conversationSummaryRepository.findInbox(userId, pageSize)
+                : conversationSummaryRepository.findInboxBefore(userId, beforeConversationId, pageSize))
+                .stream()
+                .map(ConversationSummaryDto::new)
+                .toList();
     }
 
     
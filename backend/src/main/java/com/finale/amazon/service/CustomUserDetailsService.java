@@ -2,6 +2,8 @@ package com.finale.amazon.service;
 
 import com.finale.amazon.entity.User;
 import com.finale.amazon.repository.UserRepository;
+import com.finale.amazon.security.AuthenticatedUser;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -22,6 +24,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
@@ -33,4 +38,10 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .authorities(Collections.emptyList())
                 .build();
     }
+
+    // For the JWT filter: the cached principal by id, null when there is no such user
+    public AuthenticatedUser loadAuthenticatedUser(Long userId) {
+        return authenticatedUserCache.get(userId,
+                id -> userRepository.findById(id).map(AuthenticatedUser::new).orElse(null));
+    }
 }
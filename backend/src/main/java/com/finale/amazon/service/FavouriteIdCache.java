@@ -0,0 +1,72 @@
+package com.finale.amazon.service;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Favourite product ids per user as sorted {@code long[]}, loaded on first use and patched on add/delete.
+ * Arrays are never mutated in place, so readers can binary-search them without locking. The least
+ * recently used users are evicted past {@code favourites.id-cache.max-users}.
+ */
+@Service
+public class FavouriteIdCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final LruCache<Long, long[]> idsByUser;
+
+    public FavouriteIdCache(@Value("${favourites.id-cache.max-users:100000}") int maxUsers) {
+        this.idsByUser = new LruCache<>(maxUsers);
+    }
+
+    public long[] get(Long userId, Function<Long, long[]> loader) {
+        long[] ids = idsByUser.get(userId);
+        if (ids != null) {
+            return ids;
+        }
+        // An add/remove committed while loading bumps the stamp, so a stale snapshot is returned but not kept
+        long stamp = idsByUser.stamp(userId);
+        long[] loaded = loader.apply(userId);
+        Arrays.sort(loaded);
+        if (loaded.length == 0) {
+            loaded = EMPTY;
+        }
+        long[] cached = idsByUser.putIfCurrent(userId, stamp, loaded);
+        return cached != null ? cached : loaded;
+    }
+
+    public static boolean contains(long[] ids, long productId) {
+        return Arrays.binarySearch(ids, productId) >= 0;
+    }
+
+    public void add(Long userId, long productId) {
+        AfterCommit.run(() -> idsByUser.computeIfPresent(userId, (id, ids) -> {
+            int pos = Arrays.binarySearch(ids, productId);
+            if (pos >= 0) {
+                return ids;
+            }
+            int insertAt = -pos - 1;
+            long[] next = new long[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, insertAt);
+            next[insertAt] = productId;
+            System.arraycopy(ids, insertAt, next, insertAt + 1, ids.length - insertAt);
+            return next;
+        }));
+    }
+
+    public void remove(Long userId, long productId) {
+        AfterCommit.run(() -> idsByUser.computeIfPresent(userId, (id, ids) -> {
+            int pos = Arrays.binarySearch(ids, productId);
+            if (pos < 0) {
+                return ids;
+            }
+            long[] next = new long[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, pos);
+            System.arraycopy(ids, pos + 1, next, pos, ids.length - pos - 1);
+            return next;
+        }));
+    }
+}
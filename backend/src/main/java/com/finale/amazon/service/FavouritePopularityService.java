@@ -0,0 +1,189 @@
+package com.finale.amazon.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.repository.FavouriteRepository;
+import com.finale.amazon.repository.FavouriteRepository.WeeklyFavourites;
+import com.finale.amazon.repository.ProductRepository;
+import com.finale.amazon.service.StripedCounters.Delta;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Favourite counts per product and the "most wished this week" shelves. Counts are buffered in striped
+ * adders and added to {@code product.favourite_count} in batches. Shelves are kept in memory: every
+ * product favourited in the last 7 days has a ring of daily counts, and the top-K per category is
+ * rebuilt from the rings on each flush.
+ */
+@Service
+public class FavouritePopularityService implements SmartInitializingSingleton {
+
+    // Shelf key for the all-categories shelf; category ids start at 1
+    public static final long ALL_CATEGORIES = 0L;
+
+    private static final int WINDOW_DAYS = 7;
+
+    private record ShelfKey(long categoryId, long productId) {
+    }
+
+    // Slot i holds the count for the epoch day stored in days[i]; slots of days outside the window are stale
+    private static final class DayRing {
+        private final long[] days = new long[WINDOW_DAYS];
+        private final long[] counts = new long[WINDOW_DAYS];
+
+        synchronized void add(long day, long delta) {
+            int slot = (int) Math.floorMod(day, (long) WINDOW_DAYS);
+            if (days[slot] != day) {
+                days[slot] = day;
+                counts[slot] = 0;
+            }
+            counts[slot] += delta;
+        }
+
+        synchronized long sum(long today) {
+            long sum = 0;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                if (days[i] > today - WINDOW_DAYS && days[i] <= today) {
+                    sum += counts[i];
+                }
+            }
+            return sum;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${favourites.shelf-size:20}")
+    private int shelfSize;
+
+    private final StripedCounters<Long> pending = new StripedCounters<>();
+    private final Map<ShelfKey, DayRing> rings = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<Long>> shelves = Map.of();
+
+    // Runs before the web server and the scheduler start, so no favourite is counted and no flush writes to
+    // favourite_count before the seed has looked at it
+    @Override
+    public void afterSingletonsInstantiated() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // First start after the column was added: counts are rebuilt from the favourites table once
+            if (!productRepository.existsByFavouriteCountGreaterThan(0)) {
+                productRepository.seedFavouriteCounts();
+            }
+        });
+        LocalDate today = LocalDate.now();
+        for (WeeklyFavourites row : favouriteRepository.countCreatedSince(today.minusDays(WINDOW_DAYS - 1).atStartOfDay())) {
+            addToShelves(row.getCategoryId(), row.getProductId(), row.getDay().toEpochDay(), row.getFavourites());
+        }
+        rebuildShelves();
+    }
+
+    public void recordAdded(long productId, Long categoryId) {
+        long day = LocalDate.now().toEpochDay();
+        AfterCommit.run(() -> {
+            pending.add(productId, 1);
+            addToShelves(categoryId, productId, day, 1);
+        });
+    }
+
+    // Only favourites created inside the window count for the shelves, so only those are taken back
+    public void recordRemoved(long productId, Long categoryId, LocalDateTime createdAt) {
+        AfterCommit.run(() -> {
+            pending.add(productId, -1);
+            if (createdAt != null) {
+                long day = createdAt.toLocalDate().toEpochDay();
+                if (day > LocalDate.now().toEpochDay() - WINDOW_DAYS) {
+                    addToShelves(categoryId, productId, day, -1);
+                }
+            }
+        });
+    }
+
+    // Product ids, most wished first; null category means all categories
+    public List<Long> getMostWished(Long categoryId, int limit) {
+        List<Long> shelf = shelves.getOrDefault(categoryId == null ? ALL_CATEGORIES : categoryId, List.of());
+        return shelf.subList(0, Math.min(limit, shelf.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${favourites.flush-ms:10000}")
+    public void flush() {
+        Map<Long, Delta> drained = pending.drain();
+        if (!drained.isEmpty()) {
+            Long[] ids = drained.keySet().stream().sorted().toArray(Long[]::new);
+            Long[] deltas = new Long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                deltas[i] = drained.get(ids[i]).count();
+            }
+            try {
+                new TransactionTemplate(transactionManager)
+                        .executeWithoutResult(status -> productRepository.addFavouriteCounts(ids, deltas));
+            } catch (RuntimeException e) {
+                pending.restore(drained);
+                throw e;
+            }
+        }
+        rebuildShelves();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void addToShelves(Long categoryId, long productId, long day, long delta) {
+        addToRing(new ShelfKey(ALL_CATEGORIES, productId), day, delta);
+        if (categoryId != null) {
+            addToRing(new ShelfKey(categoryId, productId), day, delta);
+        }
+    }
+
+    // Adding and pruning both go through compute, so an add can't land in a ring that is being dropped
+    private void addToRing(ShelfKey key, long day, long delta) {
+        rings.compute(key, (k, ring) -> {
+            DayRing target = ring != null ? ring : new DayRing();
+            target.add(day, delta);
+            return target;
+        });
+    }
+
+    // Also runs when nothing changed, so products age out of the window day by day
+    private void rebuildShelves() {
+        long today = LocalDate.now().toEpochDay();
+        Map<Long, Map<Long, Long>> totals = new HashMap<>();
+        for (ShelfKey key : rings.keySet()) {
+            DayRing ring = rings.computeIfPresent(key, (k, r) -> r.sum(today) > 0 ? r : null);
+            long sum = ring != null ? ring.sum(today) : 0;
+            if (sum > 0) {
+                totals.computeIfAbsent(key.categoryId(), id -> new HashMap<>()).put(key.productId(), sum);
+            }
+        }
+        Map<Long, List<Long>> rebuilt = new HashMap<>();
+        totals.forEach((categoryId, counts) -> rebuilt.put(categoryId, counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(shelfSize)
+                .map(Map.Entry::getKey)
+                .toList()));
+        shelves = rebuilt;
+    }
+}
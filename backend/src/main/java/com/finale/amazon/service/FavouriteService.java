@@ -1,37 +1,63 @@
 package com.finale.amazon.service;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.finale.amazon.config.StartupSchema;
 import com.finale.amazon.dto.FavouriteResponseDto;
+import com.finale.amazon.dto.ProductDto;
 import com.finale.amazon.entity.Favourite;
 import com.finale.amazon.repository.FavouriteRepository;
+import com.finale.amazon.repository.FavouriteRepository.InsertedFavourite;
 
 import jakarta.transaction.Transactional;
 
 @Service
-public class FavouriteService {
+public class FavouriteService implements SmartInitializingSingleton {
     @Autowired
     private FavouriteRepository favouriteRepository;
 
     @Autowired
-    private ProductService productService;
+    private UserService userService;
 
     @Autowired
-    private UserService userService;
+    private FavouriteIdCache favouriteIdCache;
+
+    @Autowired
+    private FavouritePopularityService popularityService;
+
+    @Autowired
+    private StartupSchema startupSchema;
 
     private void Authorize(Long userId, Long fav){
         if(userId != fav) throw new RuntimeException("You are unathorized to perform this operation");
     }
 
+    // Duplicates from before the unique key existed would block it, so they are dropped first. Adding a favourite
+    // relies on the key, so it is in place before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupSchema.ensureUniqueKey("favourites", Favourite.USER_PRODUCT_KEY, List.of("user_id", "product_id"),
+                List.of());
+    }
+
+    @Transactional
     public Long Add(Long userId, Long productId){
-        Favourite f = new Favourite();
-        f.setProduct(productService.findProductById(productId));
-        f.setUser(userService.getUserById(userId));
-        return favouriteRepository.save(f).getId();
+        InsertedFavourite inserted = favouriteRepository.insertIfAbsent(userId, productId).orElse(null);
+        if (inserted == null) {
+            // Already a favourite: nothing to count
+            return favouriteRepository.findIdByUserIdAndProductId(userId, productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+        }
+        favouriteIdCache.add(userId, productId);
+        popularityService.recordAdded(productId, inserted.getCategoryId());
+        return inserted.getId();
     }
 
     @Transactional
@@ -39,20 +65,40 @@ public class FavouriteService {
         Favourite f = favouriteRepository.findById(favId).orElseThrow(() -> new RuntimeException("This favourite item was not found"));
         Authorize(userId, f.getUser().getId());
         favouriteRepository.delete(f);
-
+        favouriteIdCache.remove(userId, f.getProduct().getId());
+        Long categoryId = f.getProduct().getCategory() != null ? f.getProduct().getCategory().getId() : null;
+        popularityService.recordRemoved(f.getProduct().getId(), categoryId, f.getCreatedAt());
     }
 
     public List<Long> getIdsByUser(Long userId){
         // Return PRODUCT IDs so the frontend can check favourites presence efficiently
-        return favouriteRepository
-            .findByUser(userService.getUserById(userId))
-            .stream()
-            .map(fav -> fav.getProduct() != null ? fav.getProduct().getId() : null)
-            .filter(id -> id != null)
-            .collect(Collectors.toList());
+        return Arrays.stream(favouriteIds(userId)).boxed().toList();
+    }
+
+    // Sets isFavourite on listing cards from the cached id set, without touching the database once it is loaded
+    public void markFavourites(Long userId, Collection<ProductDto> products) {
+        if (userId == null || products.isEmpty()) {
+            return;
+        }
+        long[] ids = favouriteIds(userId);
+        for (ProductDto product : products) {
+            product.setIsFavourite(FavouriteIdCache.contains(ids, product.getId()));
+        }
     }
 
     public List<FavouriteResponseDto> getByUser(Long userId){
-        return favouriteRepository.findByUser(userService.getUserById(userId)).stream().map(FavouriteResponseDto::new).collect(Collectors.toList());
+        List<FavouriteResponseDto> favourites = favouriteRepository.findByUser(userService.getUserById(userId)).stream().map(FavouriteResponseDto::new).collect(Collectors.toList());
+        favourites.forEach(f -> {
+            if (f.getProduct() != null) {
+                f.getProduct().setIsFavourite(true);
+            }
+        });
+        return favourites;
+    }
+
+    private long[] favouriteIds(Long userId) {
+        return favouriteIdCache.get(userId, id -> favouriteRepository.findProductIdsByUserId(id).stream()
+                .mapToLong(Long::longValue)
+                .toArray());
     }
 }
@@ -0,0 +1,190 @@
+package com.finale.amazon.service;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.finale.amazon.dto.CartItemDto;
+import com.finale.amazon.dto.CartItemResponseDto;
+import com.finale.amazon.entity.CartItem;
+import com.finale.amazon.entity.Product;
+import com.finale.amazon.repository.ProductRepository;
+import com.finale.amazon.security.JwtUtil;
+
+/**
+ * Carts of anonymous shoppers, kept entirely in a signed cookie so browsing never writes to the database.
+ * The cookie holds a version byte and (product id delta, quantity) varint pairs in ascending product order,
+ * followed by a truncated HMAC; it is folded into {@code cart_items} with one batched upsert at login.
+ */
+@Service
+public class GuestCartService {
+
+    public static final String COOKIE_NAME = "guest_cart";
+
+    private static final String SIGNING_PURPOSE = "guest-cart";
+    private static final byte VERSION = 1;
+    private static final int MAC_BYTES = 16;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemService cartItemService;
+
+    @Value("${cart.guest.max-lines:50}")
+    private int maxLines;
+
+    @Value("${cart.guest.max-quantity:99}")
+    private int maxQuantity;
+
+    @Value("${cart.guest.max-age-days:30}")
+    private int maxAgeDays;
+
+    // Missing, malformed and tampered cookies all read as an empty cart
+    public Map<Long, Integer> decode(String cookie) {
+        Map<Long, Integer> cart = new TreeMap<>();
+        if (cookie == null || cookie.isEmpty()) {
+            return cart;
+        }
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(cookie);
+        } catch (IllegalArgumentException e) {
+            return cart;
+        }
+        if (raw.length < MAC_BYTES + 1) {
+            return cart;
+        }
+        byte[] payload = Arrays.copyOf(raw, raw.length - MAC_BYTES);
+        byte[] mac = Arrays.copyOfRange(raw, raw.length - MAC_BYTES, raw.length);
+        if (!MessageDigest.isEqual(mac, mac(payload)) || payload[0] != VERSION) {
+            return cart;
+        }
+        int[] pos = { 1 };
+        long productId = 0;
+        while (pos[0] < payload.length && cart.size() < maxLines) {
+            long delta = readVarint(payload, pos);
+            long quantity = readVarint(payload, pos);
+            if (delta <= 0 || quantity <= 0) {
+                return new TreeMap<>();
+            }
+            productId += delta;
+            cart.put(productId, (int) Math.min(quantity, maxQuantity));
+        }
+        return cart;
+    }
+
+    public String encode(Map<Long, Integer> cart) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(VERSION);
+        long previous = 0;
+        for (Map.Entry<Long, Integer> line : new TreeMap<>(cart).entrySet()) {
+            writeVarint(out, line.getKey() - previous);
+            writeVarint(out, line.getValue());
+            previous = line.getKey();
+        }
+        byte[] payload = out.toByteArray();
+        out.write(mac(payload), 0, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> add(String cookie, CartItemDto item) {
+        if (item.getProductId() == null || item.getProductId() <= 0 || item.getQuantity() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cart item");
+        }
+        Map<Long, Integer> cart = decode(cookie);
+        if (!cart.containsKey(item.getProductId())) {
+            if (cart.size() >= maxLines) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Guest cart is full, max " + maxLines);
+            }
+            if (!productRepository.existsById(item.getProductId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+            }
+        }
+        cart.merge(item.getProductId(), item.getQuantity(), (a, b) -> Math.min(a + b, maxQuantity));
+        return cart;
+    }
+
+    public Map<Long, Integer> remove(String cookie, Long productId) {
+        Map<Long, Integer> cart = decode(cookie);
+        cart.remove(productId);
+        return cart;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CartItemResponseDto> view(Map<Long, Integer> cart) {
+        List<CartItemResponseDto> items = new ArrayList<>();
+        for (Product product : productRepository.findAllById(cart.keySet())) {
+            items.add(new CartItemResponseDto(new CartItem(null, null, product, cart.get(product.getId()))));
+        }
+        return items;
+    }
+
+    public int mergeIntoUser(Long userId, String cookie) {
+        Map<Long, Integer> cart = decode(cookie);
+        return cart.isEmpty() ? 0 : cartItemService.mergeCartItems(userId, cart);
+    }
+
+    public ResponseCookie cookie(Map<Long, Integer> cart) {
+        if (cart.isEmpty()) {
+            return clearCookie();
+        }
+        return ResponseCookie.from(COOKIE_NAME, encode(cart))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(Duration.ofDays(maxAgeDays))
+                .build();
+    }
+
+    public ResponseCookie clearCookie() {
+        return ResponseCookie.from(COOKIE_NAME, "")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(0)
+                .build();
+    }
+
+    private byte[] mac(byte[] payload) {
+        return Arrays.copyOf(jwtUtil.sign(SIGNING_PURPOSE, payload), MAC_BYTES);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] in, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && pos[0] < in.length; shift += 7) {
+            byte b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,99 @@
+package com.finale.amazon.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.finale.amazon.dto.LoginPoolStatsDto;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs password verification (a user select plus a BCrypt check worth ~100 ms of CPU) on its own pool, one
+ * thread per core by default, instead of on Tomcat's request threads. The queue is bounded: when it is full
+ * {@link #submit} fails at once with {@link RejectedExecutionException}, so a login burst gets fast 503s instead
+ * of starving every other endpoint.
+ */
+@Service
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    public LoginExecutor(@Value("${auth.login.threads:0}") int threads,
+            @Value("${auth.login.queue-capacity:64}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                totalQueueWaitNanos.add(System.nanoTime() - submittedAt);
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    long latency = System.nanoTime() - submittedAt;
+                    totalLatencyNanos.add(latency);
+                    maxLatencyNanos.accumulate(latency);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        return future;
+    }
+
+    // Logins already queued are still answered; whatever is left after the grace period is dropped
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    public LoginPoolStatsDto getStats() {
+        long done = completed.sum();
+        return new LoginPoolStatsDto(
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                done,
+                rejected.sum(),
+                done == 0 ? 0 : totalQueueWaitNanos.sum() / 1e6 / done,
+                done == 0 ? 0 : totalLatencyNanos.sum() / 1e6 / done,
+                TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.finale.amazon.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded map that evicts the least recently used entry, with an optional time to live. Values are
+ * loaded by the caller outside the cache: take a {@link #stamp} first and store with {@link #putIfCurrent},
+ * which drops the value when the key was changed or removed in the meantime, so a slow load can never
+ * put back what an invalidation just removed.
+ */
+public class LruCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private record Timed<V>(V value, long storedAt) {
+    }
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final BiConsumer<K, V> onEvict;
+    private final LinkedHashMap<K, Timed<V>> entries;
+    private final AtomicLongArray epochs = new AtomicLongArray(STRIPES);
+
+    public LruCache(int maxSize) {
+        this(maxSize, 0, (key, value) -> {
+        });
+    }
+
+    public LruCache(int maxSize, long ttlMs) {
+        this(maxSize, ttlMs, (key, value) -> {
+        });
+    }
+
+    // onEvict sees entries dropped for size or age, not the ones removed explicitly; it runs under the lock
+    public LruCache(int maxSize, long ttlMs, BiConsumer<K, V> onEvict) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMs = ttlMs;
+        this.onEvict = onEvict;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Timed<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (expired(entry, System.currentTimeMillis())) {
+            entries.remove(key);
+            onEvict.accept(key, entry.value());
+            return null;
+        }
+        return entry.value();
+    }
+
+    public long stamp(K key) {
+        return epochs.get(stripe(key));
+    }
+
+    // Returns the value now cached for the key: the one already there, the new one, or null when it was dropped
+    public synchronized V putIfCurrent(K key, long stamp, V value) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        if (epochs.get(stripe(key)) != stamp) {
+            return null;
+        }
+        put(key, value);
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long now = System.currentTimeMillis();
+        entries.put(key, new Timed<>(value, now));
+        // Least recently used first: drop while over the bound, and expired entries met on the way
+        Iterator<Map.Entry<K, Timed<V>>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext()) {
+            Map.Entry<K, Timed<V>> entry = eldest.next();
+            if (entries.size() <= maxSize && !expired(entry.getValue(), now)) {
+                break;
+            }
+            eldest.remove();
+            onEvict.accept(entry.getKey(), entry.getValue().value());
+        }
+    }
+
+    // Patches a cached value in place of a reload; a null result removes the entry
+    public synchronized V computeIfPresent(K key, BiFunction<K, V, V> update) {
+        epochs.incrementAndGet(stripe(key));
+        V current = get(key);
+        if (current == null) {
+            return null;
+        }
+        V next = update.apply(key, current);
+        if (next == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new Timed<>(next, entries.get(key).storedAt()));
+        }
+        return next;
+    }
+
+    public synchronized V remove(K key) {
+        epochs.incrementAndGet(stripe(key));
+        Timed<V> entry = entries.remove(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean expired(Timed<V> entry, long now) {
+        return ttlMs > 0 && now - entry.storedAt() >= ttlMs;
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.finale.amazon.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.repository.ArchivedOrderRepository;
+import com.finale.amazon.repository.OrderRepository;
+import com.finale.amazon.repository.SellerOrderRepository;
+
+/**
+ * Moves completed orders out of the hot {@code orders}/{@code order_items} tables into
+ * {@code orders_archive}/{@code order_items_archive}. Each batch runs in its own transaction
+ * so a long backlog never holds locks for the whole run.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final List<String> COMPLETED_STATUSES = List.of("DELIVERED", "CANCELLED");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private SellerOrderRepository sellerOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${orders.archive.after-days:180}")
+    private int archiveAfterDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${orders.archive.cron:0 0 4 * * *}")
+    public void archiveCompletedOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(archiveAfterDays);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int moved;
+        do {
+            moved = tx.execute(status -> archiveBatch(cutoff));
+        } while (moved == batchSize);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.lockArchivableIds(COMPLETED_STATUSES, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+        archivedOrderRepository.copyOrderItems(ids);
+        archivedOrderRepository.copySellerOrders(ids);
+        orderRepository.deleteItemsByOrderIdIn(ids);
+        sellerOrderRepository.deleteByOrderIdIn(ids);
+        orderRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+}
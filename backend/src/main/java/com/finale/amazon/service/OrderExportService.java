@@ -0,0 +1,167 @@
+package com.finale.amazon.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finale.amazon.repository.ArchivedOrderItemRepository;
+import com.finale.amazon.repository.OrderItemRepository;
+import com.finale.amazon.repository.OrderItemRepository.OrderExportRow;
+
+/**
+ * Writes order exports straight from a database cursor into a gzip stream. Rows are pulled
+ * only as fast as the client reads, so memory use does not depend on the size of the export.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    public enum Scope {
+        USER, SELLER, ALL
+    }
+
+    private static final String[] COLUMNS = { "orderId", "orderDate", "status", "shipmentDate", "arrivalDate",
+            "orderTotal", "userId", "itemId", "productId", "productName", "sellerId", "quantity", "unitPrice",
+            "itemTotal" };
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderItemRepository archivedOrderItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Each running export holds an MVC async thread; the pool is sized to this limit and does not queue
+    @Value("${orders.export.max-concurrent:8}")
+    private int maxConcurrent;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    // Claims a slot for one export; a caller that gets true must call finish() once the export is over
+    public boolean tryStart() {
+        if (running.incrementAndGet() > maxConcurrent) {
+            running.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void finish() {
+        running.decrementAndGet();
+    }
+
+    public void export(Scope scope, Long ownerId, List<String> statusNames, Format format, OutputStream out) {
+        // Postgres only uses a server-side cursor inside a transaction, so the stream must stay in one
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            try (Stream<OrderExportRow> rows = openRows(scope, ownerId, statusNames);
+                    Writer writer = new BufferedWriter(
+                            new OutputStreamWriter(new GZIPOutputStream(out, 8192), StandardCharsets.UTF_8))) {
+                if (format == Format.JSON) {
+                    writeJson(rows.iterator(), writer);
+                } else {
+                    writeCsv(rows.iterator(), writer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Archived (older) orders come first, then the live table
+    private Stream<OrderExportRow> openRows(Scope scope, Long ownerId, List<String> statusNames) {
+        return switch (scope) {
+            case USER -> Stream.concat(archivedOrderItemRepository.streamExportByUserId(ownerId),
+                    orderItemRepository.streamExportByUserId(ownerId));
+            case SELLER -> Stream.concat(archivedOrderItemRepository.streamExportBySellerId(ownerId),
+                    orderItemRepository.streamExportBySellerId(ownerId));
+            case ALL -> statusNames == null || statusNames.isEmpty()
+                    ? Stream.concat(archivedOrderItemRepository.streamExportAll(),
+                            orderItemRepository.streamExportAll())
+                    : Stream.concat(archivedOrderItemRepository.streamExportByStatusNames(statusNames),
+                            orderItemRepository.streamExportByStatusNames(statusNames));
+        };
+    }
+
+    private void writeCsv(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+        while (rows.hasNext()) {
+            Object[] values = values(rows.next());
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values[i]));
+            }
+            writer.write('\n');
+        }
+    }
+
+    private void writeJson(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.writeStartArray();
+            while (rows.hasNext()) {
+                Object[] values = values(rows.next());
+                json.writeStartObject();
+                for (int i = 0; i < values.length; i++) {
+                    json.writeFieldName(COLUMNS[i]);
+                    Object value = values[i];
+                    if (value == null) {
+                        json.writeNull();
+                    } else if (value instanceof Number number) {
+                        json.writeNumber(number.toString());
+                    } else {
+                        json.writeString(value.toString());
+                    }
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    private Object[] values(OrderExportRow row) {
+        return new Object[] { row.getOrderId(), row.getOrderDate(), row.getStatus(), row.getShipmentDate(),
+                row.getArrivalDate(), row.getOrderTotal(), row.getUserId(), row.getItemId(), row.getProductId(),
+                row.getProductName(), row.getSellerId(), row.getQuantity(), row.getUnitPrice(),
+                row.getItemTotal() };
+    }
+
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,26 +1,45 @@
 package com.finale.amazon.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.finale.amazon.dto.OrderCreationDto;
 import com.finale.amazon.dto.OrderItemCreationDto;
 import com.finale.amazon.dto.OrderDto;
+import com.finale.amazon.dto.OrderItemDto;
+import com.finale.amazon.dto.OrderStatusTransitionDto;
 import com.finale.amazon.entity.Order;
 import com.finale.amazon.entity.OrderItem;
 import com.finale.amazon.entity.OrderStatus;
 import com.finale.amazon.entity.Product;
+import com.finale.amazon.entity.SellerOrder;
 import com.finale.amazon.entity.User;
+import com.finale.amazon.repository.ArchivedOrderRepository;
+import com.finale.amazon.repository.OrderItemRepository;
+import com.finale.amazon.repository.OrderItemRepository.SellerOrderItemRow;
 import com.finale.amazon.repository.OrderRepository;
 import com.finale.amazon.repository.OrderStatusRepository;
 import com.finale.amazon.repository.ProductRepository;
-
-import jakarta.transaction.Transactional;
+import com.finale.amazon.repository.SellerOrderRepository;
 
 @Service
 public class OrderService {
@@ -28,9 +47,18 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
     @Autowired
     private OrderStatusRepository orderStatusRepository;
 
+    @Autowired
+    private SellerOrderRepository sellerOrderRepository;
+
     @Autowired
     private ProductService productService;
 
@@ -40,12 +68,37 @@ public class OrderService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private PlatformMetricsService platformMetricsService;
+
+    @Autowired
+    private CartTotalsCache cartTotalsCache;
+
+    @Value("${orders.bulk-status.max-batch:5000}")
+    private int maxBulkStatusBatch;
+
     public List<Order> findAllNotCompletedOrders() {
         return orderRepository.findByOrderStatus_NameIn(List.of("NEW", "PROCESSING", "SHIPPED"));
     }
     
-    public List<Order> getOrdersBySeller(User seller) {
-        return orderRepository.findDistinctByOrderItemsProductSeller(seller);
+    // Two queries whatever the number of orders: the seller orders, then all of their lines
+    public List<OrderDto> getOrdersBySeller(Long sellerId) {
+        Map<Long, List<OrderItemDto>> items = orderItemRepository.findSellerOrderItems(sellerId).stream()
+                .collect(Collectors.groupingBy(SellerOrderItemRow::getSellerOrderId,
+                        Collectors.mapping(OrderItemDto::new, Collectors.toList())));
+        return sellerOrderRepository.findRowsBySellerId(sellerId).stream()
+                .map(row -> new OrderDto(row, items.getOrDefault(row.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public OrderDto getSellerOrderDto(Long orderId, Long sellerId) {
+        return sellerOrderRepository.findRowByOrderIdAndSellerId(orderId, sellerId)
+                .map(row -> new OrderDto(row, orderItemRepository.findSellerOrderItems(orderId, sellerId).stream()
+                        .map(OrderItemDto::new).collect(Collectors.toList())))
+                .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
     public List<Order> getOrdersByUser(User user) {
@@ -56,6 +109,33 @@ public class OrderService {
         return orderRepository.findById(id);
     }
 
+    // History reads hit the hot table first and fall through to the archive for completed orders. The DTOs are
+    // built from lazy collections, so the reads run in one transaction whoever calls them
+    @Transactional(readOnly = true)
+    public Optional<OrderDto> getOrderDtoById(Long id) {
+        Optional<OrderDto> hot = orderRepository.findById(id).map(OrderDto::new);
+        return hot.isPresent() ? hot : archivedOrderRepository.findById(id).map(OrderDto::new);
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrderHistoryByUser(Long userId) {
+        List<OrderDto> orders = new ArrayList<>();
+        orderRepository.findByUserId(userId).forEach(o -> orders.add(new OrderDto(o)));
+        archivedOrderRepository.findByUserId(userId).forEach(o -> orders.add(new OrderDto(o)));
+        orders.sort(Comparator.comparing(OrderDto::getId));
+        return orders;
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderDto> getOrderHistoryByStatusNamesAndUserId(List<String> statusNames, Long userId) {
+        List<OrderDto> orders = new ArrayList<>();
+        orderRepository.findByOrderStatus_NameInAndUserId(statusNames, userId).forEach(o -> orders.add(new OrderDto(o)));
+        archivedOrderRepository.findByOrderStatus_NameInAndUserId(statusNames, userId)
+                .forEach(o -> orders.add(new OrderDto(o)));
+        orders.sort(Comparator.comparing(OrderDto::getId));
+        return orders;
+    }
+
     public List<Order> getOrdersByStatusNames(List<String> statusNames) {
         return orderRepository.findByOrderStatus_NameIn(statusNames);
     }
@@ -64,16 +144,6 @@ public class OrderService {
         return orderRepository.findByOrderStatus_NameInAndUserId(statusNames, userId);
     }
 
-    private OrderItem fillOrderItem(OrderItemCreationDto dto, Order oreder) {
-        OrderItem oi = new OrderItem();
-        oi.setProduct(productService.getProductById(dto.getProductId()).get());
-        oi.setQuantity(dto.getQuantity());
-        oi.setUnitPrice(oi.getProduct().getPrice());
-        oi.setTotalPrice(oi.getQuantity() * oi.getProduct().getPrice());
-        oi.setOrder(oreder);
-        return oi;
-    }
-
     public Order shipOrder(Long orderId) {
         Order order = orderRepository.findById(orderId).get();
         order.setShipmentDate(LocalDateTime.now());
@@ -115,37 +185,101 @@ public class OrderService {
 
     @Transactional
     public Order creatOrder(OrderCreationDto dto, Long userId) {
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (OrderItemCreationDto item : dto.getOrderItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Long::sum);
+        }
+        return placeOrder(userId, quantities, loadProducts(quantities.keySet()));
+    }
+
+    // All products of an order in one query, sellers included for the split and the rollups
+    public Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findWithSellerByIdIn(productIds)) {
+            products.put(product.getId(), product);
+        }
+        if (products.size() != productIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return products;
+    }
+
+    // Shared by order creation and cart checkout: stock for every line is reserved in one statement at current prices
+    @Transactional
+    public Order placeOrder(Long userId, Map<Long, Long> quantities, Map<Long, Product> products) {
+        if (quantities.isEmpty() || quantities.values().stream().anyMatch(q -> q == null || q <= 0)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid order items");
+        }
+        Map<Long, Long> lines = new TreeMap<>(quantities);
+        Set<Long> reserved = new HashSet<>(productRepository.reserveStock(lines.keySet().toArray(Long[]::new),
+                lines.values().toArray(Long[]::new)));
+        for (Long productId : lines.keySet()) {
+            if (!reserved.contains(productId)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Not enough stock for product: " + products.get(productId).getName());
+            }
+        }
+        cartTotalsCache.invalidateProducts(lines.keySet());
+
         Order order = new Order();
         order.setOrderDate(LocalDateTime.now());
         order.setOrderStatus(orderStatusRepository.findByName("NEW").orElseThrow());
         order.setUser(userService.getUserById(userId));
 
-        List<OrderItem> items = dto.getOrderItems().stream()
-                .map(itemDto -> {
-                    OrderItem orderItem = fillOrderItem(itemDto, order);
-
-                    Product product = orderItem.getProduct();
-
-                    if (product.getQuantityInStock() < orderItem.getQuantity()) {
-                        throw new IllegalArgumentException("Not enough stock for product: " + product.getName());
-                    }
-
-                    product.setQuantityInStock(product.getQuantityInStock() - orderItem.getQuantity());
-                    product.setQuantitySold(product.getQuantitySold() + orderItem.getQuantity());
-
-                    productRepository.save(product);
-
-                    return orderItem;
-                })
-                .collect(Collectors.toList());
+        List<OrderItem> items = new ArrayList<>();
+        for (Map.Entry<Long, Long> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProduct(product);
+            orderItem.setQuantity(line.getValue());
+            orderItem.setUnitPrice(product.getPrice());
+            orderItem.setTotalPrice(line.getValue() * product.getPrice());
+            orderItem.setOrder(order);
+            items.add(orderItem);
+        }
         order.setOrderItems(items);
-        order.setPrice(order.getOrderItems().stream()
+        order.setPrice(items.stream()
                 .mapToDouble(OrderItem::getTotalPrice)
                 .sum());
+        order.setSellerOrders(splitBySeller(order));
 
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        salesRollupService.recordOrder(saved);
+        platformMetricsService.recordOrder(saved);
+        return saved;
+    }
+
+    // One fulfilment group per seller; items of products without a seller belong to no group, as nobody can
+    // fulfil them
+    private List<SellerOrder> splitBySeller(Order order) {
+        Map<Long, SellerOrder> bySeller = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            User seller = item.getProduct().getSeller();
+            if (seller == null) {
+                continue;
+            }
+            SellerOrder sellerOrder = bySeller.computeIfAbsent(seller.getId(), id -> {
+                SellerOrder so = new SellerOrder();
+                so.setOrder(order);
+                so.setSeller(seller);
+                so.setOrderStatus(order.getOrderStatus());
+                so.setOrderDate(order.getOrderDate());
+                so.setOrderItems(new ArrayList<>());
+                return so;
+            });
+            sellerOrder.setPrice(sellerOrder.getPrice() + item.getTotalPrice());
+            sellerOrder.getOrderItems().add(item);
+            item.setSellerOrder(sellerOrder);
+        }
+        return new ArrayList<>(bySeller.values());
+    }
+
+    private void propagateStatusToSellerOrders(Long orderId, OrderStatus status) {
+        sellerOrderRepository.updateStatusByOrderIdIn(List.of(orderId), status.getId(),
+                status.getName().equals("SHIPPED"), status.getName().equals("DELIVERED"), LocalDateTime.now());
     }
 
+    @Transactional
     public Order updateOrderStatus(Long orderId, Long userId, String newStatusName) {
         Optional<Order> optionalOrder = orderRepository.findById(orderId);
         if (optionalOrder.isEmpty()) {
@@ -176,11 +310,19 @@ public class OrderService {
                 productRepository.save(product);
             }
 
+            cartTotalsCache.invalidateProducts(order.getOrderItems().stream()
+                    .map(item -> item.getProduct().getId())
+                    .toList());
+
             OrderStatus newStatus = optionalStatus.get();
             order.setOrderStatus(newStatus);
+            salesRollupService.recordCancellation(order);
+            platformMetricsService.recordCancellation(order);
+            propagateStatusToSellerOrders(orderId, newStatus);
         }
         return orderRepository.save(order);
     }
+    @Transactional
     public Order updateOrderStatus(Long orderId, String newStatusName) {
         Optional<Order> optionalOrder = orderRepository.findById(orderId);
         if (optionalOrder.isEmpty()) {
@@ -201,6 +343,11 @@ public class OrderService {
 
         OrderStatus newStatus = optionalStatus.get();
         order.setOrderStatus(newStatus);
+        if (newStatusName.equals("CANCELLED")) {
+            salesRollupService.recordCancellation(order);
+            platformMetricsService.recordCancellation(order);
+        }
+        propagateStatusToSellerOrders(orderId, newStatus);
         return orderRepository.save(order);
     }
     public Order updateOrder(Long orderId, OrderDto orderDto) {
@@ -233,4 +380,76 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
+    // Transitions allowed through the bulk endpoint; cancellations restock products and stay single-order
+    private static final Map<String, Set<String>> BULK_TRANSITIONS = Map.of(
+            "NEW", Set.of("CONFIRMED", "PROCESSING"),
+            "CONFIRMED", Set.of("PROCESSING"),
+            "PROCESSING", Set.of("SHIPPED"),
+            "SHIPPED", Set.of("DELIVERED"));
+
+    @Transactional
+    public List<OrderStatusTransitionDto> bulkUpdateOrderStatus(List<Long> orderIds, String newStatusName, Long sellerId) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new RuntimeException("No orders given");
+        }
+        if (orderIds.size() > maxBulkStatusBatch) {
+            throw new RuntimeException("Too many orders in one request, the limit is " + maxBulkStatusBatch);
+        }
+        OrderStatus newStatus = orderStatusRepository.findByName(newStatusName)
+                .orElseThrow(() -> new RuntimeException("Order status not found"));
+
+        Set<Long> ids = new LinkedHashSet<>(orderIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            throw new RuntimeException("No orders given");
+        }
+        // Parent orders are locked first in both paths, so concurrent sellers finishing the same order serialize
+        Map<Long, String> current = new HashMap<>();
+        Map<Long, Long> sellerOrderIds = new HashMap<>();
+        if (sellerId == null) {
+            for (OrderRepository.OrderStatusRow row : orderRepository.lockStatusesByIdIn(ids)) {
+                current.put(row.getId(), row.getStatus());
+            }
+        } else {
+            orderRepository.lockStatusesByIdInAndSellerId(ids, sellerId);
+            // A seller transitions only their own part of each order
+            for (SellerOrderRepository.SellerOrderStatusRow row
+                    : sellerOrderRepository.lockStatusesByOrderIdInAndSellerId(ids, sellerId)) {
+                current.put(row.getOrderId(), row.getStatus());
+                sellerOrderIds.put(row.getOrderId(), row.getId());
+            }
+        }
+
+        List<OrderStatusTransitionDto> results = new ArrayList<>(ids.size());
+        List<Long> valid = new ArrayList<>();
+        for (Long id : ids) {
+            String from = current.get(id);
+            String error = null;
+            if (from == null) {
+                error = "Order not found";
+            } else if (!BULK_TRANSITIONS.getOrDefault(from, Set.of()).contains(newStatusName)) {
+                error = "Cannot change status from " + from + " to " + newStatusName;
+            } else {
+                valid.add(id);
+            }
+            results.add(new OrderStatusTransitionDto(id, from, newStatusName, error == null, error));
+        }
+
+        if (valid.isEmpty()) {
+            return results;
+        }
+        boolean stampShipment = newStatusName.equals("SHIPPED");
+        boolean stampArrival = newStatusName.equals("DELIVERED");
+        LocalDateTime now = LocalDateTime.now();
+        if (sellerId == null) {
+            orderRepository.updateStatusByIdIn(valid, newStatus.getId(), stampShipment, stampArrival, now);
+            sellerOrderRepository.updateStatusByOrderIdIn(valid, newStatus.getId(), stampShipment, stampArrival, now);
+        } else {
+            sellerOrderRepository.updateStatusByIdIn(valid.stream().map(sellerOrderIds::get).toList(),
+                    newStatus.getId(), stampShipment, stampArrival, now);
+            orderRepository.rollUpStatusByIdIn(valid, newStatus.getId(), stampShipment, stampArrival, now);
+        }
+        return results;
+    }
+
 }
@@ -0,0 +1,236 @@
+package com.finale.amazon.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.dto.PlatformOverviewDto;
+import com.finale.amazon.entity.Order;
+import com.finale.amazon.entity.OrderItem;
+import com.finale.amazon.entity.PlatformCounter;
+import com.finale.amazon.repository.CategoryRepository;
+import com.finale.amazon.repository.PlatformCounterRepository;
+import com.finale.amazon.repository.ProductRepository;
+import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.service.StripedCounters.Delta;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Platform-wide and per-product counters kept incrementally. Updates go to striped in-memory
+ * adders and are checkpointed to {@code platform_counters}; reads are checkpoint + pending delta.
+ * The table is seeded from the source tables once, on the first start with an empty table.
+ */
+@Service
+public class PlatformMetricsService implements SmartInitializingSingleton {
+
+    // count = non-cancelled orders, amount = their revenue
+    private static final String ORDERS = "orders";
+    private static final String PRODUCTS = "products";
+    private static final String REVIEWS = "reviews";
+    private static final String USERS_PREFIX = "users:";
+
+    @Autowired
+    private PlatformCounterRepository counterRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final StripedCounters<String> pending = new StripedCounters<>();
+    private final Map<String, Delta> checkpoint = new ConcurrentHashMap<>();
+    private final Set<String> roles = ConcurrentHashMap.newKeySet();
+
+    // Loaded before the web server and the scheduler start, so the seed can't count a change twice and no read
+    // or flush sees a missing checkpoint
+    @Override
+    public void afterSingletonsInstantiated() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            if (counterRepository.count() == 0) {
+                seed();
+            }
+        });
+        for (PlatformCounter counter : counterRepository.findAll()) {
+            checkpoint.put(counter.getName(), new Delta(counter.getCountValue(), counter.getAmountValue()));
+            if (counter.getName().startsWith(USERS_PREFIX)) {
+                roles.add(counter.getName().substring(USERS_PREFIX.length()));
+            }
+        }
+    }
+
+    private void seed() {
+        for (Object[] row : counterRepository.seedOrderTotals()) {
+            counterRepository.increment(ORDERS, ((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+        }
+        for (Object[] row : counterRepository.seedProductOrderTotals()) {
+            counterRepository.increment(productOrdersKey(((Number) row[0]).longValue()),
+                    ((Number) row[1]).longValue(), ((Number) row[2]).doubleValue());
+        }
+        for (Object[] row : counterRepository.seedUsersByRole()) {
+            counterRepository.increment(USERS_PREFIX + row[0], ((Number) row[1]).longValue(), 0);
+        }
+        for (Object[] row : counterRepository.seedProductReviews()) {
+            counterRepository.increment(productReviewsKey(((Number) row[0]).longValue()),
+                    ((Number) row[1]).longValue(), 0);
+        }
+        counterRepository.increment(PRODUCTS, productRepository.count(), 0);
+        counterRepository.increment(REVIEWS, reviewRepository.count(), 0);
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.flush-ms:10000}")
+    public void flush() {
+        Map<String, Delta> drained = pending.drain();
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> drained
+                    .forEach((key, delta) -> counterRepository.increment(key, delta.count(), delta.amount())));
+        } catch (RuntimeException e) {
+            pending.restore(drained);
+            throw e;
+        }
+        drained.forEach((key, delta) -> checkpoint.merge(key, delta,
+                (a, b) -> new Delta(a.count() + b.count(), a.amount() + b.amount())));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public void recordOrder(Order order) {
+        AfterCommit.run(() -> applyOrder(order, 1));
+    }
+
+    public void recordCancellation(Order order) {
+        AfterCommit.run(() -> applyOrder(order, -1));
+    }
+
+    private void applyOrder(Order order, int sign) {
+        pending.add(ORDERS, sign);
+        pending.addAmount(ORDERS, sign * order.getPrice());
+        Set<Long> counted = new HashSet<>();
+        for (OrderItem item : order.getOrderItems()) {
+            long productId = item.getProduct().getId();
+            String key = productOrdersKey(productId);
+            if (counted.add(productId)) {
+                pending.add(key, sign);
+            }
+            pending.addAmount(key, sign * item.getTotalPrice());
+        }
+    }
+
+    public void recordUserCreated(String roleName) {
+        roles.add(roleName);
+        AfterCommit.run(() -> pending.add(USERS_PREFIX + roleName, 1));
+    }
+
+    public void recordUserDeleted(String roleName) {
+        AfterCommit.run(() -> pending.add(USERS_PREFIX + roleName, -1));
+    }
+
+    public void recordUserRoleChanged(String oldRoleName, String newRoleName) {
+        if (oldRoleName.equals(newRoleName)) {
+            return;
+        }
+        roles.add(newRoleName);
+        AfterCommit.run(() -> {
+            pending.add(USERS_PREFIX + oldRoleName, -1);
+            pending.add(USERS_PREFIX + newRoleName, 1);
+        });
+    }
+
+    public void recordProductCreated() {
+        AfterCommit.run(() -> pending.add(PRODUCTS, 1));
+    }
+
+    // Reviews of a deleted product are removed with it by cascade
+    public void recordProductDeleted(long productId) {
+        long reviews = count(productReviewsKey(productId));
+        AfterCommit.run(() -> {
+            pending.add(PRODUCTS, -1);
+            pending.add(REVIEWS, -reviews);
+            pending.add(productReviewsKey(productId), -reviews);
+        });
+    }
+
+    public void recordReviewsAdded(long productId, long reviews) {
+        AfterCommit.run(() -> {
+            pending.add(REVIEWS, reviews);
+            pending.add(productReviewsKey(productId), reviews);
+        });
+    }
+
+    public long getProductOrders(long productId) {
+        return count(productOrdersKey(productId));
+    }
+
+    public double getProductRevenue(long productId) {
+        return amount(productOrdersKey(productId));
+    }
+
+    public long getProductReviews(long productId) {
+        return count(productReviewsKey(productId));
+    }
+
+    public long getTotalUsers() {
+        return getUsersByRole().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Categories are few and change outside the request paths, so they are counted live rather than kept
+    public long getTotalCategories() {
+        return categoryRepository.count();
+    }
+
+    public PlatformOverviewDto getOverview() {
+        Map<String, Long> usersByRole = getUsersByRole();
+        return new PlatformOverviewDto(count(ORDERS), amount(ORDERS),
+                usersByRole.values().stream().mapToLong(Long::longValue).sum(), usersByRole,
+                count(PRODUCTS), getTotalCategories(), count(REVIEWS));
+    }
+
+    private Map<String, Long> getUsersByRole() {
+        Map<String, Long> result = new HashMap<>();
+        for (String role : roles) {
+            result.put(role, count(USERS_PREFIX + role));
+        }
+        return result;
+    }
+
+    private long count(String key) {
+        Delta base = checkpoint.get(key);
+        return (base == null ? 0 : base.count()) + pending.pendingCount(key);
+    }
+
+    private double amount(String key) {
+        Delta base = checkpoint.get(key);
+        return (base == null ? 0 : base.amount()) + pending.pendingAmount(key);
+    }
+
+    private static String productOrdersKey(long productId) {
+        return "product:" + productId + ":orders";
+    }
+
+    private static String productReviewsKey(long productId) {
+        return "product:" + productId + ":reviews";
+    }
+}
@@ -0,0 +1,158 @@
+package com.finale.amazon.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Who is connected to this node, sharded by user id so connects, heartbeats and lookups for different users
+ * rarely meet on one lock. An entry holds the user's live WebSocket sessions with their last heartbeat; once
+ * the last one is gone the entry only remembers when the user was last seen, until {@link #expire} forgets it.
+ * Methods that change presence return whether the user came online or went offline, so the caller can
+ * publish it outside the lock.
+ */
+@Service
+public class PresenceRegistry {
+
+    public record Presence(boolean online, Long lastSeenAt) {
+    }
+
+    private static final int SHARDS = 64;
+
+    private static final class UserPresence {
+        // sessionId -> last heartbeat, epoch millis
+        final Map<String, Long> sessions = new HashMap<>(2);
+        long lastSeenAt;
+        // conversationId -> last time typing was relayed
+        final Map<Long, Long> typingRelayedAt = new HashMap<>(1);
+    }
+
+    private static final class Shard {
+        final Map<Long, UserPresence> users = new HashMap<>();
+    }
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    public PresenceRegistry() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    // Also used for heartbeats, so a session dropped by expire() comes back with its next heartbeat
+    public boolean touch(Long userId, String sessionId, long now) {
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            UserPresence presence = shard.users.computeIfAbsent(userId, id -> new UserPresence());
+            boolean wasOnline = !presence.sessions.isEmpty();
+            presence.sessions.put(sessionId, now);
+            presence.lastSeenAt = now;
+            return !wasOnline;
+        }
+    }
+
+    public boolean disconnect(Long userId, String sessionId, long now) {
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            UserPresence presence = shard.users.get(userId);
+            if (presence == null || presence.sessions.remove(sessionId) == null) {
+                return false;
+            }
+            presence.lastSeenAt = now;
+            if (presence.sessions.isEmpty()) {
+                presence.typingRelayedAt.clear();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Drops sessions without a heartbeat since `staleBefore` (clients that vanished without a disconnect) and
+    // forgets offline users last seen before `forgetBefore`; returns the users that went offline with their last
+    // heartbeat
+    public Map<Long, Long> expire(long staleBefore, long forgetBefore, long typingBefore) {
+        Map<Long, Long> wentOffline = new HashMap<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                Iterator<Map.Entry<Long, UserPresence>> it = shard.users.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<Long, UserPresence> entry = it.next();
+                    UserPresence presence = entry.getValue();
+                    presence.typingRelayedAt.values().removeIf(at -> at < typingBefore);
+                    if (presence.sessions.isEmpty()) {
+                        if (presence.lastSeenAt < forgetBefore) {
+                            it.remove();
+                        }
+                        continue;
+                    }
+                    presence.sessions.values().removeIf(at -> at < staleBefore);
+                    if (presence.sessions.isEmpty()) {
+                        presence.typingRelayedAt.clear();
+                        wentOffline.put(entry.getKey(), presence.lastSeenAt);
+                    }
+                }
+            }
+        }
+        return wentOffline;
+    }
+
+    public boolean isOnline(Long userId) {
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            UserPresence presence = shard.users.get(userId);
+            return presence != null && !presence.sessions.isEmpty();
+        }
+    }
+
+    // One lock per shard for the whole list; users never seen on this node are offline with no last-seen time
+    public Map<Long, Presence> lookup(Collection<Long> userIds) {
+        Map<Integer, List<Long>> byShard = new HashMap<>();
+        for (Long userId : userIds) {
+            byShard.computeIfAbsent(index(userId), i -> new ArrayList<>()).add(userId);
+        }
+        Map<Long, Presence> result = new HashMap<>();
+        byShard.forEach((index, ids) -> {
+            Shard shard = shards[index];
+            synchronized (shard) {
+                for (Long userId : ids) {
+                    UserPresence presence = shard.users.get(userId);
+                    result.put(userId, presence == null
+                            ? new Presence(false, null)
+                            : new Presence(!presence.sessions.isEmpty(), presence.lastSeenAt));
+                }
+            }
+        });
+        return result;
+    }
+
+    // True when typing in the conversation should be relayed now: the user is connected and it was not
+    // relayed within the last `intervalMs`
+    public boolean typing(Long userId, Long conversationId, long now, long intervalMs) {
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            UserPresence presence = shard.users.get(userId);
+            if (presence == null || presence.sessions.isEmpty()) {
+                return false;
+            }
+            Long relayedAt = presence.typingRelayedAt.get(conversationId);
+            if (relayedAt != null && now - relayedAt < intervalMs) {
+                return false;
+            }
+            presence.typingRelayedAt.put(conversationId, now);
+            return true;
+        }
+    }
+
+    private Shard shard(Long userId) {
+        return shards[index(userId)];
+    }
+
+    private static int index(Long userId) {
+        return (int) Math.floorMod(userId, (long) SHARDS);
+    }
+}
@@ -0,0 +1,148 @@
+package com.finale.amazon.service;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import com.finale.amazon.dto.PresenceDto;
+import com.finale.amazon.dto.PresenceEventDto;
+import com.finale.amazon.entity.Conversation;
+import com.finale.amazon.repository.ConversationRepository;
+import com.finale.amazon.repository.ConversationSummaryRepository;
+import com.finale.amazon.service.PresenceRegistry.Presence;
+
+/**
+ * Online/last-seen status and typing for chat, kept in {@link PresenceRegistry} and never written to the
+ * database. WebSocket connects and disconnects drive it, and clients send a heartbeat to
+ * {@code /app/presence.heartbeat} well within {@code chat.presence.ttl-ms} so sessions that vanish without a
+ * disconnect still go offline. Changes are pushed on {@code /user/queue/presence} only to connected chat partners.
+ * Presence is per node: with the broker relay each node knows about the sessions it holds.
+ */
+@Service
+public class PresenceService {
+
+    public static final String PRESENCE_QUEUE = "/queue/presence";
+
+    @Autowired
+    private PresenceRegistry registry;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Value("${chat.presence.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${chat.presence.last-seen-retention-ms:86400000}")
+    private long lastSeenRetentionMs;
+
+    @Value("${chat.presence.typing-interval-ms:3000}")
+    private long typingIntervalMs;
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userId(event.getUser());
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (userId != null && sessionId != null) {
+            heartbeat(userId, sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = userId(event.getUser());
+        long now = System.currentTimeMillis();
+        if (userId != null && registry.disconnect(userId, event.getSessionId(), now)) {
+            publish(new PresenceEventDto(PresenceEventDto.Type.OFFLINE, userId, toDateTime(now), null), userId);
+        }
+    }
+
+    public void heartbeat(Long userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        if (registry.touch(userId, sessionId, now)) {
+            publish(new PresenceEventDto(PresenceEventDto.Type.ONLINE, userId, toDateTime(now), null), userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.presence.sweep-ms:10000}")
+    public void expireSessions() {
+        long now = System.currentTimeMillis();
+        registry.expire(now - ttlMs, now - lastSeenRetentionMs, now - typingIntervalMs).forEach((userId, lastSeenAt) ->
+                publish(new PresenceEventDto(PresenceEventDto.Type.OFFLINE, userId, toDateTime(lastSeenAt), null), userId));
+    }
+
+    // Throttled per conversation before the participant check, so a fast typist costs one lookup every few seconds
+    public void typing(Long userId, Long conversationId) {
+        if (!registry.typing(userId, conversationId, System.currentTimeMillis(), typingIntervalMs)) {
+            return;
+        }
+        Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+        if (conversation == null) {
+            return;
+        }
+        Long lowId = conversation.getUserLow().getId();
+        Long highId = conversation.getUserHigh().getId();
+        if (!userId.equals(lowId) && !userId.equals(highId)) {
+            return;
+        }
+        Long partnerId = userId.equals(lowId) ? highId : lowId;
+        if (registry.isOnline(partnerId)) {
+            messagingTemplate.convertAndSendToUser(String.valueOf(partnerId), PRESENCE_QUEUE,
+                    new PresenceEventDto(PresenceEventDto.Type.TYPING, userId, null, conversationId));
+        }
+    }
+
+    // Presence of the user's chat partners, optionally narrowed to `userIds`, most recent conversation first
+    public List<PresenceDto> getPartnersPresence(Long userId, Collection<Long> userIds) {
+        List<Long> partnerIds = conversationSummaryRepository.findPartnerIdsByRecency(userId);
+        if (userIds != null) {
+            partnerIds = partnerIds.stream().filter(userIds::contains).toList();
+        }
+        Map<Long, Presence> presence = registry.lookup(partnerIds);
+        return partnerIds.stream()
+                .map(id -> new PresenceDto(id, presence.get(id).online(), toDateTime(presence.get(id).lastSeenAt())))
+                .toList();
+    }
+
+    // Summary rows come in pairs, so the user's own partners are exactly the users who have them as a partner
+    private void publish(PresenceEventDto event, Long userId) {
+        for (Long watcherId : conversationSummaryRepository.findPartnerIdsByRecency(userId)) {
+            if (registry.isOnline(watcherId)) {
+                messagingTemplate.convertAndSendToUser(String.valueOf(watcherId), PRESENCE_QUEUE, event);
+            }
+        }
+    }
+
+    private static Long userId(Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(principal.getName());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime toDateTime(Long epochMillis) {
+        return epochMillis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -1,6 +1,7 @@
 package com.finale.amazon.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -19,7 +20,7 @@ import com.finale.amazon.repository.CharacteristicTypeRepository;
 import com.finale.amazon.repository.UserRepository;
 import com.finale.amazon.specification.ProductSpecification;
 import com.finale.amazon.repository.PictureRepository;
-import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.repository.SellerReviewStatsRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +30,6 @@ import com.finale.amazon.entity.CharacteristicType;
 import com.finale.amazon.entity.CharacteristicValue;
 import com.finale.amazon.entity.Product;
 import com.finale.amazon.entity.ProductVariation;
-import com.finale.amazon.entity.Review;
 
 @Service
 public class ProductService {
@@ -49,14 +49,29 @@ public class ProductService {
     @Autowired
     private PictureRepository pictureRepository;
     @Autowired
-    private ReviewRepository reviewRepository;
-    @Autowired
     private SlugService slugService;
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private PlatformMetricsService platformMetricsService;
+
+    @Autowired
+    private CartTotalsCache cartTotalsCache;
+
+    @Autowired
+    private FavouritePopularityService favouritePopularityService;
+
+    @Autowired
+    private SellerReviewStatsRepository sellerReviewStatsRepository;
 
     @Transactional()
     public Optional<Product> getProductBySlug(String slug) {
         Optional<Product> productOpt = productRepository.findBySlugWithPictures(slug);
-        productOpt.ifPresent(p -> p.setViews(p.getViews() + 1));
+        productOpt.ifPresent(p -> {
+            p.setViews(p.getViews() + 1);
+            salesRollupService.recordView(p);
+        });
         return productOpt;
     }
 
@@ -67,13 +82,7 @@ public class ProductService {
             return;
         }
 
-        List<Review> topLevelReviews = reviewRepository.findByProductIdAndParentIsNull(product.getId());
-        double avg = topLevelReviews.stream()
-                .mapToDouble(Review::getStars)
-                .average()
-                .orElse(0.0);
-        product.setAvgRating(avg);
-        productRepository.save(product);
+        productRepository.refreshReviewStats(product.getId());
     }
 
     private Specification<Product> getSpec(String name, Long categoryId, Long subcategoryId, Double lowerBound,
@@ -127,10 +136,29 @@ public class ProductService {
         return page.map(ProductDto::new);
     }
 
+    // "Most wished this week" shelf, in shelf order; products deleted since the last rebuild are skipped
+    @Transactional(readOnly = true)
+    public List<ProductDto> getMostWished(Long categoryId, int limit) {
+        List<Long> ids = favouritePopularityService.getMostWished(categoryId, limit);
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> products.put(product.getId(), product));
+        List<ProductDto> shelf = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                product.setPictures(pictureRepository.findMainPicture(id));
+                shelf.add(new ProductDto(product));
+            }
+        }
+        return shelf;
+    }
+
     public Product createProduct(ProductCreationDto dto) {
         Product product = new Product();
         fillProductFromDto(product, dto);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        platformMetricsService.recordProductCreated();
+        return saved;
     }
 
     public void changeQuantitySold(Product product, Long add) {
@@ -146,9 +174,12 @@ public class ProductService {
         // Generate SEO slug using name and ID
         String slug = slugService.generateSeoSlug(saved.getName(), saved.getId());
         saved.setSlug(slug);
+        platformMetricsService.recordProductCreated();
         return productRepository.save(product);
     }
 
+    // Transactional so the cart totals invalidation runs after the new price is committed
+    @Transactional
     public Product updateProduct(Long id, ProductCreationDto dto) {
         Optional<Product> optionalProduct = productRepository.findById(id);
         if (optionalProduct.isEmpty()) {
@@ -164,11 +195,22 @@ public class ProductService {
             saved.setSlug(slug);
             saved = productRepository.save(saved);
         }
+        cartTotalsCache.invalidateProducts(List.of(id));
         return productRepository.save(product);
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
+        Long sellerId = productRepository.findById(id)
+                .map(product -> product.getSeller() != null ? product.getSeller().getId() : null)
+                .orElse(null);
         productRepository.deleteById(id);
+        platformMetricsService.recordProductDeleted(id);
+        cartTotalsCache.invalidateProducts(List.of(id));
+        if (sellerId != null) {
+            // The product's reviews went with it
+            sellerReviewStatsRepository.recompute(sellerId);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -1,24 +1,38 @@
 package com.finale.amazon.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.repository.SellerReviewStatsRepository;
+import com.finale.amazon.repository.ReviewRepository.ReplyTarget;
+import com.finale.amazon.repository.ReviewRepository.ReviewRow;
 
 import jakarta.transaction.Transactional;
 
 import com.finale.amazon.repository.ProductRepository;
 import com.finale.amazon.dto.ReviewCreationDto;
 import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.dto.ReviewFeedDto;
 import com.finale.amazon.dto.ReviewReplyDto;
 import com.finale.amazon.dto.ReviewUpdateDto;
 import com.finale.amazon.entity.Product;
 import com.finale.amazon.entity.Review;
 import com.finale.amazon.entity.User;
 
-import java.util.stream.Collectors;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
@@ -30,6 +44,47 @@ public class ReviewService {
     private ProductService productService;
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private PlatformMetricsService platformMetricsService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ReviewThreadAssembler threadAssembler;
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+    @Autowired
+    private SellerReviewStatsRepository sellerReviewStatsRepository;
+
+    @Value("${reviews.feed.max-page-size:50}")
+    private int maxPageSize;
+
+    @Value("${reviews.feed.max-replies:10}")
+    private int maxReplies;
+
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_STARS = "stars";
+    public static final String SORT_HELPFUL = "helpful";
+
+    // First start after product.review_count was added: fill it once from the review table
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedReviewCounts() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!productRepository.existsByReviewCountGreaterThan(0)) {
+                productRepository.seedReviewCounts();
+            }
+        });
+    }
+
+    // Reviews from before review.seller_id existed get it from their product, then seller stats are filled once
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSellerReviewStats() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reviewRepository.backfillSellerIds();
+            if (sellerReviewStatsRepository.count() == 0) {
+                sellerReviewStatsRepository.seedAll();
+            }
+        });
+    }
 
     // public Review createReview(ReviewDto review) {
     // Review reviewEntity = new Review();
@@ -55,23 +110,32 @@ public class ReviewService {
         review.setUser(user);
         review.setProduct(product);
         review.setParent(null);
+        if (product.getSeller() != null) {
+            review.setSellerId(product.getSeller().getId());
+        }
         Review saved = reviewRepository.save(review);
         productService.updateAvgRating(product);
+        platformMetricsService.recordReviewsAdded(product.getId(), 1);
+        reviewVoteService.evictTopReviews(product.getId());
+        if (saved.getSellerId() != null) {
+            sellerReviewStatsRepository.addDelta(saved.getSellerId(), 1, saved.getStars(), 1);
+        }
         return saved;
     }
 
+    // The parent is only read through a projection and referenced by id: a reply is a single INSERT
+    @Transactional
     public Review replyReview(User user, ReviewReplyDto dto) {
-        Review parent = reviewRepository.findById(dto.getParentId())
+        ReplyTarget parent = reviewRepository.findReplyTarget(dto.getParentId())
                 .orElseThrow(() -> new RuntimeException("Parent review not found"));
 
         // Check if this is a reply to a reply (nested replies are not allowed)
-        if (parent.getParent() != null) {
+        if (parent.getParentId() != null) {
             throw new RuntimeException("Cannot reply to a reply. Please reply to the main review instead.");
         }
 
         if (user != null && user.getRole() != null && "SELLER".equalsIgnoreCase(user.getRole().getName())) {
-            Product parentProduct = parent.getProduct();
-            if (parentProduct == null || parentProduct.getSeller() == null || parentProduct.getSeller().getId() != user.getId()) {
+            if (parent.getSellerId() == null || parent.getSellerId() != user.getId()) {
                 throw new RuntimeException("Sellers can only reply to reviews on their own products");
             }
         }
@@ -81,48 +145,131 @@ public class ReviewService {
         reply.setDate(LocalDateTime.now());
         reply.setStars(1); // Default rating for replies
         reply.setUser(user);
-        reply.setProduct(parent.getProduct());
-        reply.setParent(parent);
+        reply.setProduct(productRepository.getReferenceById(parent.getProductId()));
+        reply.setParent(reviewRepository.getReferenceById(dto.getParentId()));
+        reply.setSellerId(parent.getSellerId());
 
-        // Save the reply
+        // The seller's first answer takes the review off their unreplied count. Their replies to one review wait
+        // on the parent's row lock, so the check below sees any reply committed before and only one counts
+        boolean sellerReply = user != null && parent.getSellerId() != null && parent.getSellerId() == user.getId();
+        if (sellerReply) {
+            reviewRepository.lockById(dto.getParentId());
+        }
+        boolean firstSellerReply = sellerReply
+                && !reviewRepository.existsByParent_IdAndUser_Id(dto.getParentId(), user.getId());
         Review savedReply = reviewRepository.save(reply);
-
-        // Update the parent's replies list
-        if (parent.getReplies() == null) {
-            parent.setReplies(new ArrayList<>());
+        platformMetricsService.recordReviewsAdded(parent.getProductId(), 1);
+        if (firstSellerReply) {
+            sellerReviewStatsRepository.markReplied(parent.getSellerId());
         }
-        parent.getReplies().add(savedReply);
-        reviewRepository.save(parent);
-
         return savedReply;
     }
 
+    @Transactional
     public void deleteReview(Long id) {
         Review review = reviewRepository.getById(id);
+        long removed = 1 + reviewRepository.countByParent_Id(id);
+        long productId = review.getProduct().getId();
+        Long sellerId = review.getSellerId();
         reviewRepository.deleteById(id);
+        platformMetricsService.recordReviewsAdded(productId, -removed);
         productService.updateAvgRating(review.getProduct());
+        reviewVoteService.evictTopReviews(productId);
+        if (sellerId != null) {
+            // Deleting a review or the seller's reply can move the unreplied count either way
+            sellerReviewStatsRepository.recompute(sellerId);
+        }
     }
     
     public Optional<Review> getReviewById(Long id) {
             return reviewRepository.findById(id);
     }
 
-    public List<ReviewDto> getAllReviewsByProduct(Long productId) {
-        // Fetch all reviews for the product (both top-level and replies)
-        List<Review> reviews = reviewRepository.findByProductId(productId);
-        return reviews.stream()
-                     .map(ReviewDto::new)
-                     .collect(Collectors.toList());
+    // One page of top-level reviews with their reply counts and first replies: two queries whatever the page size
+    public ReviewFeedDto getProductFeed(Long productId, String sort, String cursor, int size, int replies) {
+        String order = sort == null ? SORT_NEWEST : sort.toLowerCase();
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        int perParent = Math.max(0, Math.min(replies, maxReplies));
+
+        String[] after = decodeCursor(cursor, order);
+        long beforeId = after != null ? parseCursorPart(after[1]) : Long.MAX_VALUE;
+        List<ReviewRow> rows = switch (order) {
+            case SORT_NEWEST -> reviewRepository.findFeedNewest(productId, beforeId, limit + 1);
+            case SORT_STARS -> reviewRepository.findFeedByStars(productId,
+                    after != null ? parseCursorStars(after[0]) : Double.MAX_VALUE, beforeId, limit + 1);
+            case SORT_HELPFUL -> reviewRepository.findFeedByHelpful(productId,
+                    after != null ? parseCursorPart(after[0]) : Long.MAX_VALUE, beforeId, limit + 1);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort: " + sort);
+        };
+
+        boolean hasMore = rows.size() > limit;
+        Map<Long, ReviewDto> page = new LinkedHashMap<>();
+        for (ReviewRow row : rows.subList(0, Math.min(limit, rows.size()))) {
+            page.put(row.getId(), new ReviewDto(row));
+        }
+        threadAssembler.attachReplies(page, perParent);
+
+        String nextCursor = null;
+        if (hasMore) {
+            ReviewRow last = rows.get(limit - 1);
+            nextCursor = encodeCursor(order, switch (order) {
+                case SORT_STARS -> Double.toString(last.getStars());
+                case SORT_HELPFUL -> Long.toString(last.getHelpfulCount());
+                default -> "";
+            }, last.getId());
+        }
+        return new ReviewFeedDto(new ArrayList<>(page.values()), nextCursor);
+    }
+
+    // Cursor is "<sort>:<sort key>:<id>" of the last row served, base64url so it is opaque to clients
+    private static String encodeCursor(String sort, String key, long id) {
+        String raw = sort + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns {sort key, id}, or null for the first page
+    private static String[] decodeCursor(String cursor, String sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", -1);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match sort " + sort);
+        }
+        return new String[] { parts[1], parts[2] };
+    }
+
+    private static long parseCursorPart(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static double parseCursorStars(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
 
     public List<ReviewDto> getRepliesForReview(Long reviewId) {
-        // Fetch all replies for a specific review
-        List<Review> replies = reviewRepository.findByParentId(reviewId);
-        return replies.stream()
-                     .map(ReviewDto::new)
-                     .collect(Collectors.toList());
+        return threadAssembler.replies(reviewId);
+    }
+
+    // The review with all of its replies
+    public Optional<ReviewDto> getReviewThread(Long reviewId) {
+        return threadAssembler.thread(reviewId);
     }
     
+    @Transactional
     public Review updateReview(User user, Long reviewId, ReviewUpdateDto dto) {
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review not found"));
@@ -134,12 +281,17 @@ public class ReviewService {
             review.setDescription(dto.getDescription());
         }
 
+        double starsBefore = review.getStars();
         if (dto.getStars() != null) {
             review.setStars(dto.getStars());
         }
 
         Review r = reviewRepository.save(review);
         productService.updateAvgRating(review.getProduct());
+        reviewVoteService.evictTopReviews(review.getProduct().getId());
+        if (review.getSellerId() != null && review.getParent() == null && review.getStars() != starsBefore) {
+            sellerReviewStatsRepository.addDelta(review.getSellerId(), 0, review.getStars() - starsBefore, 0);
+        }
         return r;
     }
 
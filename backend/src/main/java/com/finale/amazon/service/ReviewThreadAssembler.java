@@ -0,0 +1,64 @@
+package com.finale.amazon.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.repository.ReviewRepository.ReplyRow;
+
+/**
+ * Builds review threads from flat rows: the replies of any number of reviews come from one
+ * {@code parent_id IN (...)} query and are hung under their parents in memory, so a page of threads costs
+ * one query for the reviews and one for the replies instead of one per review. Replies can't be replied
+ * to, so threads are at most two levels deep.
+ */
+@Service
+public class ReviewThreadAssembler {
+
+    public static final int ALL_REPLIES = Integer.MAX_VALUE;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    // Sets replyCount on every parent and attaches its first perParent replies, oldest first
+    public void attachReplies(Map<Long, ReviewDto> parents, int perParent) {
+        if (parents.isEmpty()) {
+            return;
+        }
+        for (ReviewDto parent : parents.values()) {
+            parent.setReplyCount(0L);
+            parent.setReplies(new ArrayList<>());
+        }
+        for (ReplyRow reply : reviewRepository.findFirstReplies(parents.keySet(), perParent)) {
+            ReviewDto parent = parents.get(reply.getParentId());
+            parent.setReplyCount(reply.getReplyCount());
+            if (reply.getPosition() <= perParent) {
+                parent.getReplies().add(new ReviewDto(reply));
+            }
+        }
+    }
+
+    public Optional<ReviewDto> thread(Long reviewId) {
+        return reviewRepository.findRowById(reviewId).map(row -> {
+            ReviewDto review = new ReviewDto(row);
+            Map<Long, ReviewDto> parents = new LinkedHashMap<>();
+            parents.put(review.getId(), review);
+            attachReplies(parents, ALL_REPLIES);
+            return review;
+        });
+    }
+
+    public List<ReviewDto> replies(Long reviewId) {
+        ReviewDto parent = new ReviewDto();
+        parent.setId(reviewId);
+        attachReplies(Map.of(reviewId, parent), ALL_REPLIES);
+        return parent.getReplies();
+    }
+}
@@ -0,0 +1,177 @@
+package com.finale.amazon.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.dto.ReviewVoteDto;
+import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.repository.ReviewRepository.VoteTarget;
+import com.finale.amazon.repository.ReviewVoteRepository;
+import com.finale.amazon.service.StripedCounters.Delta;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * "Was this review helpful" votes. The vote row itself is the only per-click write; the counters on
+ * {@code review} are bumped in striped adders and written in one batched UPDATE per flush, so popular
+ * reviews never turn into a hot row. The most helpful reviews of a product are cached and reloaded after
+ * each flush that touched the product.
+ */
+@Service
+public class ReviewVoteService {
+
+    @Autowired
+    private ReviewVoteRepository reviewVoteRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reviews.top-cache.size:3}")
+    private int topSize;
+
+    @Value("${reviews.feed.max-page-size:50}")
+    private int maxPageSize;
+
+    private final StripedCounters<Long> helpful = new StripedCounters<>();
+    private final StripedCounters<Long> unhelpful = new StripedCounters<>();
+    private final LruCache<Long, List<ReviewDto>> topByProduct;
+
+    public ReviewVoteService(@Value("${reviews.top-cache.max-products:10000}") int maxProducts) {
+        this.topByProduct = new LruCache<>(maxProducts);
+    }
+
+    @Transactional
+    public ReviewVoteDto vote(Long userId, Long reviewId, boolean isHelpful) {
+        VoteTarget target = reviewRepository.findVoteTarget(reviewId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Review not found"));
+        if (target.getParentId() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Replies can't be voted on");
+        }
+        if (userId.equals(target.getAuthorId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You can't vote on your own review");
+        }
+
+        long helpfulDelta = 0;
+        long unhelpfulDelta = 0;
+        if (reviewVoteRepository.insertIfAbsent(reviewId, userId, isHelpful).isPresent()) {
+            helpfulDelta = isHelpful ? 1 : 0;
+            unhelpfulDelta = isHelpful ? 0 : 1;
+        } else if (reviewVoteRepository.changeVote(reviewId, userId, isHelpful).isPresent()) {
+            helpfulDelta = isHelpful ? 1 : -1;
+            unhelpfulDelta = -helpfulDelta;
+        }
+        long helpfulCount = target.getHelpfulCount() + helpful.pendingCount(reviewId) + helpfulDelta;
+        long unhelpfulCount = target.getUnhelpfulCount() + unhelpful.pendingCount(reviewId) + unhelpfulDelta;
+        record(reviewId, helpfulDelta, unhelpfulDelta);
+        return new ReviewVoteDto(reviewId, helpfulCount, unhelpfulCount, isHelpful);
+    }
+
+    @Transactional
+    public ReviewVoteDto removeVote(Long userId, Long reviewId) {
+        VoteTarget target = reviewRepository.findVoteTarget(reviewId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Review not found"));
+        Boolean removed = reviewVoteRepository.deleteVote(reviewId, userId).orElse(null);
+        long helpfulDelta = Boolean.TRUE.equals(removed) ? -1 : 0;
+        long unhelpfulDelta = Boolean.FALSE.equals(removed) ? -1 : 0;
+        long helpfulCount = target.getHelpfulCount() + helpful.pendingCount(reviewId) + helpfulDelta;
+        long unhelpfulCount = target.getUnhelpfulCount() + unhelpful.pendingCount(reviewId) + unhelpfulDelta;
+        record(reviewId, helpfulDelta, unhelpfulDelta);
+        return new ReviewVoteDto(reviewId, helpfulCount, unhelpfulCount, null);
+    }
+
+    // Most helpful reviews of the product, only those with at least one helpful vote. Only the first
+    // reviews.top-cache.size are cached; longer lists, up to a feed page, are read from the database
+    public List<ReviewDto> getTopReviews(Long productId, int limit) {
+        if (limit > topSize) {
+            return loadTop(productId, Math.min(limit, Math.max(topSize, maxPageSize)));
+        }
+        List<ReviewDto> top = topByProduct.get(productId);
+        if (top == null) {
+            long stamp = topByProduct.stamp(productId);
+            List<ReviewDto> loaded = loadTop(productId, topSize);
+            List<ReviewDto> cached = topByProduct.putIfCurrent(productId, stamp, loaded);
+            top = cached != null ? cached : loaded;
+        }
+        return top.subList(0, Math.max(0, Math.min(limit, top.size())));
+    }
+
+    // For review edits, deletions and new reviews, which change the product's top list without a vote
+    public void evictTopReviews(Long productId) {
+        AfterCommit.run(() -> topByProduct.remove(productId));
+    }
+
+    @Scheduled(fixedDelayString = "${reviews.votes.flush-ms:10000}")
+    public void flush() {
+        Map<Long, Delta> helpfulDrained = helpful.drain();
+        Map<Long, Delta> unhelpfulDrained = unhelpful.drain();
+        Set<Long> reviewIds = new TreeSet<>(helpfulDrained.keySet());
+        reviewIds.addAll(unhelpfulDrained.keySet());
+        if (reviewIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = reviewIds.toArray(Long[]::new);
+        Long[] helpfulDeltas = new Long[ids.length];
+        Long[] unhelpfulDeltas = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Delta h = helpfulDrained.get(ids[i]);
+            Delta u = unhelpfulDrained.get(ids[i]);
+            helpfulDeltas[i] = h != null ? h.count() : 0L;
+            unhelpfulDeltas[i] = u != null ? u.count() : 0L;
+        }
+        List<Long> productIds;
+        try {
+            productIds = new TransactionTemplate(transactionManager)
+                    .execute(status -> reviewRepository.addVoteCounts(ids, helpfulDeltas, unhelpfulDeltas));
+        } catch (RuntimeException e) {
+            helpful.restore(helpfulDrained);
+            unhelpful.restore(unhelpfulDrained);
+            throw e;
+        }
+        // Products still cached are reloaded right away, outside the cache's lock
+        for (Long productId : new HashSet<>(productIds)) {
+            if (topByProduct.remove(productId) != null) {
+                long stamp = topByProduct.stamp(productId);
+                topByProduct.putIfCurrent(productId, stamp, loadTop(productId, topSize));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private List<ReviewDto> loadTop(Long productId, int limit) {
+        return reviewRepository.findFeedByHelpful(productId, Long.MAX_VALUE, Long.MAX_VALUE, limit).stream()
+                .filter(row -> row.getHelpfulCount() > 0)
+                .map(ReviewDto::new)
+                .toList();
+    }
+
+    private void record(Long reviewId, long helpfulDelta, long unhelpfulDelta) {
+        if (helpfulDelta == 0 && unhelpfulDelta == 0) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            helpful.add(reviewId, helpfulDelta);
+            unhelpful.add(reviewId, unhelpfulDelta);
+        });
+    }
+}
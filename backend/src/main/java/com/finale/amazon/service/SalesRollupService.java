@@ -0,0 +1,180 @@
+package com.finale.amazon.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.dto.SalesBucketDto;
+import com.finale.amazon.entity.Order;
+import com.finale.amazon.entity.OrderItem;
+import com.finale.amazon.entity.Product;
+import com.finale.amazon.entity.ProductSalesBucket;
+import com.finale.amazon.entity.ProductSalesBucket.Granularity;
+import com.finale.amazon.repository.ProductSalesBucketRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps (seller, product, period) sales buckets up to date as orders, cancellations and
+ * views happen, so seller dashboards read pre-aggregated rows instead of scanning orders.
+ */
+@Service
+public class SalesRollupService {
+
+    private record ViewKey(long sellerId, long productId, LocalDate day) {
+    }
+
+    @Autowired
+    private ProductSalesBucketRepository bucketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${rollups.sales.day-retention-days:90}")
+    private int dayRetentionDays;
+
+    // Product views are too frequent for a row upsert each, so they are buffered and flushed in bulk
+    private final Map<ViewKey, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    @Transactional
+    public void recordOrder(Order order) {
+        LocalDate day = order.getOrderDate() != null ? order.getOrderDate().toLocalDate() : LocalDate.now();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product.getSeller() == null) {
+                continue;
+            }
+            bucketRepository.increment(product.getSeller().getId(), product.getId(), Granularity.DAY.name(), day,
+                    item.getQuantity(), item.getTotalPrice(), 1, 0, 0);
+        }
+    }
+
+    // Cancellations are booked against the day the order was placed, so buckets show net sales per order date
+    @Transactional
+    public void recordCancellation(Order order) {
+        LocalDate day = order.getOrderDate() != null ? order.getOrderDate().toLocalDate() : LocalDate.now();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            if (product.getSeller() == null) {
+                continue;
+            }
+            bucketRepository.increment(product.getSeller().getId(), product.getId(), Granularity.DAY.name(), day,
+                    -item.getQuantity(), -item.getTotalPrice(), 0, 1, 0);
+        }
+    }
+
+    public void recordView(Product product) {
+        if (product.getSeller() == null) {
+            return;
+        }
+        pendingViews.computeIfAbsent(new ViewKey(product.getSeller().getId(), product.getId(), LocalDate.now()),
+                key -> new LongAdder()).increment();
+    }
+
+    // Drained views are put back when writing them out fails, and flushed once more on shutdown
+    @Scheduled(fixedDelayString = "${rollups.sales.view-flush-ms:60000}")
+    public void flushViews() {
+        Map<ViewKey, Long> drained = drainViews();
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> drained.forEach(
+                    (key, views) -> bucketRepository.increment(key.sellerId(), key.productId(),
+                            Granularity.DAY.name(), key.day(), 0, 0, 0, 0, views)));
+        } catch (RuntimeException e) {
+            drained.forEach((key, views) -> pendingViews.computeIfAbsent(key, k -> new LongAdder()).add(views));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushViews();
+    }
+
+    // Adders are reset rather than removed, so a view racing with the drain is never lost; keys of past days
+    // are dropped once they have nothing pending
+    private Map<ViewKey, Long> drainViews() {
+        LocalDate today = LocalDate.now();
+        Map<ViewKey, Long> drained = new HashMap<>();
+        for (Map.Entry<ViewKey, LongAdder> entry : pendingViews.entrySet()) {
+            long views = entry.getValue().sumThenReset();
+            if (views > 0) {
+                drained.put(entry.getKey(), views);
+            } else if (entry.getKey().day().isBefore(today)) {
+                pendingViews.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    @Scheduled(cron = "${rollups.sales.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public void compact() {
+        LocalDate cutoff = LocalDate.now().minusDays(dayRetentionDays);
+        bucketRepository.foldDaysInto(Granularity.WEEK.name(), "week", cutoff);
+        bucketRepository.foldDaysInto(Granularity.MONTH.name(), "month", cutoff);
+        bucketRepository.deleteDaysBefore(cutoff);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesBucketDto> getSellerBuckets(long sellerId, Long productId, Granularity granularity,
+            LocalDate from, LocalDate to) {
+        LocalDate alignedFrom = bucketStart(from, granularity);
+        List<ProductSalesBucket> stored = findBuckets(sellerId, productId, granularity, alignedFrom, to);
+        if (granularity == Granularity.DAY) {
+            return stored.stream().map(SalesBucketDto::new).toList();
+        }
+
+        // Week/month buckets only hold compacted history; recent days are still live and folded here
+        Map<String, SalesBucketDto> merged = new LinkedHashMap<>();
+        for (ProductSalesBucket bucket : stored) {
+            merged.put(bucket.getProductId() + ":" + bucket.getBucketStart(), new SalesBucketDto(bucket));
+        }
+        for (ProductSalesBucket day : findBuckets(sellerId, productId, Granularity.DAY, alignedFrom, to)) {
+            LocalDate start = bucketStart(day.getBucketStart(), granularity);
+            merged.computeIfAbsent(day.getProductId() + ":" + start,
+                    key -> new SalesBucketDto(day.getProductId(), granularity.name(), start, 0, 0, 0, 0, 0))
+                    .add(day);
+        }
+        List<SalesBucketDto> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparing(SalesBucketDto::getBucketStart)
+                .thenComparing(SalesBucketDto::getProductId));
+        return result;
+    }
+
+    private List<ProductSalesBucket> findBuckets(long sellerId, Long productId, Granularity granularity,
+            LocalDate from, LocalDate to) {
+        if (productId != null) {
+            return bucketRepository.findBySellerIdAndProductIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                    sellerId, productId, granularity, from, to);
+        }
+        return bucketRepository.findBySellerIdAndGranularityAndBucketStartBetweenOrderByBucketStartAsc(
+                sellerId, granularity, from, to);
+    }
+
+    private LocalDate bucketStart(LocalDate day, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+}
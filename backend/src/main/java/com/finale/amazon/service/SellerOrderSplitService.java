@@ -0,0 +1,99 @@
+package com.finale.amazon.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.config.StartupSchema;
+import com.finale.amazon.repository.ArchivedSellerOrderRepository;
+import com.finale.amazon.repository.SellerOrderRepository;
+
+/**
+ * Splits orders placed before checkout created per-seller sub-orders, live and archived. Walks the
+ * orders by id in batches, so items that cannot be linked (their product is gone) are passed over
+ * instead of being picked up again; once the backlog is gone each run is a single query per table.
+ * Items of products without a seller get no seller order.
+ */
+@Service
+public class SellerOrderSplitService implements SmartInitializingSingleton {
+
+    // The (order_id, seller_id) keys can't tell NULL sellers apart, so seller orders without a seller, left by
+    // earlier splits, are dropped and the column is made NOT NULL; ddl-auto only applies that to new tables.
+    // SET NOT NULL is a no-op once the column has it
+    private static final List<String> SELLER_NOT_NULL_SCHEMA = List.of(
+            "UPDATE order_items SET seller_order_id = NULL"
+                    + " WHERE seller_order_id IN (SELECT id FROM seller_orders WHERE seller_id IS NULL)",
+            "DELETE FROM seller_orders WHERE seller_id IS NULL",
+            "DELETE FROM seller_orders_archive WHERE seller_id IS NULL",
+            "ALTER TABLE seller_orders ALTER COLUMN seller_id SET NOT NULL",
+            "ALTER TABLE seller_orders_archive ALTER COLUMN seller_id SET NOT NULL");
+
+    @Autowired
+    private SellerOrderRepository sellerOrderRepository;
+
+    @Autowired
+    private ArchivedSellerOrderRepository archivedSellerOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StartupSchema startupSchema;
+
+    @Value("${orders.seller-split.batch-size:500}")
+    private int batchSize;
+
+    // Before the web server starts, so no checkout runs against the old rows
+    @Override
+    public void afterSingletonsInstantiated() {
+        startupSchema.apply(SELLER_NOT_NULL_SCHEMA);
+    }
+
+    @Scheduled(initialDelayString = "${orders.seller-split.initial-delay-ms:30000}",
+            fixedDelayString = "${orders.seller-split.interval-ms:3600000}")
+    public void splitExistingOrders() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> orderIds;
+        long afterId = 0;
+        do {
+            long cursor = afterId;
+            orderIds = tx.execute(status -> splitBatch(cursor));
+            if (!orderIds.isEmpty()) {
+                afterId = orderIds.get(orderIds.size() - 1);
+            }
+        } while (orderIds.size() == batchSize);
+
+        afterId = 0;
+        do {
+            long cursor = afterId;
+            orderIds = tx.execute(status -> splitArchivedBatch(cursor));
+            if (!orderIds.isEmpty()) {
+                afterId = orderIds.get(orderIds.size() - 1);
+            }
+        } while (orderIds.size() == batchSize);
+    }
+
+    private List<Long> splitBatch(long afterId) {
+        List<Long> orderIds = sellerOrderRepository.findUnsplitOrderIds(afterId, batchSize);
+        if (!orderIds.isEmpty()) {
+            sellerOrderRepository.insertSplitsForOrders(orderIds);
+            sellerOrderRepository.linkItemsForOrders(orderIds);
+        }
+        return orderIds;
+    }
+
+    // Orders archived before seller orders were archived with them
+    private List<Long> splitArchivedBatch(long afterId) {
+        List<Long> orderIds = archivedSellerOrderRepository.findUnsplitOrderIds(afterId, batchSize);
+        if (!orderIds.isEmpty()) {
+            archivedSellerOrderRepository.insertSplitsForOrders(orderIds);
+        }
+        return orderIds;
+    }
+}
@@ -3,20 +3,28 @@ package com.finale.amazon.service;
 import com.finale.amazon.dto.ProductDto;
 import com.finale.amazon.dto.ReviewDto;
 import com.finale.amazon.dto.SellerStatsDto;
-import com.finale.amazon.entity.Review;
+import com.finale.amazon.entity.SellerReviewStats;
 import com.finale.amazon.entity.User;
+import com.finale.amazon.repository.ArchivedSellerOrderRepository;
 import com.finale.amazon.repository.OrderRepository;
 import com.finale.amazon.repository.ProductRepository;
 import com.finale.amazon.repository.ReviewRepository;
+import com.finale.amazon.repository.SellerOrderRepository;
+import com.finale.amazon.repository.SellerReviewStatsRepository;
 import com.finale.amazon.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import com.finale.amazon.dto.UserDto;
 
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collector;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,11 +33,22 @@ public class SellerService {
         @Autowired
         private OrderRepository orderRepository;
         @Autowired
+        private ArchivedSellerOrderRepository archivedSellerOrderRepository;
+        @Autowired
+        private SellerOrderRepository sellerOrderRepository;
+        @Autowired
         private ProductRepository productRepository;
         @Autowired
         private static UserRepository userRepository; 
         @Autowired
         private ReviewRepository reviewRepository;
+        @Autowired
+        private SellerReviewStatsRepository sellerReviewStatsRepository;
+        @Autowired
+        private ReviewThreadAssembler reviewThreadAssembler;
+
+        @Value("${reviews.seller-feed.max-page-size:100}")
+        private int maxReviewsPageSize;
 
         @Autowired
         public SellerService(OrderRepository orderRepository) {
@@ -54,40 +73,50 @@ public class SellerService {
         }
 
         public SellerStatsDto getSellerStats(User seller) {
-                long totalOrders = orderRepository.countByProductSeller(seller);
+                long totalOrders = sellerOrderRepository.countBySeller_Id(seller.getId())
+                        + archivedSellerOrderRepository.countBySeller_Id(seller.getId());
 
-                long activeOrders = orderRepository.countByProductSellerAndOrderStatusNameIn(
-                        seller, List.of("NEW", "PROCESSING", "SHIPPED"));
+                long activeOrders = sellerOrderRepository.countBySeller_IdAndOrderStatus_NameIn(
+                        seller.getId(), List.of("NEW", "PROCESSING", "SHIPPED"));
 
-                long completedOrders = orderRepository.countByProductSellerAndOrderStatusNameIn(
-                        seller, List.of("DELIVERED"));
+                long completedOrders = sellerOrderRepository.countBySeller_IdAndOrderStatus_NameIn(
+                        seller.getId(), List.of("DELIVERED"))
+                        + archivedSellerOrderRepository.countBySeller_IdAndOrderStatus_NameIn(seller.getId(), List.of("DELIVERED"));
 
-                long cancelledOrders = orderRepository.countByProductSellerAndOrderStatusNameIn(
-                        seller, List.of("CANCELLED"));
+                long cancelledOrders = sellerOrderRepository.countBySeller_IdAndOrderStatus_NameIn(
+                        seller.getId(), List.of("CANCELLED"))
+                        + archivedSellerOrderRepository.countBySeller_IdAndOrderStatus_NameIn(seller.getId(), List.of("CANCELLED"));
 
-                double totalRevenue = orderRepository.findByProductSellerAndOrderStatusName(
-                        seller, "DELIVERED"
-                ).stream().mapToDouble(order -> order.getPrice()).sum();
-                var sellerReviewsOpt = reviewRepository.findByProduct_seller_Username(seller.getUsername());
-                // double customerFeedback = sellerReviewsOpt.map(list -> list.stream().mapToDouble(Review::getStars).average().orElse(0.0)).orElse(0.0);
-                long reviewsCount = sellerReviewsOpt.map(List::size).orElse(0);
-                double customerFeedback = reviewRepository.findByProduct_seller_Username(seller.getUsername()).get().stream().mapToDouble(review -> review.getStars()).average().orElse(1.0);
-                List<ReviewDto> numOfReviews = reviewRepository.findByProduct_seller_Username(seller.getUsername()).get().stream().map(ReviewDto::new).collect(Collectors.toList());
+                double totalRevenue = sellerOrderRepository.sumPriceBySellerIdAndStatusName(seller.getId(), "DELIVERED")
+                        + archivedSellerOrderRepository.sumPriceBySellerIdAndStatusName(seller.getId(), "DELIVERED");
+                SellerReviewStats reviewStats = sellerReviewStatsRepository.findById(seller.getId())
+                        .orElse(new SellerReviewStats(seller.getId(), 0, 0, 0));
                 SellerStatsDto stats = new SellerStatsDto();
-                numOfReviews = numOfReviews.stream().filter(e -> e.getUsername() != seller.getUsername()).collect(Collectors.toList());
                 stats.setTotalOrders(totalOrders);
                 stats.setActiveOrders(activeOrders);
                 stats.setCompletedOrders(completedOrders);
                 stats.setCancelledOrders(cancelledOrders);
                 stats.setTotalRevenue(totalRevenue);
-                stats.setAvgFeedback(customerFeedback);
-                stats.setReviewsCount(reviewsCount);
-                stats.setBuyersReviews(numOfReviews);
+                stats.setAvgFeedback(reviewStats.getReviewCount() > 0
+                        ? reviewStats.getStarsSum() / reviewStats.getReviewCount() : 0.0);
+                stats.setReviewsCount(reviewStats.getReviewCount());
+                stats.setUnrepliedReviews(reviewStats.getUnrepliedCount());
                 return stats;
         }
 
-        public List<Review> getSellersReviews(User seller){
-                return reviewRepository.findByProduct_seller_Username(seller.getUsername()).get();
+        // Page of top-level reviews on the seller's products with every reply attached; dates are inclusive
+        public Page<ReviewDto> getSellerReviews(User seller, Integer stars, Boolean replied, LocalDate from,
+                        LocalDate to, int page, int size) {
+                Page<ReviewDto> reviews = reviewRepository.findSellerFeed(seller.getId(),
+                                stars != null ? stars.doubleValue() : null, replied,
+                                from != null ? from.atStartOfDay() : null,
+                                to != null ? to.plusDays(1).atStartOfDay() : null,
+                                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), maxReviewsPageSize)))
+                        .map(ReviewDto::new);
+                Map<Long, ReviewDto> byId = new LinkedHashMap<>();
+                reviews.getContent().forEach(review -> byId.put(review.getId(), review));
+                reviewThreadAssembler.attachReplies(byId, ReviewThreadAssembler.ALL_REPLIES);
+                return reviews;
         }
 
         public User updateSellerProfile(User seller, UserDto updateRequest) {
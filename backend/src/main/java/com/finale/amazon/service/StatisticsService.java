@@ -1,5 +1,6 @@
 package com.finale.amazon.service;
 
+import com.finale.amazon.dto.PlatformOverviewDto;
 import com.finale.amazon.dto.ProductStatisticsDto;
 import com.finale.amazon.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,17 +14,24 @@ public class StatisticsService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private PlatformMetricsService platformMetricsService;
+
     public Optional<ProductStatisticsDto> getStatistics(Long productId) {
         return productRepository.findById(productId).map(product -> {
             ProductStatisticsDto dto = new ProductStatisticsDto();
             dto.setQuantitySold(product.getQuantitySold());
-            dto.setTotalReviews(product.getReviews() != null ? product.getReviews().size() : 0);
+            dto.setTotalReviews(platformMetricsService.getProductReviews(productId));
             dto.setTotalProducts(1); // This is for a specific product
-            dto.setTotalRevenue(0); // Would need to calculate from orders
-            dto.setTotalOrders(0); // Would need to calculate from orders
-            dto.setTotalUsers(0); // Would need to calculate from users
-            dto.setTotalCategories(0); // Would need to calculate from categories
+            dto.setTotalRevenue(Math.round(platformMetricsService.getProductRevenue(productId)));
+            dto.setTotalOrders(platformMetricsService.getProductOrders(productId));
+            dto.setTotalUsers(platformMetricsService.getTotalUsers());
+            dto.setTotalCategories(platformMetricsService.getTotalCategories());
             return dto;
         });
     }
-} 
\ No newline at end of file
+
+    public PlatformOverviewDto getOverview() {
+        return platformMetricsService.getOverview();
+    }
+}
@@ -0,0 +1,65 @@
+package com.finale.amazon.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key pending deltas backed by {@link LongAdder}/{@link DoubleAdder}, so hot counters can be
+ * bumped from many request threads without contention and written to the database in bulk.
+ */
+public class StripedCounters<K> {
+
+    public record Delta(long count, double amount) {
+    }
+
+    private final Map<K, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Map<K, DoubleAdder> amounts = new ConcurrentHashMap<>();
+
+    public void add(K key, long delta) {
+        counts.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+    }
+
+    public void addAmount(K key, double delta) {
+        amounts.computeIfAbsent(key, k -> new DoubleAdder()).add(delta);
+    }
+
+    public long pendingCount(K key) {
+        LongAdder adder = counts.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public double pendingAmount(K key) {
+        DoubleAdder adder = amounts.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // Adders are reset rather than removed, so an increment racing with a drain is never lost
+    public Map<K, Delta> drain() {
+        Set<K> keys = new HashSet<>(counts.keySet());
+        keys.addAll(amounts.keySet());
+        Map<K, Delta> drained = new HashMap<>();
+        for (K key : keys) {
+            LongAdder count = counts.get(key);
+            DoubleAdder amount = amounts.get(key);
+            long c = count == null ? 0 : count.sumThenReset();
+            double a = amount == null ? 0 : amount.sumThenReset();
+            if (c != 0 || a != 0) {
+                drained.put(key, new Delta(c, a));
+            }
+        }
+        return drained;
+    }
+
+    // Puts drained deltas back when writing them out failed
+    public void restore(Map<K, Delta> drained) {
+        drained.forEach((key, delta) -> {
+            add(key, delta.count());
+            addAmount(key, delta.amount());
+        });
+    }
+}
@@ -47,6 +47,12 @@ public class UserService {
     @Autowired
     private SlugService slugService;
 
+    @Autowired
+    private PlatformMetricsService platformMetricsService;
+
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+
     private final String dirPath = "uploads/pictures/";
 
     @Autowired
@@ -98,7 +104,9 @@ public class UserService {
         user.setPassword(slugService.generateRandomSlug(10));
         user.setRole(roleRepository.findByName("CUSTOMER").get());
         try {
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            platformMetricsService.recordUserCreated(saved.getRole().getName());
+            return saved;
         } catch (DataIntegrityViolationException e) {
             return userRepository.findByEmail(email).orElseThrow();
         }
@@ -122,7 +130,6 @@ public class UserService {
         user.setCreatedAt(LocalDateTime.now());
 
         if (userRequestDto.getPassword() != null && !userRequestDto.getPassword().isEmpty()) {
-            System.out.println(userRequestDto.getPassword());
             user.setPassword(hashPassword(userRequestDto.getPassword()));
         } else {
             throw new RuntimeException("Password is required");
@@ -132,7 +139,9 @@ public class UserService {
             user.setSlug(generateUniqueSellerSlug());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        platformMetricsService.recordUserCreated(role.getName());
+        return saved;
     }
 
     public Optional<User> authenticateUser(String email, String password) {
@@ -153,14 +162,17 @@ public class UserService {
             return Optional.empty();
         }
 
-        boolean matches = passwordEncoder.matches(password, user.getPassword());
-        System.out.println("Auth attempt for " + email + " — hash-prefix: " + user.getPassword().substring(0, 4) +
-                " len=" + user.getPassword().length() + " matches=" + matches);
-
-        if (!matches) {
+        if (!passwordEncoder.matches(password, user.getPassword())) {
             return Optional.empty();
         }
 
+        // The password is at hand only now, so hashes made with a lower BCrypt strength than configured are
+        // upgraded on login
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(hashPassword(password));
+            user = userRepository.save(user);
+        }
+
         return Optional.of(user);
     }
 
@@ -220,6 +232,10 @@ public class UserService {
             }
 
             if (userDetails.getRole() != null) {
+                if (existingUser.getRole() != null) {
+                    platformMetricsService.recordUserRoleChanged(existingUser.getRole().getName(),
+                            userDetails.getRole().getName());
+                }
                 existingUser.setRole(userDetails.getRole());
             }
 
@@ -228,15 +244,20 @@ public class UserService {
             }
             existingUser.setBlocked(userDetails.isBlocked());
 
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            authenticatedUserCache.invalidate(id);
+            return saved;
         }
 
         throw new RuntimeException("User not found with id: " + id);
     }
 
     public void deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isPresent()) {
             userRepository.deleteById(id);
+            authenticatedUserCache.invalidate(id);
+            platformMetricsService.recordUserDeleted(user.get().getRole().getName());
         } else {
             throw new RuntimeException("User not found with id: " + id);
         }
@@ -348,7 +369,9 @@ public class UserService {
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
             user.setBlocked(true);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            authenticatedUserCache.invalidate(userId);
+            return saved;
         }
 
         throw new RuntimeException("User not found with id: " + userId);
@@ -360,12 +383,21 @@ public class UserService {
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
             user.setBlocked(false);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            authenticatedUserCache.invalidate(userId);
+            return saved;
         }
 
         throw new RuntimeException("User not found with id: " + userId);
     }
 
+    public User markEmailVerified(User user) {
+        user.setEmailVerified(true);
+        User saved = userRepository.save(user);
+        authenticatedUserCache.invalidate(saved.getId());
+        return saved;
+    }
+
     public boolean isUserBlocked(Long userId) {
         Optional<User> user = userRepository.findById(userId);
         return user.isPresent() && user.get().isBlocked();
@@ -405,6 +437,8 @@ public class UserService {
             seller.setPhone(updateRequest.getPhone());
         }
 
-        return userRepository.save(seller);
+        User saved = userRepository.save(seller);
+        authenticatedUserCache.invalidate(saved.getId());
+        return saved;
     }
 }
@@ -0,0 +1,30 @@
+package com.finale.amazon;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * For tests that need a real Postgres. They run against an embedded one unless TEST_DATASOURCE_URL is set, e.g.
+ * {@code TEST_DATASOURCE_URL=jdbc:postgresql://localhost:5432/amazon_test mvn test}, with
+ * TEST_DATASOURCE_USERNAME and TEST_DATASOURCE_PASSWORD defaulting to postgres. The schema is created by
+ * ddl-auto=update, so point it at a scratch database.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@ContextConfiguration(initializers = TestDatabase.class)
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.finale.amazon.StatementCounter"
+})
+@Import(OfflineOAuth2Config.class)
+public @interface DatabaseTest {
+}
@@ -0,0 +1,23 @@
+package com.finale.amazon;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+
+/**
+ * The configured Google issuer is resolved over the network at startup; tests use Spring's built-in
+ * Google provider instead, so the context starts offline.
+ */
+@TestConfiguration
+public class OfflineOAuth2Config {
+
+    @Bean
+    ClientRegistrationRepository clientRegistrationRepository() {
+        return new InMemoryClientRegistrationRepository(CommonOAuth2Provider.GOOGLE.getBuilder("google")
+                .clientId("test")
+                .clientSecret("test")
+                .build());
+    }
+}
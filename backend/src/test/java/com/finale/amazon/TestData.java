@@ -0,0 +1,42 @@
+package com.finale.amazon;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Rows for {@link DatabaseTest}s, written straight through JDBC with only the columns the schema requires.
+ * Tests that run in a rolled back transaction need no cleanup; those that commit delete their own rows.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static long user(JdbcTemplate jdbc) {
+        String name = "test-" + UUID.randomUUID();
+        return jdbc.queryForObject("""
+                INSERT INTO users (blocked, email, email_verified, password, username)
+                VALUES (false, ?, true, 'x', ?) RETURNING id
+                """, Long.class, name + "@test.local", name);
+    }
+
+    public static long product(JdbcTemplate jdbc, Long sellerId) {
+        return jdbc.queryForObject("""
+                INSERT INTO product (name, price, price_without_discount, quantity_in_stock, quantity_sold, views,
+                                     avg_rating, seller_id)
+                VALUES ('test product', 10, 10, 100, 0, 0, 0, ?) RETURNING id
+                """, Long.class, sellerId);
+    }
+
+    public static long review(JdbcTemplate jdbc, long productId, Long userId, double stars, long helpful,
+            LocalDateTime date) {
+        return jdbc.queryForObject("""
+                INSERT INTO review (description, stars, date, helpful_count, unhelpful_count, product_id, user_id,
+                                    seller_id)
+                SELECT 'test review', ?, ?, ?, 0, p.id, ?, p.seller_id FROM product p WHERE p.id = ?
+                RETURNING id
+                """, Long.class, stars, date, helpful, userId, productId);
+    }
+}
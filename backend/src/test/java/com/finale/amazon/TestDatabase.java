@@ -0,0 +1,55 @@
+package com.finale.amazon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Points {@link DatabaseTest} contexts at TEST_DATASOURCE_URL when it is set, otherwise at an embedded Postgres
+ * started on first use and kept for the rest of the test run.
+ */
+public class TestDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static EmbeddedPostgres embedded;
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        String url = System.getenv("TEST_DATASOURCE_URL");
+        if (url == null || url.isBlank()) {
+            url = embedded().getJdbcUrl("postgres", "postgres");
+        }
+        TestPropertyValues.of(
+                "spring.datasource.url=" + url,
+                "spring.datasource.username=" + env("TEST_DATASOURCE_USERNAME", "postgres"),
+                "spring.datasource.password=" + env("TEST_DATASOURCE_PASSWORD", "postgres"))
+                .applyTo(context);
+    }
+
+    private static synchronized EmbeddedPostgres embedded() {
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Embedded Postgres did not start", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    embedded.close();
+                } catch (IOException e) {
+                    // the JVM is exiting anyway
+                }
+            }));
+        }
+        return embedded;
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
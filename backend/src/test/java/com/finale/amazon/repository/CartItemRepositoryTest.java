@@ -0,0 +1,71 @@
+package com.finale.amazon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+
+@Transactional
+@DatabaseTest
+class CartItemRepositoryTest {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long productId;
+
+    @BeforeEach
+    void seed() {
+        userId = TestData.user(jdbcTemplate);
+        productId = TestData.product(jdbcTemplate, null);
+    }
+
+    @Test
+    void upsertAddsToTheExistingLine() {
+        assertEquals(1, cartItemRepository.upsert(userId, productId, 2));
+        assertEquals(1, cartItemRepository.upsert(userId, productId, 3));
+
+        assertEquals(1, lines());
+        assertEquals(5, quantity(productId));
+    }
+
+    @Test
+    void upsertOfAnUnknownProductWritesNothing() {
+        assertEquals(0, cartItemRepository.upsert(userId, -1L, 1));
+        assertEquals(0, lines());
+    }
+
+    @Test
+    void upsertAllMergesIntoExistingLinesAndSkipsUnknownProducts() {
+        long other = TestData.product(jdbcTemplate, null);
+        cartItemRepository.upsert(userId, productId, 1);
+
+        int written = cartItemRepository.upsertAll(userId, new Long[] { productId, other, -1L },
+                new Integer[] { 2, 4, 1 });
+
+        assertEquals(2, written);
+        assertEquals(2, lines());
+        assertEquals(3, quantity(productId));
+        assertEquals(4, quantity(other));
+    }
+
+    private int lines() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM cart_items WHERE user_id = ?", Integer.class,
+                userId);
+    }
+
+    private int quantity(long product) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE user_id = ? AND product_id = ?",
+                Integer.class, userId, product);
+    }
+}
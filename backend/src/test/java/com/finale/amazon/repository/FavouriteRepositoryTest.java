@@ -0,0 +1,44 @@
+package com.finale.amazon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.repository.FavouriteRepository.InsertedFavourite;
+
+@Transactional
+@DatabaseTest
+class FavouriteRepositoryTest {
+
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertIfAbsentInsertsOnlyOnce() {
+        long userId = TestData.user(jdbcTemplate);
+        long productId = TestData.product(jdbcTemplate, null);
+
+        InsertedFavourite inserted = favouriteRepository.insertIfAbsent(userId, productId).orElseThrow();
+
+        assertTrue(favouriteRepository.insertIfAbsent(userId, productId).isEmpty());
+        assertEquals(inserted.getId(), favouriteRepository.findIdByUserIdAndProductId(userId, productId).orElseThrow());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM favourites WHERE user_id = ?",
+                Integer.class, userId));
+    }
+
+    @Test
+    void insertIfAbsentOfAnUnknownProductWritesNothing() {
+        long userId = TestData.user(jdbcTemplate);
+
+        assertTrue(favouriteRepository.insertIfAbsent(userId, -1L).isEmpty());
+    }
+}
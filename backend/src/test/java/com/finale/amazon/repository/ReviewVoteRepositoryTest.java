@@ -0,0 +1,60 @@
+package com.finale.amazon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+
+@Transactional
+@DatabaseTest
+class ReviewVoteRepositoryTest {
+
+    @Autowired
+    private ReviewVoteRepository reviewVoteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long reviewId;
+
+    @BeforeEach
+    void seed() {
+        userId = TestData.user(jdbcTemplate);
+        long productId = TestData.product(jdbcTemplate, null);
+        reviewId = TestData.review(jdbcTemplate, productId, TestData.user(jdbcTemplate), 5, 0, LocalDateTime.now());
+    }
+
+    @Test
+    void insertIfAbsentKeepsTheFirstVote() {
+        assertTrue(reviewVoteRepository.insertIfAbsent(reviewId, userId, true).isPresent());
+        assertTrue(reviewVoteRepository.insertIfAbsent(reviewId, userId, false).isEmpty());
+
+        assertEquals(Optional.of(true), reviewVoteRepository.deleteVote(reviewId, userId));
+    }
+
+    @Test
+    void changeVoteOnlyReportsAnActualChange() {
+        reviewVoteRepository.insertIfAbsent(reviewId, userId, true);
+
+        assertTrue(reviewVoteRepository.changeVote(reviewId, userId, true).isEmpty());
+        assertTrue(reviewVoteRepository.changeVote(reviewId, userId, false).isPresent());
+        assertEquals(Optional.of(false), reviewVoteRepository.deleteVote(reviewId, userId));
+    }
+
+    @Test
+    void deleteVoteOfAMissingVoteIsEmpty() {
+        assertTrue(reviewVoteRepository.deleteVote(reviewId, userId).isEmpty());
+        assertTrue(reviewVoteRepository.changeVote(reviewId, userId, false).isEmpty());
+    }
+}
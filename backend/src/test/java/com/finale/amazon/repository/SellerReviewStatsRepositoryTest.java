@@ -0,0 +1,83 @@
+package com.finale.amazon.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.entity.SellerReviewStats;
+
+import jakarta.persistence.EntityManager;
+
+@Transactional
+@DatabaseTest
+class SellerReviewStatsRepositoryTest {
+
+    @Autowired
+    private SellerReviewStatsRepository statsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private long sellerId;
+
+    @BeforeEach
+    void seed() {
+        sellerId = TestData.user(jdbcTemplate);
+    }
+
+    @Test
+    void addDeltaCreatesThenAccumulates() {
+        statsRepository.addDelta(sellerId, 1, 4, 1);
+        statsRepository.addDelta(sellerId, 2, 7, 2);
+
+        SellerReviewStats stats = stats();
+        assertEquals(3, stats.getReviewCount());
+        assertEquals(11, stats.getStarsSum());
+        assertEquals(3, stats.getUnrepliedCount());
+    }
+
+    @Test
+    void markRepliedNeverGoesBelowZero() {
+        statsRepository.addDelta(sellerId, 1, 5, 1);
+
+        statsRepository.markReplied(sellerId);
+        statsRepository.markReplied(sellerId);
+
+        assertEquals(0, stats().getUnrepliedCount());
+    }
+
+    @Test
+    void recomputeCountsTopLevelReviewsAndSellerReplies() {
+        long productId = TestData.product(jdbcTemplate, sellerId);
+        long customerId = TestData.user(jdbcTemplate);
+        long answered = TestData.review(jdbcTemplate, productId, customerId, 4, 0, LocalDateTime.now());
+        TestData.review(jdbcTemplate, productId, customerId, 2, 0, LocalDateTime.now());
+        jdbcTemplate.update("UPDATE review SET parent_id = ? WHERE id = ?", answered,
+                TestData.review(jdbcTemplate, productId, sellerId, 1, 0, LocalDateTime.now()));
+        statsRepository.addDelta(sellerId, 100, 100, 100);
+
+        statsRepository.recompute(sellerId);
+
+        SellerReviewStats stats = stats();
+        assertEquals(2, stats.getReviewCount());
+        assertEquals(6, stats.getStarsSum());
+        assertEquals(1, stats.getUnrepliedCount());
+    }
+
+    // The upserts bypass the persistence context, so it is cleared before reading the entity back
+    private SellerReviewStats stats() {
+        entityManager.clear();
+        return statsRepository.findById(sellerId).orElseThrow();
+    }
+}
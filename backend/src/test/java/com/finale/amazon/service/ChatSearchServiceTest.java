@@ -0,0 +1,87 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.dto.MessageDto;
+import com.finale.amazon.dto.MessageSearchHitDto;
+import com.finale.amazon.repository.MessageRepository;
+
+/**
+ * Search pages are keyed on (createdAt, id) of the last hit; every message here shares one timestamp, so only
+ * the id tells them apart.
+ */
+@Transactional
+@DatabaseTest
+class ChatSearchServiceTest {
+
+    private static final LocalDateTime SENT_AT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatSearchService chatSearchService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long alice;
+    private long bob;
+
+    @BeforeEach
+    void seedUsers() {
+        alice = TestData.user(jdbcTemplate);
+        bob = TestData.user(jdbcTemplate);
+    }
+
+    @Test
+    void searchPagesCoverEveryHitOnceNewestFirst() {
+        List<Long> hits = send(5, "where is my parcel");
+        send(2, "thanks");
+        messageRepository.indexPending(Integer.MAX_VALUE);
+
+        List<Long> found = new ArrayList<>();
+        List<MessageSearchHitDto> page = chatSearchService.search(alice, "parcel", null, null, 2);
+        while (!page.isEmpty()) {
+            found.addAll(page.stream().map(MessageSearchHitDto::getMessageId).toList());
+            MessageSearchHitDto last = page.get(page.size() - 1);
+            page = chatSearchService.search(alice, "parcel", last.getCreatedAt(), last.getMessageId(), 2);
+        }
+
+        Collections.reverse(hits);
+        assertEquals(hits, found);
+        assertTrue(chatSearchService.search(TestData.user(jdbcTemplate), "parcel", null, null, 10).isEmpty());
+    }
+
+    // Alternates the sender and pins every message to the same timestamp; returns the ids in sending order
+    private List<Long> send(int count, String content) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MessageDto message = i % 2 == 0
+                    ? chatService.sendMessage(alice, bob, content + " " + i)
+                    : chatService.sendMessage(bob, alice, content + " " + i);
+            ids.add(message.getId());
+        }
+        jdbcTemplate.update("UPDATE messages SET created_at = ? WHERE id = ANY (?)", SENT_AT,
+                ids.toArray(Long[]::new));
+        return ids;
+    }
+}
@@ -0,0 +1,100 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.dto.MessageDto;
+import com.finale.amazon.repository.MessageRepository;
+
+/**
+ * History pages are keyed on (createdAt, id); every message here shares one timestamp, so only the id tells
+ * them apart.
+ */
+@Transactional
+@DatabaseTest
+class ChatServiceTest {
+
+    private static final LocalDateTime SENT_AT = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long alice;
+    private long bob;
+
+    @BeforeEach
+    void seedUsers() {
+        alice = TestData.user(jdbcTemplate);
+        bob = TestData.user(jdbcTemplate);
+    }
+
+    @Test
+    void historyPagesCoverEveryMessageOnceOldestFirst() {
+        List<Long> sent = send(7, "hello");
+
+        List<Long> read = new ArrayList<>();
+        List<MessageDto> page = chatService.getMessagesBetweenUsers(alice, bob, null, null, 3);
+        while (!page.isEmpty()) {
+            read.addAll(0, page.stream().map(MessageDto::getId).toList());
+            MessageDto oldest = page.get(0);
+            page = chatService.getMessagesBetweenUsers(bob, alice, oldest.getCreatedAt(), oldest.getId(), 3);
+        }
+
+        assertEquals(sent, read);
+    }
+
+    @Test
+    void historyGoesOnWhenTheCursorMessageWasDeleted() {
+        List<Long> sent = send(5, "hello");
+        Long cursorId = sent.get(3);
+        messageRepository.deleteById(cursorId);
+        messageRepository.flush();
+
+        List<MessageDto> page = chatService.getMessagesBetweenUsers(alice, bob, SENT_AT, cursorId, 10);
+
+        assertEquals(sent.subList(0, 3), page.stream().map(MessageDto::getId).toList());
+    }
+
+    @Test
+    void blankMessagesAreRejected() {
+        assertThrows(ResponseStatusException.class, () -> chatService.sendMessage(alice, bob, null));
+        assertThrows(ResponseStatusException.class, () -> chatService.sendMessage(alice, bob, "  "));
+
+        Long sent = send(1, "hello").get(0);
+        assertThrows(ResponseStatusException.class, () -> chatService.editMessage(sent, alice, ""));
+    }
+
+    // Alternates the sender and pins every message to the same timestamp; returns the ids in sending order
+    private List<Long> send(int count, String content) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MessageDto message = i % 2 == 0
+                    ? chatService.sendMessage(alice, bob, content + " " + i)
+                    : chatService.sendMessage(bob, alice, content + " " + i);
+            ids.add(message.getId());
+        }
+        jdbcTemplate.update("UPDATE messages SET created_at = ? WHERE id = ANY (?)", SENT_AT,
+                ids.toArray(Long[]::new));
+        return ids;
+    }
+}
@@ -0,0 +1,56 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.finale.amazon.security.JwtUtil;
+
+class GuestCartServiceTest {
+
+    private GuestCartService guestCartService;
+
+    @BeforeEach
+    void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "guest-cart-test-secret");
+        guestCartService = new GuestCartService();
+        ReflectionTestUtils.setField(guestCartService, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(guestCartService, "maxLines", 50);
+        ReflectionTestUtils.setField(guestCartService, "maxQuantity", 99);
+    }
+
+    @Test
+    void decodesWhatItEncoded() {
+        Map<Long, Integer> cart = new TreeMap<>(Map.of(3L, 1, 1_000_000L, 99, 7L, 2));
+
+        assertEquals(cart, guestCartService.decode(guestCartService.encode(cart)));
+    }
+
+    @Test
+    void readsATamperedCookieAsAnEmptyCart() {
+        byte[] raw = Base64.getUrlDecoder().decode(guestCartService.encode(Map.of(5L, 1)));
+        raw[2] ^= 1;
+
+        assertTrue(guestCartService.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(raw)).isEmpty());
+        assertTrue(guestCartService.decode("not base64!").isEmpty());
+        assertTrue(guestCartService.decode(null).isEmpty());
+    }
+
+    @Test
+    void capsQuantitiesAndLinesWhenDecoding() {
+        ReflectionTestUtils.setField(guestCartService, "maxQuantity", 5);
+        ReflectionTestUtils.setField(guestCartService, "maxLines", 2);
+
+        Map<Long, Integer> decoded = guestCartService.decode(guestCartService.encode(Map.of(1L, 10, 2L, 1, 3L, 1)));
+
+        assertEquals(Map.of(1L, 5, 2L, 1), decoded);
+    }
+}
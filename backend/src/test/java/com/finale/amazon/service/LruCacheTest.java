@@ -0,0 +1,72 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<>(2, 0, (key, value) -> evicted.add(key));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(List.of("b"), evicted);
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    void expiresEntriesAfterTheirTtl() throws InterruptedException {
+        List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<>(10, 20, (key, value) -> evicted.add(key));
+        cache.put("a", 1);
+        Thread.sleep(40);
+
+        assertNull(cache.get("a"));
+        assertEquals(List.of("a"), evicted);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void dropsALoadThatRacedWithARemove() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp(1L);
+        cache.remove(1L);
+
+        assertNull(cache.putIfCurrent(1L, stamp, "stale"));
+        assertNull(cache.get(1L));
+        assertEquals("fresh", cache.putIfCurrent(1L, cache.stamp(1L), "fresh"));
+    }
+
+    @Test
+    void keepsTheValueAlreadyCachedOverALoad() {
+        LruCache<Long, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp(1L);
+        cache.put(1L, "first");
+
+        assertEquals("first", cache.putIfCurrent(1L, stamp, "second"));
+    }
+
+    @Test
+    void computeIfPresentPatchesOrRemoves() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        assertNull(cache.computeIfPresent("a", (key, value) -> value + 1));
+
+        cache.put("a", 1);
+        assertEquals(2, cache.computeIfPresent("a", (key, value) -> value + 1));
+        assertEquals(2, cache.get("a"));
+
+        assertNull(cache.computeIfPresent("a", (key, value) -> null));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,58 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.DatabaseTest;
+
+/**
+ * Counter updates are applied after commit, read back as checkpoint + pending delta and written out by
+ * {@link PlatformMetricsService#flush()}. The test commits for real and records the opposite change at the end.
+ */
+@DatabaseTest
+class PlatformMetricsServiceTest {
+
+    @Autowired
+    private PlatformMetricsService metricsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void countsOnlyCommittedChangesAndCheckpointsThem() {
+        long products = metricsService.getOverview().getTotalProducts();
+        long stored = storedProducts();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                metricsService.recordProductCreated();
+                status.setRollbackOnly();
+            });
+            assertEquals(products, metricsService.getOverview().getTotalProducts());
+
+            new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> metricsService.recordProductCreated());
+            assertEquals(products + 1, metricsService.getOverview().getTotalProducts());
+
+            metricsService.flush();
+            assertEquals(stored + 1, storedProducts());
+            assertEquals(products + 1, metricsService.getOverview().getTotalProducts());
+        } finally {
+            metricsService.recordProductDeleted(-1L);
+            metricsService.flush();
+        }
+        assertEquals(stored, storedProducts());
+    }
+
+    private long storedProducts() {
+        return jdbcTemplate.queryForObject("SELECT count_value FROM platform_counters WHERE name = 'products'",
+                Long.class);
+    }
+}
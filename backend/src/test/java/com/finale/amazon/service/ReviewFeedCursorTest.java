@@ -0,0 +1,96 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.dto.ReviewFeedDto;
+
+/**
+ * Walks a product's feed in every sort with a page size that splits runs of equal sort keys, so the cursor's
+ * id tie-break is what keeps pages from skipping or repeating reviews.
+ */
+@Transactional
+@DatabaseTest
+class ReviewFeedCursorTest {
+
+    private static final int REVIEWS = 30;
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long productId;
+
+    @BeforeEach
+    void seed() {
+        productId = TestData.product(jdbcTemplate, null);
+        long userId = TestData.user(jdbcTemplate);
+        LocalDateTime date = LocalDateTime.now();
+        for (int i = 0; i < REVIEWS; i++) {
+            TestData.review(jdbcTemplate, productId, userId, 1 + i % 5, i % 3, date);
+        }
+    }
+
+    @Test
+    void newestIsOrderedById() {
+        assertWalk(ReviewService.SORT_NEWEST, Comparator.comparing(ReviewDto::getId).reversed());
+    }
+
+    @Test
+    void starsBreaksTiesById() {
+        assertWalk(ReviewService.SORT_STARS,
+                Comparator.comparing(ReviewDto::getStars).thenComparing(ReviewDto::getId).reversed());
+    }
+
+    @Test
+    void helpfulBreaksTiesById() {
+        assertWalk(ReviewService.SORT_HELPFUL,
+                Comparator.comparing(ReviewDto::getHelpfulCount).thenComparing(ReviewDto::getId).reversed());
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSort() {
+        String cursor = reviewService.getProductFeed(productId, ReviewService.SORT_STARS, null, PAGE_SIZE, 0)
+                .getNextCursor();
+
+        assertThrows(ResponseStatusException.class,
+                () -> reviewService.getProductFeed(productId, ReviewService.SORT_HELPFUL, cursor, PAGE_SIZE, 0));
+    }
+
+    private void assertWalk(String sort, Comparator<ReviewDto> order) {
+        List<ReviewDto> served = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReviewFeedDto page = reviewService.getProductFeed(productId, sort, cursor, PAGE_SIZE, 0);
+            assertTrue(page.getReviews().size() <= PAGE_SIZE);
+            served.addAll(page.getReviews());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(REVIEWS, served.size());
+        assertEquals(REVIEWS, new HashSet<>(served.stream().map(ReviewDto::getId).toList()).size());
+        List<ReviewDto> sorted = new ArrayList<>(served);
+        sorted.sort(order);
+        assertEquals(sorted.stream().map(ReviewDto::getId).toList(), served.stream().map(ReviewDto::getId).toList());
+    }
+}
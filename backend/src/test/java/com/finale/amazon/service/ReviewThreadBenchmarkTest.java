@@ -0,0 +1,89 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.StatementCounter;
+import com.finale.amazon.dto.ReviewDto;
+import com.finale.amazon.dto.ReviewFeedDto;
+
+/**
+ * Walks the whole feed of a product with 10k reviews (and about 10k replies) and checks that every page,
+ * threads included, costs the same two statements however many replies its reviews have. Timings are
+ * printed for comparison between runs; everything written is rolled back.
+ */
+@Transactional
+@DatabaseTest
+class ReviewThreadBenchmarkTest {
+
+    private static final int REVIEWS = 10_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int REPLIES_PER_PAGE_ITEM = 3;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long productId;
+
+    @BeforeEach
+    void seedProduct() {
+        productId = jdbcTemplate.queryForObject("""
+                INSERT INTO product (name, price, price_without_discount, quantity_in_stock, quantity_sold, views, avg_rating)
+                VALUES ('benchmark', 10, 10, 1, 0, 0, 0) RETURNING id
+                """, Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO review (description, stars, date, helpful_count, unhelpful_count, product_id)
+                SELECT 'review ' || g, 1 + g % 5, now() - g * interval '1 minute', g % 7, 0, ?
+                FROM generate_series(1, ?) g
+                """, productId, REVIEWS);
+        // 0, 1 or 2 replies per review
+        jdbcTemplate.update("""
+                INSERT INTO review (description, stars, date, helpful_count, unhelpful_count, product_id, parent_id)
+                SELECT 'reply', 1, r.date + n * interval '1 second', 0, 0, r.product_id, r.id
+                FROM review r CROSS JOIN generate_series(1, 2) n
+                WHERE r.product_id = ? AND r.parent_id IS NULL AND n <= r.id % 3
+                """, productId);
+    }
+
+    @Test
+    void feedOfTenThousandReviewsCostsTwoStatementsPerPage() {
+        long statementsAtStart = StatementCounter.count();
+        long started = System.nanoTime();
+
+        Set<Long> seen = new HashSet<>();
+        long replies = 0;
+        int pages = 0;
+        String cursor = null;
+        do {
+            long before = StatementCounter.count();
+            ReviewFeedDto page = reviewService.getProductFeed(productId, ReviewService.SORT_NEWEST, cursor,
+                    PAGE_SIZE, REPLIES_PER_PAGE_ITEM);
+            assertEquals(2, StatementCounter.count() - before, "statements for page " + pages);
+            for (ReviewDto review : page.getReviews()) {
+                assertTrue(seen.add(review.getId()), "review served twice: " + review.getId());
+                replies += review.getReplyCount();
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        assertEquals(REVIEWS, seen.size());
+        System.out.printf("Review feed: %d reviews, %d replies, %d pages in %d ms (%.2f ms/page, %d statements)%n",
+                seen.size(), replies, pages, elapsedMs, (double) elapsedMs / pages,
+                StatementCounter.count() - statementsAtStart);
+    }
+}
@@ -0,0 +1,96 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.dto.ReviewVoteDto;
+
+/**
+ * Votes only reach the review's counters after commit and a flush, so this test commits for real and removes
+ * its rows afterwards.
+ */
+@DatabaseTest
+class ReviewVoteServiceTest {
+
+    @Autowired
+    private ReviewVoteService reviewVoteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long authorId;
+    private long firstVoter;
+    private long secondVoter;
+    private long productId;
+    private long reviewId;
+
+    @BeforeEach
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            authorId = TestData.user(jdbcTemplate);
+            firstVoter = TestData.user(jdbcTemplate);
+            secondVoter = TestData.user(jdbcTemplate);
+            productId = TestData.product(jdbcTemplate, null);
+            reviewId = TestData.review(jdbcTemplate, productId, authorId, 5, 0, LocalDateTime.now());
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        reviewVoteService.flush();
+        jdbcTemplate.update("DELETE FROM review_votes WHERE review_id = ?", reviewId);
+        jdbcTemplate.update("DELETE FROM review WHERE id = ?", reviewId);
+        jdbcTemplate.update("DELETE FROM product WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (?, ?, ?)", authorId, firstVoter, secondVoter);
+    }
+
+    @Test
+    void votesChangesAndRemovalsAddUpAfterFlush() {
+        assertCounts(reviewVoteService.vote(firstVoter, reviewId, true), 1, 0);
+        assertCounts(reviewVoteService.vote(secondVoter, reviewId, false), 1, 1);
+        assertCounts(reviewVoteService.vote(firstVoter, reviewId, true), 1, 1);
+        assertCounts(reviewVoteService.vote(firstVoter, reviewId, false), 0, 2);
+        assertCounts(reviewVoteService.removeVote(secondVoter, reviewId), 0, 1);
+
+        reviewVoteService.flush();
+
+        assertEquals(Map.of("helpful_count", 0L, "unhelpful_count", 1L), storedCounts());
+    }
+
+    @Test
+    void aRolledBackVoteIsNeverCounted() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reviewVoteService.vote(firstVoter, reviewId, true);
+            status.setRollbackOnly();
+        });
+        reviewVoteService.vote(secondVoter, reviewId, true);
+
+        reviewVoteService.flush();
+
+        assertEquals(Map.of("helpful_count", 1L, "unhelpful_count", 0L), storedCounts());
+    }
+
+    private static void assertCounts(ReviewVoteDto vote, long helpful, long unhelpful) {
+        assertEquals(helpful, vote.getHelpfulCount(), "helpful");
+        assertEquals(unhelpful, vote.getUnhelpfulCount(), "unhelpful");
+    }
+
+    private Map<String, Object> storedCounts() {
+        return jdbcTemplate.queryForMap("SELECT helpful_count, unhelpful_count FROM review WHERE id = ?", reviewId);
+    }
+}
@@ -0,0 +1,156 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finale.amazon.DatabaseTest;
+import com.finale.amazon.TestData;
+import com.finale.amazon.dto.SalesBucketDto;
+import com.finale.amazon.entity.Order;
+import com.finale.amazon.entity.OrderItem;
+import com.finale.amazon.entity.Product;
+import com.finale.amazon.entity.ProductSalesBucket.Granularity;
+import com.finale.amazon.entity.User;
+
+@Transactional
+@DatabaseTest
+class SalesRollupServiceTest {
+
+    // Outside the default 90 days of day buckets; a Monday and a Tuesday in the same week and month
+    private static final LocalDate OLD_MONDAY = LocalDate.now().minusDays(150).withDayOfMonth(1)
+            .with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long sellerId;
+    private Product product;
+
+    @BeforeEach
+    void seed() {
+        sellerId = TestData.user(jdbcTemplate);
+        product = product(TestData.product(jdbcTemplate, sellerId));
+    }
+
+    @Test
+    void ordersAndCancellationsAddUpInTheOrderDayBucket() {
+        LocalDate day = LocalDate.now().minusDays(2);
+        rollupService.recordOrder(order(day, 2, 20));
+        rollupService.recordOrder(order(day, 1, 10));
+        rollupService.recordCancellation(order(day, 1, 10));
+
+        SalesBucketDto bucket = single(rollupService.getSellerBuckets(sellerId, null, Granularity.DAY, day, day));
+
+        assertEquals(2, bucket.getUnitsSold());
+        assertEquals(20, bucket.getRevenue());
+        assertEquals(2, bucket.getOrders());
+        assertEquals(1, bucket.getCancellations());
+    }
+
+    @Test
+    void productsWithoutASellerAreNotRolledUp() {
+        Product unsold = product(TestData.product(jdbcTemplate, null));
+        unsold.setSeller(null);
+        Order order = order(LocalDate.now(), 1, 10);
+        order.getOrderItems().get(0).setProduct(unsold);
+
+        rollupService.recordOrder(order);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM product_sales_buckets WHERE product_id = ?",
+                Long.class, unsold.getId()));
+    }
+
+    @Test
+    void viewsAreBufferedUntilFlushed() {
+        rollupService.recordView(product);
+        rollupService.recordView(product);
+        LocalDate today = LocalDate.now();
+        assertEquals(List.of(), rollupService.getSellerBuckets(sellerId, null, Granularity.DAY, today, today));
+
+        rollupService.flushViews();
+        rollupService.recordView(product);
+        rollupService.flushViews();
+
+        assertEquals(3, single(rollupService.getSellerBuckets(sellerId, null, Granularity.DAY, today, today))
+                .getViews());
+    }
+
+    @Test
+    void compactFoldsOldDaysIntoWeeksAndMonths() {
+        rollupService.recordOrder(order(OLD_MONDAY, 1, 10));
+        rollupService.recordOrder(order(OLD_MONDAY.plusDays(1), 2, 20));
+
+        rollupService.compact();
+
+        assertEquals(List.of(), rollupService.getSellerBuckets(sellerId, null, Granularity.DAY, OLD_MONDAY,
+                OLD_MONDAY.plusDays(1)));
+        SalesBucketDto week = single(rollupService.getSellerBuckets(sellerId, null, Granularity.WEEK, OLD_MONDAY,
+                OLD_MONDAY.plusDays(1)));
+        assertEquals(OLD_MONDAY, week.getBucketStart());
+        assertEquals(3, week.getUnitsSold());
+        assertEquals(2, week.getOrders());
+        SalesBucketDto month = single(rollupService.getSellerBuckets(sellerId, null, Granularity.MONTH, OLD_MONDAY,
+                OLD_MONDAY));
+        assertEquals(OLD_MONDAY.withDayOfMonth(1), month.getBucketStart());
+        assertEquals(30, month.getRevenue());
+    }
+
+    @Test
+    void weekBucketsFoldInDaysNotCompactedYet() {
+        LocalDate monday = LocalDate.now().minusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        rollupService.recordOrder(order(monday, 1, 10));
+        rollupService.recordOrder(order(monday.plusDays(3), 4, 40));
+        Product other = product(TestData.product(jdbcTemplate, sellerId));
+        Order otherOrder = order(monday, 5, 50);
+        otherOrder.getOrderItems().get(0).setProduct(other);
+        rollupService.recordOrder(otherOrder);
+
+        List<SalesBucketDto> weeks = rollupService.getSellerBuckets(sellerId, null, Granularity.WEEK,
+                monday.plusDays(2), monday.plusDays(6));
+        SalesBucketDto productWeek = single(rollupService.getSellerBuckets(sellerId, product.getId(),
+                Granularity.WEEK, monday, monday.plusDays(6)));
+
+        assertEquals(2, weeks.size());
+        assertEquals(List.of(monday, monday), weeks.stream().map(SalesBucketDto::getBucketStart).toList());
+        assertEquals(5, productWeek.getUnitsSold());
+        assertEquals(2, productWeek.getOrders());
+    }
+
+    private Product product(long productId) {
+        User seller = new User();
+        seller.setId(sellerId);
+        Product p = new Product();
+        p.setId(productId);
+        p.setSeller(seller);
+        return p;
+    }
+
+    private Order order(LocalDate day, long quantity, double total) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setTotalPrice(total);
+        Order order = new Order();
+        order.setOrderDate(day.atTime(12, 0));
+        order.setOrderItems(List.of(item));
+        return order;
+    }
+
+    private static SalesBucketDto single(List<SalesBucketDto> buckets) {
+        assertEquals(1, buckets.size(), "buckets: " + buckets);
+        return buckets.get(0);
+    }
+}
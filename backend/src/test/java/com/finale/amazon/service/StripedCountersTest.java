@@ -0,0 +1,76 @@
+package com.finale.amazon.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.finale.amazon.service.StripedCounters.Delta;
+
+class StripedCountersTest {
+
+    @Test
+    void drainReturnsPendingDeltasAndResetsThem() {
+        StripedCounters<String> counters = new StripedCounters<>();
+        counters.add("orders", 2);
+        counters.addAmount("orders", 10.5);
+        counters.add("reviews", 1);
+        counters.add("reviews", -1);
+
+        Map<String, Delta> drained = counters.drain();
+
+        assertEquals(Map.of("orders", new Delta(2, 10.5)), drained);
+        assertEquals(0, counters.pendingCount("orders"));
+        assertEquals(0, counters.pendingAmount("orders"));
+        assertTrue(counters.drain().isEmpty());
+    }
+
+    @Test
+    void restorePutsAFailedDrainBack() {
+        StripedCounters<String> counters = new StripedCounters<>();
+        counters.add("orders", 3);
+        Map<String, Delta> drained = counters.drain();
+        counters.add("orders", 1);
+
+        counters.restore(drained);
+
+        assertEquals(4, counters.pendingCount("orders"));
+    }
+
+    @Test
+    void noIncrementIsLostWhileDraining() throws Exception {
+        StripedCounters<Long> counters = new StripedCounters<>();
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        counters.add((long) (i % 4), 1);
+                    }
+                }));
+            }
+            long total = 0;
+            while (!writers.stream().allMatch(Future::isDone)) {
+                total += counters.drain().values().stream().mapToLong(Delta::count).sum();
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            total += counters.drain().values().stream().mapToLong(Delta::count).sum();
+
+            assertEquals((long) threads * perThread, total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
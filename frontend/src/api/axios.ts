@@ -2,6 +2,8 @@ import axios from "axios";
 
 const api = axios.create({
   baseURL: "http://localhost:8080/api", 
+  // The guest cart lives in an HttpOnly cookie set by the backend
+  withCredentials: true,
 });
 
 api.interceptors.request.use((config) => {
@@ -13,6 +13,46 @@ export interface CartItemDto {
   quantity: number;
 }
 
+export interface CartLineDto {
+  id: number;
+  productId: number;
+  slug?: string;
+  name: string;
+  sellerName?: string;
+  price: number;
+  priceWithoutDiscount: number;
+  quantityInStock: number;
+  quantity: number;
+  available: boolean;
+  lineTotal: number;
+  pictureUrl?: string | null;
+}
+
+export interface CartTotalsDto {
+  lineCount: number;
+  totalQuantity: number;
+  total: number;
+  totalWithoutDiscount: number;
+  allAvailable: boolean;
+}
+
+export interface CartViewDto {
+  items: CartLineDto[];
+  totals: CartTotalsDto;
+}
+
+export interface PriceMismatchDto {
+  productId: number;
+  productName: string;
+  expectedPrice: number;
+  currentPrice: number;
+}
+
+export interface CartCheckoutResultDto {
+  order: any | null;
+  priceMismatches: PriceMismatchDto[];
+}
+
 export const fetchCart = async (): Promise<CartItemResponseDto[]> => {
   const token = getToken();
   const res = await api.get<CartItemResponseDto[]>(`/cart`, {
@@ -21,6 +61,22 @@ export const fetchCart = async (): Promise<CartItemResponseDto[]> => {
   return res.data;
 };
 
+export const fetchCartView = async (): Promise<CartViewDto> => {
+  const token = getToken();
+  const res = await api.get<CartViewDto>(`/cart/view`, {
+    params: { token },
+  });
+  return res.data;
+};
+
+export const fetchCartTotals = async (): Promise<CartTotalsDto> => {
+  const token = getToken();
+  const res = await api.get<CartTotalsDto>(`/cart/totals`, {
+    params: { token },
+  });
+  return res.data;
+};
+
 export const addToCart = async (item: CartItemDto): Promise<void> => {
   const token = getToken();
   await api.post(`/cart/add`, item, {
@@ -28,6 +84,26 @@ export const addToCart = async (item: CartItemDto): Promise<void> => {
   });
 };
 
+export const addManyToCart = async (items: CartItemDto[]): Promise<void> => {
+  const token = getToken();
+  await api.post(`/cart/add-many`, items, {
+    params: { token },
+  });
+};
+
+export const checkoutCart = async (
+  expectedPrices: Record<number, number>,
+  acceptPriceChanges = false
+): Promise<CartCheckoutResultDto> => {
+  const token = getToken();
+  const res = await api.post<CartCheckoutResultDto>(
+    `/cart/checkout`,
+    { expectedPrices, acceptPriceChanges },
+    { params: { token } }
+  );
+  return res.data;
+};
+
 export const removeFromCart = async (cartItemId: number): Promise<void> => {
   const token = getToken();
   await api.delete(`/cart/${cartItemId}`, {
@@ -35,6 +111,27 @@ export const removeFromCart = async (cartItemId: number): Promise<void> => {
   });
 };
 
+// Guest cart: kept by the backend in a signed cookie and merged into the user's cart at login
+
+export const fetchGuestCart = async (): Promise<CartItemResponseDto[]> => {
+  const res = await api.get<CartItemResponseDto[]>(`/cart/guest`);
+  return res.data;
+};
+
+export const addToGuestCart = async (item: CartItemDto): Promise<CartItemResponseDto[]> => {
+  const res = await api.post<CartItemResponseDto[]>(`/cart/guest/add`, item);
+  return res.data;
+};
+
+export const removeFromGuestCart = async (productId: number): Promise<CartItemResponseDto[]> => {
+  const res = await api.delete<CartItemResponseDto[]>(`/cart/guest/${productId}`);
+  return res.data;
+};
+
+export const clearGuestCart = async (): Promise<void> => {
+  await api.delete(`/cart/guest/clear`);
+};
+
 export const clearCart = async (): Promise<void> => {
   const token = getToken();
   await api.delete(`/cart/clear`, {
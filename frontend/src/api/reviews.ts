@@ -1,14 +1,28 @@
-import { Review } from "../types/review";
+import { Review, ReviewFeedPage, ReviewSort, ReviewVote } from "../types/review";
 
 const API_BASE = "http://localhost:8080/api/reviews";
 
 
-export async function fetchProductReviews(productId: string | number): Promise<Review[]> {
-  const res = await fetch(`${API_BASE}/product/${productId}`);
+// One page of top-level reviews; pass the previous page's nextCursor to continue
+export async function fetchProductReviews(
+  productId: string | number,
+  options: { sort?: ReviewSort; cursor?: string | null; size?: number; replies?: number } = {}
+): Promise<ReviewFeedPage> {
+  const params = new URLSearchParams({ sort: options.sort ?? "newest" });
+  if (options.cursor) params.set("cursor", options.cursor);
+  if (options.size != null) params.set("size", String(options.size));
+  if (options.replies != null) params.set("replies", String(options.replies));
+  const res = await fetch(`${API_BASE}/product/${productId}?${params.toString()}`);
   if (!res.ok) throw new Error("Failed to load product reviews");
   return res.json();
 }
 
+export async function fetchReviewReplies(reviewId: number): Promise<Review[]> {
+  const res = await fetch(`${API_BASE}/${reviewId}/replies`);
+  if (!res.ok) throw new Error("Failed to load replies");
+  return res.json();
+}
+
 export async function createReview(input: {
   productId: string | number;
   description: string;
@@ -77,3 +91,18 @@ export async function replyReview(input: {
 
   return res.json();
 }
+
+export async function voteReview(reviewId: number, helpful: boolean): Promise<ReviewVote> {
+  const token = typeof window !== 'undefined' ? localStorage.getItem('token') : null;
+  if (!token) {
+    throw new Error('Authentication required to vote');
+  }
+  const res = await fetch(`${API_BASE}/${reviewId}/vote?token=${encodeURIComponent(token)}&helpful=${helpful}`, {
+    method: 'POST',
+  });
+  if (!res.ok) {
+    const text = await res.text().catch(() => '');
+    throw new Error(text || 'Failed to vote');
+  }
+  return res.json();
+}
@@ -1,7 +1,7 @@
 // api/seller.ts
 import type { Seller } from "../types/seller";
 import type { SellerStats } from "../types/sellerstats";
-import type { Review } from "../types/review";
+import type { Review, SellerReviewFilters } from "../types/review";
 import type { Product } from "../types/product";
 import type { PageResponse} from "../types/pageresponse";
 
@@ -16,9 +16,14 @@ function getAuthHeaders() {
   };
 }
 
-export async function fetchSellerReviews(): Promise<Review[]> {
+// сторінка відгуків на товари продавця (найновіші першими), відповіді вкладені в replies
+export async function fetchSellerReviews(filters: SellerReviewFilters = {}): Promise<PageResponse<Review>> {
   try {
-    const res = await fetch(`${API_BASE}/seller/profile/reviews`, {
+    const params = new URLSearchParams();
+    Object.entries(filters).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== "") params.set(key, String(value));
+    });
+    const res = await fetch(`${API_BASE}/seller/profile/reviews?${params.toString()}`, {
       method: "GET",
       headers: getAuthHeaders(),
     });
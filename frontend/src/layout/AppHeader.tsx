@@ -5,7 +5,7 @@ import { AuthContext } from "../context/AuthContext";
 import { fetchSellerProfile } from "../api/seller";
 import type { Seller } from "../types/seller";
 import CategoryDropdown from "../components/CategoryDropdown";
-import { fetchCart } from "../api/cart";
+import { fetchCartTotals } from "../api/cart";
 
 const Navbar: React.FC = () => {
   const [languageDropdown, setLanguageDropdown] = useState(false);
@@ -51,9 +51,8 @@ const Navbar: React.FC = () => {
           setCartCount(0);
           return;
         }
-        const items = await fetchCart();
-        const count = items.reduce((sum, it) => sum + (it.quantity || 0), 0);
-        setCartCount(count);
+        const totals = await fetchCartTotals();
+        setCartCount(totals.totalQuantity || 0);
       } catch {
         setCartCount(0);
       }
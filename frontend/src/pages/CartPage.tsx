@@ -1,23 +1,21 @@
-import React, { useEffect, useMemo, useState } from "react";
+import React, { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import { fetchCart, addToCart, removeFromCart, clearCart, type CartItemResponseDto } from "../api/cart";
+import { fetchCartView, addToCart, removeFromCart, clearCart, type CartLineDto } from "../api/cart";
 
 const CartPage: React.FC = () => {
-  const [items, setItems] = useState<CartItemResponseDto[]>([]);
+  const [items, setItems] = useState<CartLineDto[]>([]);
+  const [total, setTotal] = useState<number>(0);
   const [loading, setLoading] = useState<boolean>(false);
   const [error, setError] = useState<string | null>(null);
   const navigate = useNavigate();
 
-  const total = useMemo(() => {
-    return items.reduce((sum, it) => sum + (it.product?.price || 0) * it.quantity, 0);
-  }, [items]);
-
   const load = async () => {
     try {
       setLoading(true);
       setError(null);
-      const data = await fetchCart();
-      setItems(data);
+      const data = await fetchCartView();
+      setItems(data.items);
+      setTotal(data.totals.total);
     } catch (e: any) {
       setError(e?.response?.data?.message || e?.message || "Не вдалося завантажити кошик");
     } finally {
@@ -65,7 +63,7 @@ const CartPage: React.FC = () => {
     try {
       setLoading(true);
       await removeFromCart(cartItemId);
-      setItems((prev) => prev.filter((i) => i.id !== cartItemId));
+      await load();
       window.dispatchEvent(new CustomEvent('cart:updated'));
     } catch (e: any) {
       setError(e?.response?.data?.message || e?.message || "Не вдалося видалити товар");
@@ -79,6 +77,7 @@ const CartPage: React.FC = () => {
       setLoading(true);
       await clearCart();
       setItems([]);
+      setTotal(0);
       window.dispatchEvent(new CustomEvent('cart:updated'));
     } catch (e: any) {
       setError(e?.response?.data?.message || e?.message || "Не вдалося очистити кошик");
@@ -130,9 +129,9 @@ const CartPage: React.FC = () => {
               )}
               
               {items.map((item) => {
-                const itemTotal = (item.product?.price || 0) * item.quantity;
+                const itemTotal = item.lineTotal;
                 const currentQty = pendingQty[item.id] ?? item.quantity;
-                const maxQty = item.product?.quantityInStock ?? Infinity;
+                const maxQty = item.quantityInStock ?? Infinity;
                 return (
                   <div key={item.id} className="grid grid-cols-4 gap-4 px-6 py-4 hover:bg-gray-50">
                     {/* Product */}
@@ -149,13 +148,12 @@ const CartPage: React.FC = () => {
                       </button>
                       
                       {(() => {
-                        const primary = item.product?.pictures?.find(p => (p as any)?.pictureType === 'PRIMARY') || item.product?.pictures?.[0];
-                        const imgUrl = primary?.url ? `http://localhost:8080/${primary.url}` : undefined;
+                        const imgUrl = item.pictureUrl ? `http://localhost:8080/${item.pictureUrl}` : undefined;
                         return imgUrl ? (
                           <div className="w-16 h-16 bg-gray-100 rounded flex-shrink-0 overflow-hidden">
                             <img
                               src={imgUrl}
-                              alt={item.product?.name}
+                              alt={item.name}
                               className="w-full h-full object-cover"
                             />
                           </div>
@@ -166,10 +164,10 @@ const CartPage: React.FC = () => {
                       
                       <div 
                         className="min-w-0 cursor-pointer"
-                        onClick={() => item.product?.slug && navigate(`/product/${item.product.slug}`)}
+                        onClick={() => item.slug && navigate(`/product/${item.slug}`)}
                       >
                         <p className="text-sm font-medium text-[#151515] truncate">
-                          {item.product?.name || 'Product Name'}
+                          {item.name || 'Product Name'}
                         </p>
                       </div>
                     </div>
@@ -177,7 +175,7 @@ const CartPage: React.FC = () => {
                     {/* Price */}
                     <div className="flex items-center justify-center">
                       <span className="text-sm text-[#151515]">
-                        ${(item.product?.price || 0).toFixed(0)}
+                        ${(item.price || 0).toFixed(0)}
                       </span>
                     </div>
 
@@ -186,7 +184,7 @@ const CartPage: React.FC = () => {
                       <div className="flex items-center border rounded-lg">
                         <button
                               onClick={() => {
-                                const pid = Number((item.product as any)?.id);
+                                const pid = item.productId;
                                 if (Number.isFinite(pid)) changeQuantityDelta(pid, -1, currentQty);
                               }}
                               disabled={loading || currentQty <= 1}
@@ -204,7 +202,7 @@ const CartPage: React.FC = () => {
                                   setPendingQty((m) => ({ ...m, [item.id]: Math.min(Math.max(1, val), maxQty) }));
                                 }}
                                 onBlur={() => {
-                                  const pid = Number(item.product?.id);
+                                  const pid = item.productId;
                                   if (!Number.isFinite(pid)) return;
                                   const desired = pendingQty[item.id] ?? currentQty;
                                   const finalQty = Math.min(Math.max(1, desired), maxQty);
@@ -218,7 +216,7 @@ const CartPage: React.FC = () => {
                               }}
                               onKeyDown={(e) => {
                                 if (e.key === 'Enter') {
-                                  const pid = Number(item.product?.id);
+                                  const pid = item.productId;
                                   if (!Number.isFinite(pid)) return;
                                   const desired = pendingQty[item.id] ?? currentQty;
                                   const finalQty = Math.min(Math.max(1, desired), maxQty);
@@ -229,7 +227,7 @@ const CartPage: React.FC = () => {
                             />
                           <button
                             onClick={() => {
-                              const pid = Number((item.product as any)?.id);
+                              const pid = item.productId;
                               if (Number.isFinite(pid)) changeQuantityDelta(pid, +1, currentQty);
                             }}
                             disabled={loading || currentQty >= maxQty}
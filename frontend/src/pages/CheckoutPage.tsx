@@ -1,7 +1,6 @@
-import React, { useEffect, useMemo, useState } from "react";
+import React, { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
-import { fetchCart, type CartItemResponseDto, clearCart } from "../api/cart";
-import { createOrder } from "../api/orders";
+import { fetchCartView, type CartLineDto, type CartCheckoutResultDto, checkoutCart } from "../api/cart";
 
 const CheckoutPage: React.FC = () => {
   // 📌 state для форми
@@ -23,7 +22,8 @@ const CheckoutPage: React.FC = () => {
     "w-full bg-[#F8F8F8] border border-[#DFDFDF] rounded-full px-7 py-3.5 text-base text-[#454545] placeholder:text-[#989898] transition-colors focus:outline-none focus:ring-0 focus:border-[#CFCFCF] hover:bg-[#FCFCFC] focus:bg-white";
 
   // Cart items from API
-  const [items, setItems] = useState<CartItemResponseDto[]>([]);
+  const [items, setItems] = useState<CartLineDto[]>([]);
+  const [total, setTotal] = useState<number>(0);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string | null>(null);
 
@@ -32,8 +32,9 @@ const CheckoutPage: React.FC = () => {
       try {
         setLoading(true);
         setError(null);
-        const data = await fetchCart();
-        setItems(data);
+        const data = await fetchCartView();
+        setItems(data.items);
+        setTotal(data.totals.total);
       } catch (e: any) {
         setError(e?.response?.data?.message || e?.message || "Не вдалося завантажити кошик");
       } finally {
@@ -43,7 +44,6 @@ const CheckoutPage: React.FC = () => {
     load();
   }, []);
 
-  const total = useMemo(() => items.reduce((sum, it) => sum + (it.product?.price || 0) * it.quantity, 0), [items]);
 
   const handleSubmit = async () => {
     const missing: string[] = [];
@@ -61,23 +61,36 @@ const CheckoutPage: React.FC = () => {
     try {
       setLoading(true);
       setProcessing(true);
-      const payload = {
-        orderItems: items
-          .filter((it) => Number.isFinite(Number((it.product as any)?.id)))
-          .map((it) => ({
-            productId: Number((it.product as any)?.id),
-            quantity: it.quantity,
-          })),
-      };
+      const expectedPrices: Record<number, number> = {};
+      items.forEach((it) => {
+        expectedPrices[it.productId] = it.price;
+      });
 
-      if (payload.orderItems.length === 0) {
+      if (Object.keys(expectedPrices).length === 0) {
         setMessage("❌ Кошик порожній або містить некоректні товари");
         return;
       }
 
       await new Promise((res) => setTimeout(res, 1200));
-      await createOrder(payload);
-      await clearCart();
+      try {
+        await checkoutCart(expectedPrices);
+      } catch (e: any) {
+        const result = e?.response?.data as CartCheckoutResultDto | undefined;
+        if (e?.response?.status === 409 && Array.isArray(result?.priceMismatches)) {
+          const refreshed = await fetchCartView();
+          setItems(refreshed.items);
+          setTotal(refreshed.totals.total);
+          setMessage(
+            "⚠️ Ціни змінились: " +
+              result!.priceMismatches
+                .map((m) => `${m.productName} ${m.expectedPrice} → ${m.currentPrice}`)
+                .join(", ") +
+              ". Перевірте суму та підтвердіть замовлення ще раз."
+          );
+          return;
+        }
+        throw e;
+      }
       setItems([]);
       window.dispatchEvent(new CustomEvent('cart:updated'));
       setMessage("✅ Замовлення успішно оформлено!");
@@ -202,20 +215,19 @@ const CheckoutPage: React.FC = () => {
         {error && <p style={{ color: 'red' }}>{error}</p>}
         <ul className="space-y-3">
           {items.map((it) => {
-            const primary = it.product?.pictures?.find(p => (p as any)?.pictureType === 'PRIMARY') || it.product?.pictures?.[0];
-            const imgUrl = primary?.url ? `http://localhost:8080/${primary.url}` : '/images/product/placeholder.jpg';
+            const imgUrl = it.pictureUrl ? `http://localhost:8080/${it.pictureUrl}` : '/images/product/placeholder.jpg';
             return (
               <li key={it.id} className="flex items-center gap-4">
                 <img
                   src={imgUrl}
-                  alt={it.product?.name}
+                  alt={it.name}
                   className="w-16 h-16 object-contain rounded-lg bg-gray-50"
                 />
                 <div className="flex-1 min-w-0">
-                  <h3 className="font-semibold truncate">{it.product?.name}</h3>
-                  <p className="text-sm text-[#838383]">{it.quantity} x {it.product?.price?.toFixed(2)} грн</p>
+                  <h3 className="font-semibold truncate">{it.name}</h3>
+                  <p className="text-sm text-[#838383]">{it.quantity} x {it.price.toFixed(2)} грн</p>
                 </div>
-                <p className="font-bold">{((it.product?.price || 0) * it.quantity).toFixed(2)} грн</p>
+                <p className="font-bold">{it.lineTotal.toFixed(2)} грн</p>
               </li>
             );
           })}
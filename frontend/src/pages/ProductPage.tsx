@@ -4,8 +4,8 @@ import type { Product } from "../types/product";
 import type { Seller } from "../types/seller";
 import { fetchProductBySlug } from "../api/products";
 import { fetchSellerProfileBySlug } from "../api/seller";
-import { fetchProductReviews, createReview, deleteReview, replyReview } from "../api/reviews";
-import { Review } from '../types/review';
+import { fetchProductReviews, fetchReviewReplies, createReview, deleteReview, replyReview, voteReview } from "../api/reviews";
+import { Review, ReviewSort } from '../types/review';
 import { AuthContext } from "../context/AuthContext";
 import { Star, ArrowLeft, ArrowRight, X, Tag } from 'lucide-react';
 import { addToCart as addToCartApi, fetchCart } from "../api/cart";
@@ -98,6 +98,9 @@ const ProductPage: React.FC = () => {
 
   // Reviews state
   const [reviews, setReviews] = useState<Review[]>([]);
+  const [reviewSort, setReviewSort] = useState<ReviewSort>("newest");
+  const [reviewsCursor, setReviewsCursor] = useState<string | null>(null);
+  const [loadingMoreReviews, setLoadingMoreReviews] = useState(false);
   const [reviewsLoading, setReviewsLoading] = useState(false);
   const [reviewsError, setReviewsError] = useState<string | null>(null);
   const [newReviewText, setNewReviewText] = useState("");
@@ -192,45 +195,50 @@ const ProductPage: React.FC = () => {
     setReviewsLoading(true);
     setReviewsError(null);
     try {
-      const list = await fetchProductReviews(product.id);
-      
-      // Restructure reviews to nest replies under parents
-      const reviewsMap = new Map<number, Review>();
-      const topLevelReviews: Review[] = [];
-      
-      // First pass: create map and identify top-level reviews
-      list.forEach(review => {
-        reviewsMap.set(review.id, { ...review, replies: [] });
-        if (!review.parentId) {
-          topLevelReviews.push(reviewsMap.get(review.id)!);
-        }
-      });
-      
-      // Second pass: nest replies under parents
-      list.forEach(review => {
-        if (review.parentId) {
-          const parent = reviewsMap.get(review.parentId);
-          if (parent) {
-            parent.replies = parent.replies || [];
-            parent.replies.push(reviewsMap.get(review.id)!);
-          }
-        }
-      });
-      
-      // Sort by date descending
-      const sorted = [...topLevelReviews].sort((a, b) => {
-        const da = a.date ? new Date(a.date).getTime() : 0;
-        const db = b.date ? new Date(b.date).getTime() : 0;
-        return db - da;
-      });
-      
-      setReviews(sorted);
+      // The feed comes back already sorted, with replies nested under each review
+      const page = await fetchProductReviews(product.id, { sort: reviewSort });
+      setReviews(page.reviews);
+      setReviewsCursor(page.nextCursor);
     } catch (e) {
       setReviewsError(e instanceof Error ? e.message : "Не вдалося завантажити відгуки");
     } finally {
       setReviewsLoading(false);
     }
-  }, [product?.id]);
+  }, [product?.id, reviewSort]);
+
+  const loadMoreReviews = async () => {
+    if (!product?.id || !reviewsCursor) return;
+    setLoadingMoreReviews(true);
+    try {
+      const page = await fetchProductReviews(product.id, { sort: reviewSort, cursor: reviewsCursor });
+      setReviews(prev => [...prev, ...page.reviews]);
+      setReviewsCursor(page.nextCursor);
+    } catch (e) {
+      setReviewsError(e instanceof Error ? e.message : "Не вдалося завантажити відгуки");
+    } finally {
+      setLoadingMoreReviews(false);
+    }
+  };
+
+  const handleVoteReview = async (reviewId: number, helpful: boolean) => {
+    try {
+      const vote = await voteReview(reviewId, helpful);
+      setReviews(prev => prev.map(r => (r.id === reviewId
+        ? { ...r, helpfulCount: vote.helpfulCount, unhelpfulCount: vote.unhelpfulCount }
+        : r)));
+    } catch (e) {
+      alert(e instanceof Error ? e.message : "Failed to vote");
+    }
+  };
+
+  const loadAllReplies = async (reviewId: number) => {
+    try {
+      const replies = await fetchReviewReplies(reviewId);
+      setReviews(prev => prev.map(r => (r.id === reviewId ? { ...r, replies, replyCount: replies.length } : r)));
+    } catch (e) {
+      console.error('Failed to load replies:', e);
+    }
+  };
 
   // Load reviews when product is available
   useEffect(() => {
@@ -567,7 +575,18 @@ const ProductPage: React.FC = () => {
       {/* Reviews Section */}
       <div className="max-w-6xl mx-auto mt-12 mb-12 grid grid-cols-1 gap-8">
         <section className="bg-[#F8F8F8] rounded-2xl border p-6">
-          <h2 className="text-xl font-semibold mb-4">Customer Reviews</h2>
+          <div className="flex items-center justify-between mb-4">
+            <h2 className="text-xl font-semibold">Customer Reviews</h2>
+            <select
+              value={reviewSort}
+              onChange={(e) => setReviewSort(e.target.value as ReviewSort)}
+              className="border rounded-lg px-2 py-1 text-sm bg-white"
+            >
+              <option value="newest">Newest</option>
+              <option value="stars">Highest rated</option>
+              <option value="helpful">Most helpful</option>
+            </select>
+          </div>
 
           {reviewsLoading && (
             <div className="text-[#838383]">Loading reviews...</div>
@@ -639,6 +658,17 @@ const ProductPage: React.FC = () => {
                       ))}
                     </div>
                     <p className="text-[#2a2a2a] whitespace-pre-wrap">{r.description}</p>
+                    {currentUser && r.userId !== currentUser.id && (
+                      <div className="flex items-center gap-3 mt-2 text-sm text-[#838383]">
+                        <span>Was this helpful?</span>
+                        <button onClick={() => handleVoteReview(r.id, true)} className="hover:text-[#2a2a2a]">
+                          Yes ({r.helpfulCount ?? 0})
+                        </button>
+                        <button onClick={() => handleVoteReview(r.id, false)} className="hover:text-[#2a2a2a]">
+                          No ({r.unhelpfulCount ?? 0})
+                        </button>
+                      </div>
+                    )}
                     
                     {/* Replies section */}
                     {r.replies && r.replies.length > 0 && (
@@ -658,6 +688,14 @@ const ProductPage: React.FC = () => {
                             </div>
                           ))}
                         </div>
+                        {(r.replyCount ?? 0) > r.replies.length && (
+                          <button
+                            onClick={() => loadAllReplies(r.id)}
+                            className="mt-2 text-sm text-blue-500 hover:text-blue-600"
+                          >
+                            Show all {r.replyCount} replies
+                          </button>
+                        )}
                       </div>
                     )}
                     
@@ -692,6 +730,15 @@ const ProductPage: React.FC = () => {
                   </div>
                 ))
               )}
+              {reviewsCursor && (
+                <button
+                  onClick={loadMoreReviews}
+                  disabled={loadingMoreReviews}
+                  className="w-full py-2 text-sm text-[#585858] hover:text-[#2a2a2a] border rounded-xl"
+                >
+                  {loadingMoreReviews ? 'Loading...' : 'Show more reviews'}
+                </button>
+              )}
             </div>
           )}
         </section>
@@ -1,4 +1,4 @@
-import React, { useEffect, useMemo, useState } from "react";
+import React, { useEffect, useState } from "react";
 import { Link } from "react-router-dom";
 import SellerStatsCard from "../../components/seller/SellerStats";
 import type { Seller } from "../../types/seller";
@@ -8,10 +8,19 @@ import { fetchSellerProfile, fetchSellerStats, fetchSellerReviews } from "../../
 import { replyReview } from "../../api/reviews";
 import { Star } from "lucide-react";
 
+const REVIEWS_PAGE_SIZE = 20;
+
+type ReviewFilter = "all" | "unreplied";
+
 const SellerDashboard: React.FC = () => {
   const [seller, setSeller] = useState<Seller | null>(null);
   const [stats, setStats] = useState<SellerStatsData | null>(null);
   const [reviews, setReviews] = useState<Review[]>([]);
+  const [reviewsPage, setReviewsPage] = useState(0);
+  const [reviewsTotal, setReviewsTotal] = useState(0);
+  const [hasMoreReviews, setHasMoreReviews] = useState(false);
+  const [loadingMoreReviews, setLoadingMoreReviews] = useState(false);
+  const [reviewFilter, setReviewFilter] = useState<ReviewFilter>("all");
   const [replyingReviewId, setReplyingReviewId] = useState<number | null>(null);
   const [replyText, setReplyText] = useState("");
   const [isSubmittingReply, setIsSubmittingReply] = useState(false);
@@ -23,14 +32,13 @@ const SellerDashboard: React.FC = () => {
   useEffect(() => {
     const loadSeller = async () => {
       try {
-        const [profile, statsData, sellerReviews] = await Promise.all([
+        const [profile, statsData] = await Promise.all([
           fetchSellerProfile(),
           fetchSellerStats(),
-          fetchSellerReviews(),
+          loadReviews("all"),
         ]);
         setSeller(profile);
         setStats(statsData);
-        setReviews(sellerReviews);
       } catch (err: any) {
         setError("Не вдалося завантажити профіль продавця");
         console.error("[SellerDashboard] Error:", err);
@@ -42,22 +50,37 @@ const SellerDashboard: React.FC = () => {
     loadSeller();
   }, []);
 
-  const flattenReviews = useMemo(() => {
-    const repliesByParent: Record<number, Review[]> = {};
-    reviews.forEach((review) => {
-      if (review.parentId) {
-        repliesByParent[review.parentId] = repliesByParent[review.parentId] || [];
-        repliesByParent[review.parentId].push(review);
-      }
+  const loadReviews = async (filter: ReviewFilter, page = 0) => {
+    const pageData = await fetchSellerReviews({
+      page,
+      size: REVIEWS_PAGE_SIZE,
+      replied: filter === "unreplied" ? false : undefined,
     });
+    setReviews((prev) => (page === 0 ? pageData.content : [...prev, ...pageData.content]));
+    setReviewsPage(pageData.number);
+    setReviewsTotal(pageData.totalElements);
+    setHasMoreReviews(!pageData.last);
+  };
+
+  const changeReviewFilter = async (filter: ReviewFilter) => {
+    setReviewFilter(filter);
+    try {
+      await loadReviews(filter);
+    } catch (err) {
+      console.error("[SellerDashboard] Reviews error", err);
+    }
+  };
 
-    return reviews
-      .filter((review) => !review.parentId)
-      .map((review) => ({
-        review,
-        replies: repliesByParent[review.id] || [],
-      }));
-  }, [reviews]);
+  const loadMoreReviews = async () => {
+    setLoadingMoreReviews(true);
+    try {
+      await loadReviews(reviewFilter, reviewsPage + 1);
+    } catch (err) {
+      console.error("[SellerDashboard] Reviews error", err);
+    } finally {
+      setLoadingMoreReviews(false);
+    }
+  };
 
   if (loading) {
     return (
@@ -92,8 +115,8 @@ const SellerDashboard: React.FC = () => {
       setReplyText("");
       setReplyingReviewId(null);
 
-      const sellerReviews = await fetchSellerReviews();
-      setReviews(sellerReviews);
+      const [statsData] = await Promise.all([fetchSellerStats(), loadReviews(reviewFilter)]);
+      setStats(statsData);
     } catch (err) {
       console.error("[SellerDashboard] Reply error", err);
       setReplyError("Не вдалося надіслати відповідь. Перевірте, чи відгук належить вашому товару.");
@@ -177,7 +200,17 @@ const SellerDashboard: React.FC = () => {
           <div className="bg-[#F8F8F8] rounded-3xl border p-8 shadow-sm">
             <div className="flex items-center justify-between mb-6">
               <h2 className="text-xl font-semibold text-[#151515]">Відгуки покупців</h2>
-              <span className="text-sm text-[#838383]">Загалом: {reviews.length}</span>
+              <div className="flex items-center gap-4">
+                <select
+                  className="border rounded-lg px-3 py-2 text-sm bg-white"
+                  value={reviewFilter}
+                  onChange={(e) => changeReviewFilter(e.target.value as ReviewFilter)}
+                >
+                  <option value="all">Усі</option>
+                  <option value="unreplied">Без відповіді ({stats?.unrepliedReviews ?? 0})</option>
+                </select>
+                <span className="text-sm text-[#838383]">Загалом: {reviewsTotal}</span>
+              </div>
             </div>
 
             {replyError && (
@@ -191,13 +224,13 @@ const SellerDashboard: React.FC = () => {
               </div>
             )}
 
-            {flattenReviews.length === 0 ? (
+            {reviews.length === 0 ? (
               <div className="text-center text-[#838383] py-12 text-lg">
                 Наразі немає відгуків для ваших товарів.
               </div>
             ) : (
               <div className="space-y-5">
-                {flattenReviews.map(({ review, replies }) => (
+                {reviews.map((review) => (
                   <div key={review.id} className="border rounded-2xl p-5 bg-white shadow-sm">
                     <div className="flex items-start justify-between gap-2 mb-2">
                       <div className="font-medium flex-1 text-[#151515] text-lg">
@@ -216,11 +249,14 @@ const SellerDashboard: React.FC = () => {
                         />
                       ))}
                     </div>
+                    {review.productName && (
+                      <div className="text-sm text-[#838383] mb-2">{review.productName}</div>
+                    )}
                     <p className="text-[#2a2a2a] whitespace-pre-wrap leading-relaxed">{review.description}</p>
 
-                    {replies.length > 0 && (
+                    {review.replies && review.replies.length > 0 && (
                       <div className="mt-4 ml-6 pl-4 border-l-2 border-[#e7e7e7] space-y-3">
-                        {replies.map((reply) => (
+                        {review.replies.map((reply) => (
                           <div key={reply.id} className="bg-gray-50 rounded-xl p-4">
                             <div className="flex items-start justify_between gap-2 mb-1">
                               <div className="font-medium text-sm text-[#454545]">{reply.username ?? "User"}</div>
@@ -280,6 +316,15 @@ const SellerDashboard: React.FC = () => {
                     </div>
                   </div>
                 ))}
+                {hasMoreReviews && (
+                  <button
+                    className="w-full py-3 text-sm font-medium text-[#585858] hover:text-[#151515] disabled:text-[#838383]"
+                    onClick={loadMoreReviews}
+                    disabled={loadingMoreReviews}
+                  >
+                    {loadingMoreReviews ? "Завантаження..." : "Показати ще відгуки"}
+                  </button>
+                )}
               </div>
             )}
           </div>
@@ -5,6 +5,8 @@ const API_URL = "http://localhost:8080/api/auth";
 
 const api = axios.create({
   baseURL: API_URL,
+  // Login sends the guest cart cookie so the backend can merge it into the user's cart
+  withCredentials: true,
 });
 
 // Paths that MUST NOT include Authorization header
@@ -19,6 +19,8 @@ export type Product = {
   createdAt: string;
   updatedAt: string;
   views: number;
+  favouriteCount?: number;
+  isFavourite?: boolean | null;
   sold: number;
   rating?: number;       // optional
   avgRating?: number;
@@ -8,5 +8,32 @@ export type Review = {
     parentId?: number;  
     productId?: number;
     roleName?: string;
-    replies?: Review[];
-  };
\ No newline at end of file
+    helpfulCount?: number;
+    unhelpfulCount?: number;
+    replyCount?: number | null;
+    replies?: Review[] | null;
+    productName?: string;
+    replied?: boolean;
+  };
+
+export type ReviewSort = "newest" | "stars" | "helpful";
+
+export type ReviewFeedPage = {
+    reviews: Review[];
+    nextCursor: string | null;
+  };
+export type SellerReviewFilters = {
+    page?: number;
+    size?: number;
+    stars?: number;
+    replied?: boolean;
+    from?: string; // yyyy-mm-dd
+    to?: string;
+  };
+
+export type ReviewVote = {
+    reviewId: number;
+    helpfulCount: number;
+    unhelpfulCount: number;
+    helpful: boolean | null;
+  };
@@ -6,6 +6,7 @@ export type SellerStats = {
   totalRevenue: number;
   avgFeedback: number;
   reviewsCount: number;
+  unrepliedReviews?: number;
   salesWeekly?: { labels: string[]; data: number[] };
   salesMonthly?: { labels: string[]; data: number[] };
   salesYearly?: { labels: string[]; data: number[] };